@@ -0,0 +1,108 @@
+package com.example.todolist;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class TaskCompletionWriteQueueTest {
+    private static final String TEST_DATABASE = "task_completion_queue_test.db";
+
+    private Context appContext;
+    private TaskDatabaseManager databaseManager;
+    private TaskCache taskCache;
+    private CountDownLatch completionsWritten;
+
+    @Before
+    public void setUp() {
+        appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        appContext.deleteDatabase(TEST_DATABASE);
+        clearJournal();
+        databaseManager = new TaskDatabaseManager(
+            appContext, TEST_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+        // Events are published on the writer thread, right after the transaction commits.
+        taskCache = new TaskCache(Runnable::run);
+        completionsWritten = new CountDownLatch(1);
+        taskCache.addChangeListener((changeType, taskIds) -> completionsWritten.countDown());
+    }
+
+    @After
+    public void tearDown() {
+        databaseManager.close();
+        appContext.deleteDatabase(TEST_DATABASE);
+        clearJournal();
+    }
+
+    @Test
+    public void repeatedToggles_areWrittenOnceWithTheLatestState() throws Exception {
+        TaskItem firstTask = insertTask("First");
+        TaskItem secondTask = insertTask("Second");
+        TaskRepository taskRepository = new TaskRepository(databaseManager, taskCache);
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            TaskCompletionWriteQueue writeQueue = new TaskCompletionWriteQueue(appContext, taskRepository);
+            writeQueue.setFinished(firstTask.getId(), true, false);
+            writeQueue.setFinished(firstTask.getId(), false, true);
+            writeQueue.setFinished(firstTask.getId(), true, false);
+            // Toggled back to where it started, so it is dropped.
+            writeQueue.setFinished(secondTask.getId(), true, false);
+            writeQueue.setFinished(secondTask.getId(), false, true);
+
+            assertEquals(Boolean.TRUE, writeQueue.getUnwrittenCompletion(firstTask.getId()));
+            assertNull(writeQueue.getUnwrittenCompletion(secondTask.getId()));
+            writeQueue.flush();
+        });
+
+        assertTrue(completionsWritten.await(5, TimeUnit.SECONDS));
+        taskRepository.shutdown(false);
+        assertEquals(1, databaseManager.getCompletedTaskCount());
+        assertEquals(1, databaseManager.getPendingTaskCount());
+        assertEquals(1, databaseManager.getMetrics()
+            .snapshot(TaskDatabaseMetrics.Operation.MODIFY_COMPLETIONS).getCallCount());
+    }
+
+    @Test
+    public void togglesLeftUnwritten_areWrittenOnTheNextStart() throws Exception {
+        TaskItem task = insertTask("Survives a crash");
+        TaskRepository deadRepository = new TaskRepository(databaseManager, taskCache);
+        // A repository that takes no more writes stands in for a process that died first.
+        deadRepository.shutdown(false);
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            TaskCompletionWriteQueue writeQueue = new TaskCompletionWriteQueue(appContext, deadRepository);
+            writeQueue.setFinished(task.getId(), true, false);
+            writeQueue.flush();
+        });
+        assertEquals(0, databaseManager.getCompletedTaskCount());
+
+        TaskRepository taskRepository = new TaskRepository(databaseManager, taskCache);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(
+            () -> new TaskCompletionWriteQueue(appContext, taskRepository));
+
+        assertTrue(completionsWritten.await(5, TimeUnit.SECONDS));
+        taskRepository.shutdown(false);
+        assertEquals(1, databaseManager.getCompletedTaskCount());
+    }
+
+    private TaskItem insertTask(String description) {
+        TaskItem task = new TaskItem(description);
+        assertTrue(databaseManager.insertTask(task) > 0);
+        return task;
+    }
+
+    private void clearJournal() {
+        appContext.getSharedPreferences(TaskCompletionWriteQueue.JOURNAL_NAME, Context.MODE_PRIVATE)
+            .edit().clear().commit();
+    }
+}
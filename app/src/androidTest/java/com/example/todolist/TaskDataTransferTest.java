@@ -0,0 +1,189 @@
+package com.example.todolist;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class TaskDataTransferTest {
+    private static final String SOURCE_DATABASE = "task_transfer_source.db";
+    private static final String TARGET_DATABASE = "task_transfer_target.db";
+    private static final int TASK_COUNT = 5_000;
+    // Deliberately not a divisor of TASK_COUNT, so the last chunk is a partial one.
+    private static final int CHUNK_SIZE = 97;
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private Context appContext;
+    private TaskDatabaseManager sourceManager;
+    private TaskDatabaseManager targetManager;
+    private File exportFile;
+
+    @Before
+    public void setUp() {
+        appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        appContext.deleteDatabase(SOURCE_DATABASE);
+        appContext.deleteDatabase(TARGET_DATABASE);
+        sourceManager = new TaskDatabaseManager(
+            appContext, SOURCE_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+        targetManager = new TaskDatabaseManager(
+            appContext, TARGET_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+        exportFile = new File(appContext.getCacheDir(), "tasks.export");
+        seedSourceTasks();
+    }
+
+    @After
+    public void tearDown() {
+        sourceManager.close();
+        targetManager.close();
+        appContext.deleteDatabase(SOURCE_DATABASE);
+        appContext.deleteDatabase(TARGET_DATABASE);
+        exportFile.delete();
+    }
+
+    @Test
+    public void roundTrip_everyFormatReproducesTheTable() throws IOException {
+        for (TaskDataTransfer.Format format : TaskDataTransfer.Format.values()) {
+            for (boolean compress : new boolean[]{false, true}) {
+                String variant = format + (compress ? " compressed" : "");
+                targetManager.removeTasks(allTaskIds(targetManager));
+
+                int exportedCount = new TaskDataTransfer(sourceManager, CHUNK_SIZE)
+                    .exportTasks(exportFile, format, compress);
+                int importedCount = new TaskDataTransfer(targetManager, CHUNK_SIZE).importTasks(exportFile);
+
+                int sourceCount = sourceManager.getTaskCount();
+                assertEquals(variant, sourceCount, exportedCount);
+                assertEquals(variant, sourceCount, importedCount);
+                assertSameTables(variant);
+                assertArrayEquals(variant, sourceManager.getTaskCounts(), targetManager.getTaskCounts());
+                assertSameDailyStatistics(variant);
+            }
+        }
+    }
+
+    @Test
+    public void reimport_skipsTasksAlreadyPresentAndNewIdsContinueAfterImported() throws IOException {
+        new TaskDataTransfer(sourceManager, CHUNK_SIZE).exportTasks(exportFile, TaskDataTransfer.Format.BINARY, true);
+        TaskDataTransfer targetTransfer = new TaskDataTransfer(targetManager, CHUNK_SIZE);
+
+        assertEquals(sourceManager.getTaskCount(), targetTransfer.importTasks(exportFile));
+        assertEquals(0, targetTransfer.importTasks(exportFile));
+        assertSameTables("re-import");
+
+        List<TaskItem> importedTasks = targetManager.retrieveTaskChunkAfter(0, Integer.MAX_VALUE);
+        int highestImportedId = importedTasks.get(importedTasks.size() - 1).getId();
+        assertTrue(targetManager.insertTask(new TaskItem("Added after import")) > highestImportedId);
+    }
+
+    @Test
+    public void import_givesATaskWhoseIdHoldsAnotherTaskAFreshId() throws IOException {
+        new TaskDataTransfer(sourceManager, CHUNK_SIZE).exportTasks(exportFile, TaskDataTransfer.Format.BINARY, false);
+        TaskItem firstSourceTask = sourceManager.retrieveTaskChunkAfter(0, 1).get(0);
+        TaskItem localTask = new TaskItem(firstSourceTask.getId(), "Local task", false, 1L);
+        assertEquals(1, targetManager.insertTasksKeepingIds(Collections.singletonList(localTask)));
+        TaskDataTransfer targetTransfer = new TaskDataTransfer(targetManager, CHUNK_SIZE);
+
+        int sourceCount = sourceManager.getTaskCount();
+        assertEquals(sourceCount, targetTransfer.importTasks(exportFile));
+        // The moved task is found under its new id, so a re-run adds nothing.
+        assertEquals(0, targetTransfer.importTasks(exportFile));
+
+        assertEquals(sourceCount + 1, targetManager.getTaskCount());
+        TaskItem taskAtConflictingId = targetManager.retrieveTaskChunkAfter(0, 1).get(0);
+        assertEquals(firstSourceTask.getId(), taskAtConflictingId.getId());
+        assertEquals("Local task", taskAtConflictingId.getDescription());
+        assertTrue(targetManager.hasTaskWithDescription(firstSourceTask.getDescription()));
+    }
+
+    @Test
+    public void truncatedExport_failsAndCompleteExportFinishesTheImport() throws IOException {
+        TaskDataTransfer sourceTransfer = new TaskDataTransfer(sourceManager, CHUNK_SIZE);
+        sourceTransfer.exportTasks(exportFile, TaskDataTransfer.Format.JSON, false);
+        long completeLength = exportFile.length();
+        
+        try (RandomAccessFile truncatedFile = new RandomAccessFile(exportFile, "rw")) {
+            truncatedFile.setLength(completeLength - 40);
+        }
+        try {
+            new TaskDataTransfer(targetManager, CHUNK_SIZE).importTasks(exportFile);
+            fail("Imported a truncated export");
+        } catch (IOException expected) {
+        }
+
+        // Finishing the import from a complete export needs no cleanup first.
+        sourceTransfer.exportTasks(exportFile, TaskDataTransfer.Format.JSON, false);
+        assertEquals(completeLength, exportFile.length());
+        assertFalse(new File(exportFile.getPath() + ".part").exists());
+        new TaskDataTransfer(targetManager, CHUNK_SIZE).importTasks(exportFile);
+        assertSameTables("after truncated import");
+    }
+
+    private void seedSourceTasks() {
+        List<TaskItem> seededTasks = new ArrayList<>(TASK_COUNT);
+        long baseTime = System.currentTimeMillis() - 30 * DAY_MILLIS;
+        for (int i = 0; i < TASK_COUNT; i++) {
+            String description = i % 50 == 0 ? "Réserver le vol ✈ n°" + i : "Transfer task " + i;
+            TaskItem taskItem = new TaskItem(0, description, i % 3 == 0, baseTime + (i % 30) * DAY_MILLIS + i);
+            taskItem.setLastModifiedTimestamp(baseTime + i * 1_000L);
+            seededTasks.add(taskItem);
+        }
+        assertEquals(TASK_COUNT, sourceManager.insertTasks(seededTasks));
+
+        // Leave gaps in the id sequence, as deletes do in real use.
+        int[] removedIds = new int[TASK_COUNT / 10];
+        for (int i = 0; i < removedIds.length; i++) {
+            removedIds[i] = seededTasks.get(i * 10 + 5).getId();
+        }
+        assertEquals(removedIds.length, sourceManager.removeTasks(removedIds));
+    }
+
+    private void assertSameTables(String variant) {
+        List<TaskItem> sourceTasks = sourceManager.retrieveTaskChunkAfter(0, Integer.MAX_VALUE);
+        List<TaskItem> targetTasks = targetManager.retrieveTaskChunkAfter(0, Integer.MAX_VALUE);
+
+        assertEquals(variant, sourceTasks.size(), targetTasks.size());
+        for (int i = 0; i < sourceTasks.size(); i++) {
+            TaskItem sourceTask = sourceTasks.get(i);
+            TaskItem targetTask = targetTasks.get(i);
+            assertEquals(variant, sourceTask.getId(), targetTask.getId());
+            assertTrue(variant + ": task " + sourceTask.getId(), sourceTask.hasSameContentAs(targetTask));
+            assertEquals(variant, sourceTask.getLastModifiedTimestamp(), targetTask.getLastModifiedTimestamp());
+        }
+    }
+
+    private void assertSameDailyStatistics(String variant) {
+        TaskStatistics sourceStatistics = sourceManager.loadTaskStatistics(60);
+        TaskStatistics targetStatistics = targetManager.loadTaskStatistics(60);
+
+        assertEquals(variant, sourceStatistics.getDayCount(), targetStatistics.getDayCount());
+        for (int day = 0; day < sourceStatistics.getDayCount(); day++) {
+            assertEquals(variant, sourceStatistics.getEpochDay(day), targetStatistics.getEpochDay(day));
+            assertEquals(variant, sourceStatistics.getCreatedOnDay(day), targetStatistics.getCreatedOnDay(day));
+            assertEquals(variant, sourceStatistics.getCompletedOnDay(day), targetStatistics.getCompletedOnDay(day));
+        }
+    }
+
+    private static int[] allTaskIds(TaskDatabaseManager databaseManager) {
+        List<TaskItem> tasks = databaseManager.retrieveTaskChunkAfter(0, Integer.MAX_VALUE);
+        int[] taskIds = new int[tasks.size()];
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = tasks.get(i).getId();
+        }
+        return taskIds;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.todolist;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class TaskDatabaseBackupTest {
+    private static final String TEST_DATABASE = "task_backup_test.db";
+    private static final int SEEDED_TASK_COUNT = 20_000;
+
+    private Context appContext;
+    private TaskDatabaseManager databaseManager;
+    private TaskDatabaseBackup databaseBackup;
+    private File backupFile;
+
+    @Before
+    public void setUp() {
+        appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        appContext.deleteDatabase(TEST_DATABASE);
+        databaseManager = new TaskDatabaseManager(
+            appContext, TEST_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+        databaseBackup = new TaskDatabaseBackup(databaseManager);
+        backupFile = new File(appContext.getCacheDir(), "tasks_backup.db");
+        backupFile.delete();
+        seedTasks(SEEDED_TASK_COUNT);
+    }
+
+    @After
+    public void tearDown() {
+        databaseManager.close();
+        appContext.deleteDatabase(TEST_DATABASE);
+        backupFile.delete();
+    }
+
+    @Test
+    public void backupUnderConcurrentWrites_isConsistentAndReportsProgress() throws Exception {
+        AtomicBoolean keepWriting = new AtomicBoolean(true);
+        AtomicInteger batchesWritten = new AtomicInteger();
+        Thread writer = new Thread(() -> {
+            while (keepWriting.get()) {
+                List<TaskItem> batch = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    batch.add(new TaskItem("Written during backup " + i));
+                }
+                databaseManager.insertTasks(batch);
+                batchesWritten.incrementAndGet();
+            }
+        });
+        List<Integer> reportedProgress = new ArrayList<>();
+
+        writer.start();
+        try {
+            while (batchesWritten.get() == 0) {
+                Thread.sleep(1);
+            }
+            databaseBackup.backup(backupFile, new CancellationSignal(), percent -> {
+                synchronized (reportedProgress) {
+                    reportedProgress.add(percent);
+                }
+            });
+        } finally {
+            keepWriting.set(false);
+            writer.join();
+        }
+
+        synchronized (reportedProgress) {
+            assertEquals(Integer.valueOf(100), reportedProgress.get(reportedProgress.size() - 1));
+        }
+
+        // The trigger-maintained total only matches the rows if the copy is one snapshot.
+        SQLiteDatabase backupDatabase = SQLiteDatabase.openDatabase(backupFile.getPath(), null,
+            SQLiteDatabase.OPEN_READONLY);
+        try {
+            assertTrue(backupDatabase.isDatabaseIntegrityOk());
+            long rowCount = readLong(backupDatabase, "SELECT COUNT(*) FROM task_items");
+            assertTrue(rowCount >= SEEDED_TASK_COUNT);
+            assertEquals(rowCount, readLong(backupDatabase, "SELECT total_count FROM task_stats"));
+        } finally {
+            backupDatabase.close();
+        }
+    }
+
+    @Test
+    public void restore_bringsBackTheBackedUpTasks() throws IOException {
+        databaseBackup.backup(backupFile, null, null);
+        List<TaskItem> backedUpTasks = databaseManager.retrieveTaskChunkAfter(0, Integer.MAX_VALUE);
+        int[] backedUpCounts = databaseManager.getTaskCounts();
+
+        seedTasks(500);
+        databaseManager.clearAllCompletedTasks();
+        databaseBackup.restore(backupFile, null);
+
+        List<TaskItem> restoredTasks = databaseManager.retrieveTaskChunkAfter(0, Integer.MAX_VALUE);
+        assertEquals(backedUpTasks.size(), restoredTasks.size());
+        for (int i = 0; i < backedUpTasks.size(); i++) {
+            assertEquals(backedUpTasks.get(i).getId(), restoredTasks.get(i).getId());
+            assertTrue(backedUpTasks.get(i).hasSameContentAs(restoredTasks.get(i)));
+        }
+        assertArrayEquals(backedUpCounts, databaseManager.getTaskCounts());
+        assertTrue(databaseManager.insertTask(new TaskItem("Added after restore")) > 0);
+        assertTrue(backupFile.exists());
+    }
+
+    @Test
+    public void damagedBackup_isRejectedAndLiveDataKept() throws IOException {
+        databaseBackup.backup(backupFile, null, null);
+        try (RandomAccessFile damagedBackup = new RandomAccessFile(backupFile, "rw")) {
+            // Overwrite pages in the middle of the file, past the header.
+            damagedBackup.seek(damagedBackup.length() / 2);
+            damagedBackup.write(new byte[16 * 1024]);
+        }
+        int[] liveCounts = databaseManager.getTaskCounts();
+
+        try {
+            databaseBackup.restore(backupFile, null);
+            fail("Restored a damaged backup");
+        } catch (IOException expected) {
+        }
+
+        assertArrayEquals(liveCounts, databaseManager.getTaskCounts());
+        assertEquals(SEEDED_TASK_COUNT, databaseManager.retrieveTaskChunkAfter(0, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void canceledBackup_leavesNoFile() throws IOException {
+        CancellationSignal cancellationSignal = new CancellationSignal();
+        cancellationSignal.cancel();
+
+        try {
+            databaseBackup.backup(backupFile, cancellationSignal, null);
+            fail("Backup ignored its cancellation signal");
+        } catch (OperationCanceledException expected) {
+        }
+
+        assertFalse(backupFile.exists());
+        assertFalse(new File(backupFile.getPath() + ".part").exists());
+    }
+
+    private void seedTasks(int taskCount) {
+        List<TaskItem> seededTasks = new ArrayList<>(taskCount);
+        long baseTime = System.currentTimeMillis();
+        for (int i = 0; i < taskCount; i++) {
+            seededTasks.add(new TaskItem(0, "Backup task " + i, i % 4 == 0, baseTime - i));
+        }
+        assertEquals(taskCount, databaseManager.insertTasks(seededTasks));
+    }
+
+    private static long readLong(SQLiteDatabase database, String sql) {
+        try (Cursor cursor = database.rawQuery(sql, null)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+}
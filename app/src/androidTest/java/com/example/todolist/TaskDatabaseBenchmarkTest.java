@@ -0,0 +1,299 @@
+package com.example.todolist;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Per-operation latency of TaskDatabaseManager, run against a scratch database.
+ * Results are written to logcat under the "TaskDbBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskDatabaseBenchmarkTest {
+    private static final String BENCHMARK_DATABASE = "task_benchmark.db";
+    private static final String LOG_TAG = "TaskDbBenchmark";
+    private static final int OPERATION_COUNT = 500;
+    private static final int BULK_TASK_COUNT = 10_000;
+    private static final int LARGE_LIST_TASK_COUNT = 200_000;
+    private static final int TRANSFER_TASK_COUNT = 1_000_000;
+    private static final String TRANSFER_TARGET_DATABASE = "task_benchmark_import.db";
+    private static final int[] SEARCH_DATASET_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int SEARCH_REPETITIONS = 20;
+    private static final String[] SEARCH_VOCABULARY = {
+        "buy", "groceries", "call", "dentist", "finish", "report", "water", "plants",
+        "book", "flight", "renew", "passport", "clean", "garage", "review", "budget"
+    };
+
+    private Context appContext;
+
+    @Before
+    public void setUp() {
+        appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        appContext.deleteDatabase(BENCHMARK_DATABASE);
+    }
+
+    @After
+    public void tearDown() {
+        appContext.deleteDatabase(BENCHMARK_DATABASE);
+    }
+
+    @Test
+    public void perOperationLatency_perOperationVersusPersistentConnection() {
+        long[] reopeningLatencies = measureOperationLatencies(TaskDatabaseManager.ConnectionMode.PER_OPERATION);
+        appContext.deleteDatabase(BENCHMARK_DATABASE);
+        long[] persistentLatencies = measureOperationLatencies(TaskDatabaseManager.ConnectionMode.PERSISTENT);
+
+        String[] operationNames = {"insert", "modify", "count", "remove"};
+        for (int i = 0; i < operationNames.length; i++) {
+            Log.i(LOG_TAG, String.format("%s: per-operation %d us/op, persistent %d us/op",
+                operationNames[i],
+                reopeningLatencies[i] / OPERATION_COUNT / 1000,
+                persistentLatencies[i] / OPERATION_COUNT / 1000));
+        }
+    }
+
+    @Test
+    public void insertThroughput_singleInsertsVersusBatch() {
+        TaskDatabaseManager databaseManager = new TaskDatabaseManager(
+            appContext, BENCHMARK_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+
+        try {
+            List<TaskItem> singleTasks = createBenchmarkTasks(BULK_TASK_COUNT);
+            long startTime = SystemClock.elapsedRealtimeNanos();
+            for (TaskItem taskItem : singleTasks) {
+                databaseManager.insertTask(taskItem);
+            }
+            long singleInsertNanos = SystemClock.elapsedRealtimeNanos() - startTime;
+
+            List<TaskItem> batchTasks = createBenchmarkTasks(BULK_TASK_COUNT);
+            startTime = SystemClock.elapsedRealtimeNanos();
+            int insertedCount = databaseManager.insertTasks(batchTasks);
+            long batchInsertNanos = SystemClock.elapsedRealtimeNanos() - startTime;
+
+            assertEquals(BULK_TASK_COUNT, insertedCount);
+            assertEquals(2 * BULK_TASK_COUNT, databaseManager.getTaskCount());
+            for (TaskItem taskItem : batchTasks) {
+                assertTrue(taskItem.getId() > 0);
+            }
+
+            Log.i(LOG_TAG, String.format("%d single inserts: %d ms (%.0f rows/s), one batch: %d ms (%.0f rows/s)",
+                BULK_TASK_COUNT,
+                singleInsertNanos / 1_000_000, BULK_TASK_COUNT * 1e9 / singleInsertNanos,
+                batchInsertNanos / 1_000_000, BULK_TASK_COUNT * 1e9 / batchInsertNanos));
+        } finally {
+            databaseManager.close();
+        }
+    }
+
+    @Test
+    public void searchLatency_likeScanVersusFullTextIndex() {
+        TaskDatabaseManager databaseManager = new TaskDatabaseManager(
+            appContext, BENCHMARK_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+
+        try {
+            int seededTasks = 0;
+            for (int datasetSize : SEARCH_DATASET_SIZES) {
+                List<TaskItem> newTasks = new ArrayList<>(datasetSize - seededTasks);
+                for (int i = seededTasks; i < datasetSize; i++) {
+                    newTasks.add(new TaskItem(SEARCH_VOCABULARY[i % SEARCH_VOCABULARY.length] + " " +
+                        SEARCH_VOCABULARY[(i / 7) % SEARCH_VOCABULARY.length] + " item " + i));
+                }
+                databaseManager.insertTasks(newTasks);
+                seededTasks = datasetSize;
+
+                long likeNanos = 0;
+                long fullTextNanos = 0;
+                for (int i = 0; i < SEARCH_REPETITIONS; i++) {
+                    String term = "passport item 12" + i;
+
+                    long startTime = SystemClock.elapsedRealtimeNanos();
+                    int likeMatches = countLikeMatches(databaseManager.getReadableDatabase(), term);
+                    likeNanos += SystemClock.elapsedRealtimeNanos() - startTime;
+
+                    startTime = SystemClock.elapsedRealtimeNanos();
+                    int fullTextMatches = databaseManager.searchTasksRanked(term, 50).size();
+                    fullTextNanos += SystemClock.elapsedRealtimeNanos() - startTime;
+
+                    assertTrue(likeMatches >= 0 && fullTextMatches >= 0);
+                }
+
+                Log.i(LOG_TAG, String.format("search over %d tasks: LIKE %.2f ms, FTS %.2f ms",
+                    datasetSize,
+                    likeNanos / 1e6 / SEARCH_REPETITIONS,
+                    fullTextNanos / 1e6 / SEARCH_REPETITIONS));
+            }
+        } finally {
+            databaseManager.close();
+        }
+    }
+
+    @Test
+    public void largeListMemory_eagerListVersusCursorList() {
+        TaskDatabaseManager databaseManager = new TaskDatabaseManager(
+            appContext, BENCHMARK_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+
+        try {
+            assertEquals(LARGE_LIST_TASK_COUNT,
+                databaseManager.insertTasks(createBenchmarkTasks(LARGE_LIST_TASK_COUNT)));
+
+            long heapBefore = usedHeapBytes();
+            long startTime = SystemClock.elapsedRealtimeNanos();
+            List<TaskItem> eagerTasks = databaseManager.retrieveAllTasks();
+            long eagerNanos = SystemClock.elapsedRealtimeNanos() - startTime;
+            long eagerHeapBytes = usedHeapBytes() - heapBefore;
+            assertEquals(LARGE_LIST_TASK_COUNT, eagerTasks.size());
+            eagerTasks = null;
+
+            heapBefore = usedHeapBytes();
+            startTime = SystemClock.elapsedRealtimeNanos();
+            TaskCursorList cursorList = databaseManager.openTaskCursorList();
+            long cursorOpenNanos = SystemClock.elapsedRealtimeNanos() - startTime;
+            try {
+                // Touch a screenful at the top and one far down, as a fling to the end would.
+                for (int i = 0; i < 20; i++) {
+                    assertNotNull(cursorList.getItem(i));
+                    assertNotNull(cursorList.getItem(LARGE_LIST_TASK_COUNT - 1 - i));
+                }
+                long cursorHeapBytes = usedHeapBytes() - heapBefore;
+                assertEquals(LARGE_LIST_TASK_COUNT, cursorList.size());
+
+                Log.i(LOG_TAG, String.format("%d tasks: eager list %d ms, %d KB heap; " +
+                        "cursor list %d ms, %d KB heap (window memory is native)",
+                    LARGE_LIST_TASK_COUNT,
+                    eagerNanos / 1_000_000, eagerHeapBytes / 1024,
+                    cursorOpenNanos / 1_000_000, cursorHeapBytes / 1024));
+            } finally {
+                cursorList.close();
+            }
+        } finally {
+            databaseManager.close();
+        }
+    }
+
+    @Test
+    public void transferOfAMillionTasks_keepsHeapFlat() throws IOException {
+        TaskDatabaseManager sourceManager = new TaskDatabaseManager(
+            appContext, BENCHMARK_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+        appContext.deleteDatabase(TRANSFER_TARGET_DATABASE);
+        File exportFile = new File(appContext.getCacheDir(), "benchmark_tasks.export");
+
+        try {
+            for (int inserted = 0; inserted < TRANSFER_TASK_COUNT; inserted += BULK_TASK_COUNT) {
+                assertEquals(BULK_TASK_COUNT, sourceManager.insertTasks(createBenchmarkTasks(BULK_TASK_COUNT)));
+            }
+
+            for (TaskDataTransfer.Format format : TaskDataTransfer.Format.values()) {
+                for (boolean compress : new boolean[]{false, true}) {
+                    appContext.deleteDatabase(TRANSFER_TARGET_DATABASE);
+                    TaskDatabaseManager targetManager = new TaskDatabaseManager(
+                        appContext, TRANSFER_TARGET_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+                    try {
+                        long heapBefore = usedHeapBytes();
+                        long startTime = SystemClock.elapsedRealtimeNanos();
+                        assertEquals(TRANSFER_TASK_COUNT,
+                            new TaskDataTransfer(sourceManager).exportTasks(exportFile, format, compress));
+                        long exportNanos = SystemClock.elapsedRealtimeNanos() - startTime;
+                        long exportHeapBytes = usedHeapBytes() - heapBefore;
+
+                        startTime = SystemClock.elapsedRealtimeNanos();
+                        assertEquals(TRANSFER_TASK_COUNT, new TaskDataTransfer(targetManager).importTasks(exportFile));
+                        long importNanos = SystemClock.elapsedRealtimeNanos() - startTime;
+                        long importHeapBytes = usedHeapBytes() - heapBefore;
+                        assertEquals(TRANSFER_TASK_COUNT, targetManager.getTaskCount());
+
+                        Log.i(LOG_TAG, String.format("%d tasks as %s%s: %d KB file, export %d ms, " +
+                                "import %d ms, retained heap %d KB / %d KB",
+                            TRANSFER_TASK_COUNT, format, compress ? " (gzip)" : "", exportFile.length() / 1024,
+                            exportNanos / 1_000_000, importNanos / 1_000_000,
+                            exportHeapBytes / 1024, importHeapBytes / 1024));
+                    } finally {
+                        targetManager.close();
+                    }
+                }
+            }
+        } finally {
+            sourceManager.close();
+            appContext.deleteDatabase(TRANSFER_TARGET_DATABASE);
+            exportFile.delete();
+        }
+    }
+
+    private long usedHeapBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private int countLikeMatches(SQLiteDatabase database, String term) {
+        try (Cursor cursor = database.rawQuery(
+                "SELECT * FROM task_items WHERE description LIKE ? ORDER BY creation_timestamp DESC",
+                new String[]{"%" + term + "%"})) {
+            return cursor.getCount();
+        }
+    }
+
+    private List<TaskItem> createBenchmarkTasks(int taskCount) {
+        List<TaskItem> taskItems = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            taskItems.add(new TaskItem("Bulk task " + i));
+        }
+        return taskItems;
+    }
+
+    private long[] measureOperationLatencies(TaskDatabaseManager.ConnectionMode connectionMode) {
+        TaskDatabaseManager databaseManager =
+            new TaskDatabaseManager(appContext, BENCHMARK_DATABASE, connectionMode);
+        List<TaskItem> insertedTasks = new ArrayList<>();
+        long[] latencies = new long[4];
+
+        try {
+            long startTime = SystemClock.elapsedRealtimeNanos();
+            for (int i = 0; i < OPERATION_COUNT; i++) {
+                TaskItem taskItem = new TaskItem("Benchmark task " + i);
+                assertNotEquals(-1, databaseManager.insertTask(taskItem));
+                insertedTasks.add(taskItem);
+            }
+            latencies[0] = SystemClock.elapsedRealtimeNanos() - startTime;
+
+            startTime = SystemClock.elapsedRealtimeNanos();
+            for (TaskItem taskItem : insertedTasks) {
+                taskItem.setFinished(!taskItem.isFinished());
+                assertTrue(databaseManager.modifyTask(taskItem));
+            }
+            latencies[1] = SystemClock.elapsedRealtimeNanos() - startTime;
+
+            startTime = SystemClock.elapsedRealtimeNanos();
+            for (int i = 0; i < OPERATION_COUNT; i++) {
+                databaseManager.getCompletedTaskCount();
+            }
+            latencies[2] = SystemClock.elapsedRealtimeNanos() - startTime;
+
+            startTime = SystemClock.elapsedRealtimeNanos();
+            for (TaskItem taskItem : insertedTasks) {
+                assertTrue(databaseManager.removeTask(taskItem.getId()));
+            }
+            latencies[3] = SystemClock.elapsedRealtimeNanos() - startTime;
+        } finally {
+            databaseManager.close();
+        }
+
+        return latencies;
+    }
+}
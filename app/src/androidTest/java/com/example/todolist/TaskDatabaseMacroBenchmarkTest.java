@@ -0,0 +1,121 @@
+package com.example.todolist;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * TaskDatabaseManager insert, query, search and count at several table sizes, measured
+ * with androidx.benchmark. Each run writes <package>-benchmarkData.json, which Gradle
+ * copies to build/outputs/connected_android_test_additional_output so runs can be compared.
+ */
+@RunWith(Parameterized.class)
+public class TaskDatabaseMacroBenchmarkTest {
+    private static final String BENCHMARK_DATABASE = "task_macro_benchmark.db";
+    private static final int PAGE_SIZE = 50;
+    private static final String[] VOCABULARY = {
+        "buy", "groceries", "call", "dentist", "finish", "report", "water", "plants",
+        "book", "flight", "renew", "passport", "clean", "garage", "review", "budget"
+    };
+
+    @Parameterized.Parameters(name = "tasks={0}")
+    public static Collection<Object[]> datasetSizes() {
+        return Arrays.asList(new Object[][]{{1_000}, {10_000}, {100_000}});
+    }
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final int datasetSize;
+    private Context appContext;
+    private TaskDatabaseManager databaseManager;
+
+    public TaskDatabaseMacroBenchmarkTest(int datasetSize) {
+        this.datasetSize = datasetSize;
+    }
+
+    @Before
+    public void setUp() {
+        appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        appContext.deleteDatabase(BENCHMARK_DATABASE);
+        databaseManager = new TaskDatabaseManager(
+            appContext, BENCHMARK_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+
+        List<TaskItem> seedTasks = new ArrayList<>(datasetSize);
+        for (int i = 0; i < datasetSize; i++) {
+            TaskItem taskItem = new TaskItem(i + 1, VOCABULARY[i % VOCABULARY.length] + " " +
+                VOCABULARY[(i / 7) % VOCABULARY.length] + " item " + i, i % 4 == 0, 1_700_000_000_000L + i);
+            seedTasks.add(taskItem);
+        }
+        assertEquals(datasetSize, databaseManager.insertTasks(seedTasks));
+    }
+
+    @After
+    public void tearDown() {
+        databaseManager.close();
+        appContext.deleteDatabase(BENCHMARK_DATABASE);
+    }
+
+    @Test
+    public void insertTask() {
+        BenchmarkState state = benchmarkRule.getState();
+        int insertedCount = 0;
+        while (state.keepRunning()) {
+            TaskItem taskItem = new TaskItem("Benchmark insert " + insertedCount++);
+            databaseManager.insertTask(taskItem);
+
+            state.pauseTiming();
+            databaseManager.removeTask(taskItem.getId());
+            state.resumeTiming();
+        }
+    }
+
+    @Test
+    public void queryFirstPage() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            databaseManager.retrieveFirstTaskPage(PAGE_SIZE);
+        }
+    }
+
+    @Test
+    public void queryCompletedTasks() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            databaseManager.retrieveCompletedTasks();
+        }
+    }
+
+    @Test
+    public void searchRanked() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            databaseManager.searchTasksRanked("passport item 12", PAGE_SIZE);
+        }
+    }
+
+    @Test
+    public void countTasks() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            databaseManager.getTaskCount();
+            databaseManager.getCompletedTaskCount();
+        }
+    }
+}
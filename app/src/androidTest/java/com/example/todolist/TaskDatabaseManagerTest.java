@@ -0,0 +1,311 @@
+package com.example.todolist;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class TaskDatabaseManagerTest {
+    private static final String TEST_DATABASE = "task_manager_test.db";
+
+    private Context appContext;
+    private TaskDatabaseManager databaseManager;
+
+    @Before
+    public void setUp() {
+        appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        appContext.deleteDatabase(TEST_DATABASE);
+        databaseManager = new TaskDatabaseManager(
+            appContext, TEST_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+    }
+
+    @After
+    public void tearDown() {
+        databaseManager.close();
+        appContext.deleteDatabase(TEST_DATABASE);
+    }
+
+    @Test
+    public void keysetPages_coverEveryTaskOnceInDisplayOrder() {
+        List<TaskItem> seededTasks = new ArrayList<>();
+        long sharedTimestamp = System.currentTimeMillis();
+        for (int i = 0; i < 125; i++) {
+            // Every third task shares a timestamp so the task_id tie-breaker is exercised.
+            long creationTime = i % 3 == 0 ? sharedTimestamp : sharedTimestamp - i;
+            seededTasks.add(new TaskItem(0, "Paged task " + i, false, creationTime));
+        }
+        assertEquals(seededTasks.size(), databaseManager.insertTasks(seededTasks));
+
+        List<TaskItem> pagedTasks = new ArrayList<>();
+        List<TaskItem> page = databaseManager.retrieveFirstTaskPage(20);
+        while (!page.isEmpty()) {
+            pagedTasks.addAll(page);
+            TaskItem lastTask = page.get(page.size() - 1);
+            page = databaseManager.retrieveTaskPageAfter(
+                lastTask.getCreationTimestamp(), lastTask.getId(), 20);
+        }
+
+        List<TaskItem> allTasks = databaseManager.retrieveAllTasks();
+        assertEquals(allTasks.size(), pagedTasks.size());
+
+        Set<Integer> seenIds = new HashSet<>();
+        for (int i = 0; i < allTasks.size(); i++) {
+            assertEquals(allTasks.get(i).getId(), pagedTasks.get(i).getId());
+            assertTrue(seenIds.add(pagedTasks.get(i).getId()));
+        }
+    }
+
+    @Test
+    public void pageAtOffset_matchesTheKeysetPageThere() {
+        List<TaskItem> seededTasks = new ArrayList<>();
+        for (int i = 0; i < 125; i++) {
+            seededTasks.add(new TaskItem(0, "Offset task " + i, false, 1_700_000_000_000L + i / 3));
+        }
+        assertEquals(seededTasks.size(), databaseManager.insertTasks(seededTasks));
+
+        List<TaskItem> allTasks = databaseManager.retrieveAllTasks();
+        List<TaskItem> page = databaseManager.retrieveTaskPageAt(100, 20);
+
+        assertEquals(20, page.size());
+        for (int i = 0; i < page.size(); i++) {
+            assertEquals(allTasks.get(100 + i).getId(), page.get(i).getId());
+        }
+        TaskItem lastTask = page.get(page.size() - 1);
+        List<TaskItem> nextPage = databaseManager.retrieveTaskPageAfter(
+            lastTask.getCreationTimestamp(), lastTask.getId(), 20);
+        assertEquals(5, nextPage.size());
+        assertEquals(allTasks.get(120).getId(), nextPage.get(0).getId());
+    }
+
+    @Test
+    public void cursorList_matchesEagerListAndReusesBuiltRows() {
+        List<TaskItem> seededTasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            seededTasks.add(new TaskItem(0, "Cursor task " + i, i % 2 == 0, 1_700_000_000_000L + i));
+        }
+        assertEquals(seededTasks.size(), databaseManager.insertTasks(seededTasks));
+
+        List<TaskItem> allTasks = databaseManager.retrieveAllTasks();
+        TaskCursorList cursorList = databaseManager.openTaskCursorList();
+        try {
+            assertEquals(allTasks.size(), cursorList.size());
+            for (int i = cursorList.size() - 1; i >= 0; i--) {
+                TaskItem cursorTask = cursorList.getItem(i);
+                assertEquals(allTasks.get(i).getId(), cursorTask.getId());
+                assertTrue(allTasks.get(i).hasSameContentAs(cursorTask));
+            }
+            assertSame(cursorList.getItem(0), cursorList.getItem(0));
+            assertNull(cursorList.getItem(cursorList.size()));
+        } finally {
+            cursorList.close();
+        }
+        assertTrue(cursorList.isClosed());
+        assertNull(cursorList.getItem(0));
+    }
+
+    @Test
+    public void cursorListFromRepository_readsRowsOnTheReaderPool() throws Exception {
+        List<TaskItem> seededTasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            seededTasks.add(new TaskItem(0, "Cursor task " + i, false, 1_700_000_000_000L + i));
+        }
+        assertEquals(seededTasks.size(), databaseManager.insertTasks(seededTasks));
+        List<TaskItem> allTasks = databaseManager.retrieveAllTasks();
+        TaskRepository taskRepository = new TaskRepository(databaseManager, new TaskCache(Runnable::run));
+        TaskCursorList[] openedList = new TaskCursorList[1];
+        CountDownLatch listOpened = new CountDownLatch(1);
+        CountDownLatch rowsLoaded = new CountDownLatch(1);
+        int[] loadedRange = new int[2];
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() ->
+            taskRepository.openTaskCursorList(cursorList -> {
+                openedList[0] = cursorList;
+                listOpened.countDown();
+            }));
+        assertTrue(listOpened.await(5, TimeUnit.SECONDS));
+        TaskCursorList cursorList = openedList[0];
+        try {
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+                cursorList.setRowLoadListener((startPosition, itemCount) -> {
+                    loadedRange[0] = startPosition;
+                    loadedRange[1] = itemCount;
+                    rowsLoaded.countDown();
+                });
+                // Not read yet: a placeholder now, the row once the reader pool has it.
+                assertNull(cursorList.getItem(40));
+            });
+            assertTrue(rowsLoaded.await(5, TimeUnit.SECONDS));
+            assertEquals(TaskCursorList.ROWS_PER_READ, loadedRange[0]);
+            assertEquals(TaskCursorList.ROWS_PER_READ, loadedRange[1]);
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(() ->
+                assertEquals(allTasks.get(40).getId(), cursorList.getItem(40).getId()));
+        } finally {
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(cursorList::close);
+            taskRepository.shutdown(false);
+        }
+    }
+
+    @Test
+    public void cursorList_isNotOfferedWithPerOperationConnections() {
+        TaskDatabaseManager perOperationManager = new TaskDatabaseManager(
+            appContext, TEST_DATABASE, TaskDatabaseManager.ConnectionMode.PER_OPERATION);
+        try {
+            assertNull(perOperationManager.openTaskCursorList());
+        } finally {
+            perOperationManager.close();
+        }
+    }
+
+    @Test
+    public void statistics_followEveryKindOfWrite() {
+        long dayOne = 20_000L * 86_400_000L;
+        long dayTwo = dayOne + 86_400_000L;
+        List<TaskItem> seededTasks = new ArrayList<>();
+        seededTasks.add(new TaskItem(0, "Day one pending", false, dayOne + 10));
+        seededTasks.add(new TaskItem(0, "Day one done", true, dayOne + 20));
+        seededTasks.add(new TaskItem(0, "Day two pending", false, dayTwo + 10));
+        assertEquals(3, databaseManager.insertTasks(seededTasks));
+
+        assertArrayEquals(new int[]{3, 1}, databaseManager.getTaskCounts());
+
+        TaskItem dayTwoTask = seededTasks.get(2);
+        dayTwoTask.setFinished(true);
+        assertTrue(databaseManager.modifyTask(dayTwoTask));
+        assertEquals(2, databaseManager.getCompletedTaskCount());
+        assertEquals(1, databaseManager.getPendingTaskCount());
+
+        assertTrue(databaseManager.removeTask(seededTasks.get(0).getId()));
+        TaskStatistics statistics = databaseManager.loadTaskStatistics(10);
+        assertEquals(2, statistics.getTotalCount());
+        assertEquals(2, statistics.getDayCount());
+        assertEquals(20_001L, statistics.getEpochDay(0));
+        assertEquals(1, statistics.getCreatedOnDay(0));
+        assertEquals(1, statistics.getCompletedOnDay(0));
+        assertEquals(20_000L, statistics.getEpochDay(1));
+        assertEquals(1, statistics.getCreatedOnDay(1));
+        assertEquals(1, statistics.getCompletedOnDay(1));
+
+        assertTrue(databaseManager.clearAllCompletedTasks());
+        statistics = databaseManager.loadTaskStatistics(10);
+        assertEquals(0, statistics.getTotalCount());
+        assertEquals(0, statistics.getDayCount());
+        assertEquals(databaseManager.retrieveAllTasks().size(), databaseManager.getTaskCount());
+    }
+
+    @Test
+    public void failedBatchInsert_leavesItemsWithoutIds() {
+        List<TaskItem> batch = new ArrayList<>();
+        batch.add(new TaskItem(0, "Would be rolled back", false, 1_700_000_000_000L));
+        // bindString rejects null, failing the batch after the first row went in.
+        batch.add(new TaskItem(0, null, false, 1_700_000_000_001L));
+
+        assertEquals(-1, databaseManager.insertTasks(batch));
+        assertEquals(0, batch.get(0).getId());
+        assertEquals(0, databaseManager.getTaskCount());
+    }
+
+    @Test
+    public void completionBatch_writesOnlyCompletionAndCountsRows() {
+        List<TaskItem> seededTasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            seededTasks.add(new TaskItem(0, "Completion task " + i, false, 1_700_000_000_000L + i));
+        }
+        assertEquals(3, databaseManager.insertTasks(seededTasks));
+
+        // An edit that reached the database after the toggle was queued must survive it.
+        TaskItem editedTask = seededTasks.get(0);
+        editedTask.setDescription("Edited meanwhile");
+        assertTrue(databaseManager.modifyTask(editedTask));
+
+        int missingTaskId = seededTasks.get(2).getId() + 1000;
+        int modifiedCount = databaseManager.modifyTaskCompletions(
+            new int[]{seededTasks.get(0).getId(), seededTasks.get(1).getId(), missingTaskId},
+            new boolean[]{true, true, true});
+
+        assertEquals(2, modifiedCount);
+        assertEquals(2, databaseManager.getCompletedTaskCount());
+        assertTrue(databaseManager.hasTaskWithDescription("Edited meanwhile"));
+        assertEquals(0, databaseManager.modifyTaskCompletions(new int[0], new boolean[0]));
+    }
+
+    @Test
+    public void completionBatch_skipsTasksModifiedAfterTheToggle() {
+        TaskItem task = new TaskItem(0, "Toggled long ago", false, 1_700_000_000_000L);
+        assertTrue(databaseManager.insertTask(task) > 0);
+        long lastModified = databaseManager.retrieveTaskChunkAfter(0, 1).get(0).getLastModifiedTimestamp();
+
+        // A journaled toggle replayed after a newer change to the task.
+        assertEquals(0, databaseManager.modifyTaskCompletions(
+            new int[]{task.getId()}, new boolean[]{true}, new long[]{lastModified - 1}));
+        assertEquals(0, databaseManager.getCompletedTaskCount());
+
+        assertEquals(1, databaseManager.modifyTaskCompletions(
+            new int[]{task.getId()}, new boolean[]{true}, new long[]{lastModified + 1}));
+        TaskItem storedTask = databaseManager.retrieveTaskChunkAfter(0, 1).get(0);
+        assertTrue(storedTask.isFinished());
+        assertEquals(lastModified + 1, storedTask.getLastModifiedTimestamp());
+    }
+
+    @Test
+    public void incrementalVacuum_returnsFreedPagesInBoundedSteps() {
+        assertTrue(databaseManager.isIncrementalAutoVacuumEnabled());
+        List<TaskItem> seededTasks = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            seededTasks.add(new TaskItem(0, "Soon deleted task number " + i, true, 1_000L + i));
+        }
+        assertEquals(seededTasks.size(), databaseManager.insertTasks(seededTasks));
+        assertTrue(databaseManager.clearAllCompletedTasks());
+        databaseManager.checkpointWal();
+        File databaseFile = databaseManager.getDatabaseFile();
+        long sizeBeforeVacuum = databaseFile.length();
+
+        int firstStep = databaseManager.vacuumIncrementally(16);
+        assertEquals(16, firstStep);
+        int totalFreed = firstStep;
+        int pagesFreed;
+        while ((pagesFreed = databaseManager.vacuumIncrementally(64)) > 0) {
+            assertTrue(pagesFreed <= 64);
+            totalFreed += pagesFreed;
+        }
+        assertTrue(databaseManager.checkpointWal() >= 0);
+
+        assertTrue(totalFreed > 16);
+        assertTrue(databaseFile.length() < sizeBeforeVacuum);
+        assertEquals(0, databaseManager.vacuumIncrementally(64));
+    }
+
+    @Test
+    public void olderFile_isConvertedToIncrementalAutoVacuumOnce() {
+        databaseManager.close();
+        appContext.deleteDatabase(TEST_DATABASE);
+        // A file whose first table predates the auto_vacuum setting, as files from older versions do.
+        SQLiteDatabase legacyDatabase = SQLiteDatabase.openOrCreateDatabase(
+            appContext.getDatabasePath(TEST_DATABASE), null);
+        legacyDatabase.execSQL("CREATE TABLE legacy_marker (id INTEGER PRIMARY KEY)");
+        legacyDatabase.close();
+        databaseManager = new TaskDatabaseManager(
+            appContext, TEST_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+
+        assertFalse(databaseManager.isIncrementalAutoVacuumEnabled());
+        databaseManager.convertToIncrementalAutoVacuum();
+        assertTrue(databaseManager.isIncrementalAutoVacuumEnabled());
+        assertTrue(databaseManager.insertTask(new TaskItem("Still writable")) > 0);
+    }
+}
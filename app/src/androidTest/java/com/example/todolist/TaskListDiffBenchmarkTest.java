@@ -0,0 +1,156 @@
+package com.example.todolist;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cost of the diff TaskRecyclerAdapter runs on every list refresh, and how many rows it
+ * rebinds. Results are written to logcat under the "TaskDbBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskListDiffBenchmarkTest {
+    private static final String LOG_TAG = "TaskDbBenchmark";
+    private static final int LIST_SIZE = 5_000;
+    private static final int REPETITIONS = 20;
+
+    @Test
+    public void singleToggleIn5kList_rebindsOneRow() {
+        List<TaskItem> currentTasks = createTasks();
+        List<TaskItem> refreshedTasks = createTasks();
+        int toggledPosition = LIST_SIZE / 2;
+        refreshedTasks.get(toggledPosition).setFinished(true);
+
+        long totalDiffNanos = 0;
+        CountingUpdateCallback updates = null;
+        for (int i = 0; i < REPETITIONS; i++) {
+            updates = new CountingUpdateCallback();
+            long startTime = SystemClock.elapsedRealtimeNanos();
+            DiffUtil.calculateDiff(new TaskListDiff(currentTasks, refreshedTasks)).dispatchUpdatesTo(updates);
+            totalDiffNanos += SystemClock.elapsedRealtimeNanos() - startTime;
+        }
+
+        Log.i(LOG_TAG, String.format("diff of %d tasks after one toggle: %.2f ms, %d rows rebound " +
+                "(notifyDataSetChanged rebinds every visible row)",
+            LIST_SIZE, totalDiffNanos / 1e6 / REPETITIONS, updates.changedRows));
+
+        assertEquals(1, updates.changedRows);
+        assertEquals(toggledPosition, updates.lastChangedPosition);
+        assertEquals(TaskRecyclerAdapter.RowChange.COMPLETION, updates.lastPayload);
+        assertEquals(0, updates.insertedRows);
+        assertEquals(0, updates.removedRows);
+        assertEquals(0, updates.movedRows);
+    }
+
+    @Test
+    public void changePayload_namesTheOnlyChangedPart() {
+        TaskItem original = new TaskItem(1, "Water plants", false, 100);
+        TaskItem renamed = new TaskItem(1, "Water the plants", false, 100);
+        TaskItem renamedAndDone = new TaskItem(1, "Water the plants", true, 100);
+        TaskItem redated = new TaskItem(1, "Water plants", false, 200);
+
+        assertEquals(TaskRecyclerAdapter.RowChange.DESCRIPTION,
+            TaskRecyclerAdapter.TASK_DIFF_CALLBACK.getChangePayload(original, renamed));
+        assertEquals(TaskRecyclerAdapter.RowChange.TIMESTAMP,
+            TaskRecyclerAdapter.TASK_DIFF_CALLBACK.getChangePayload(original, redated));
+        assertNull(TaskRecyclerAdapter.TASK_DIFF_CALLBACK.getChangePayload(original, renamedAndDone));
+    }
+
+    @Test
+    public void reloadWithUnchangedContent_rebindsNothing() {
+        CountingUpdateCallback updates = new CountingUpdateCallback();
+        DiffUtil.calculateDiff(new TaskListDiff(createTasks(), createTasks())).dispatchUpdatesTo(updates);
+
+        assertEquals(0, updates.changedRows + updates.insertedRows + updates.removedRows + updates.movedRows);
+    }
+
+    private List<TaskItem> createTasks() {
+        long baseTimestamp = 1_700_000_000_000L;
+        List<TaskItem> tasks = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            tasks.add(new TaskItem(LIST_SIZE - i, "Diff task " + i, false, baseTimestamp - i));
+        }
+        return tasks;
+    }
+
+    /** Same comparison AsyncListDiffer makes with TaskRecyclerAdapter.TASK_DIFF_CALLBACK. */
+    private static class TaskListDiff extends DiffUtil.Callback {
+        private final List<TaskItem> oldTasks;
+        private final List<TaskItem> newTasks;
+
+        TaskListDiff(List<TaskItem> oldTasks, List<TaskItem> newTasks) {
+            this.oldTasks = oldTasks;
+            this.newTasks = newTasks;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldTasks.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newTasks.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return TaskRecyclerAdapter.TASK_DIFF_CALLBACK.areItemsTheSame(
+                oldTasks.get(oldPosition), newTasks.get(newPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return TaskRecyclerAdapter.TASK_DIFF_CALLBACK.areContentsTheSame(
+                oldTasks.get(oldPosition), newTasks.get(newPosition));
+        }
+
+        @Override
+        public Object getChangePayload(int oldPosition, int newPosition) {
+            return TaskRecyclerAdapter.TASK_DIFF_CALLBACK.getChangePayload(
+                oldTasks.get(oldPosition), newTasks.get(newPosition));
+        }
+    }
+
+    private static class CountingUpdateCallback implements ListUpdateCallback {
+        int insertedRows;
+        int removedRows;
+        int movedRows;
+        int changedRows;
+        int lastChangedPosition = -1;
+        Object lastPayload;
+
+        @Override
+        public void onInserted(int position, int count) {
+            insertedRows += count;
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            removedRows += count;
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            movedRows++;
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            changedRows += count;
+            lastChangedPosition = position;
+            lastPayload = payload;
+        }
+    }
+}
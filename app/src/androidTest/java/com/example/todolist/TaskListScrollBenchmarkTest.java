@@ -0,0 +1,158 @@
+package com.example.todolist;
+
+import android.os.Debug;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Frame times while TaskRecyclerAdapter scrolls through 10k tasks at fling speed, binding
+ * a fresh set of rows every frame. Frame durations come from FrameMetrics; the GC count and
+ * bytes allocated over the scroll are reported beside them, since allocation in
+ * onBindViewHolder shows up there first. Results are written to logcat under the
+ * "TaskDbBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskListScrollBenchmarkTest {
+    private static final String LOG_TAG = "TaskDbBenchmark";
+    private static final int LIST_SIZE = 10_000;
+    private static final int SCROLL_FRAMES = 600;
+
+    @Test
+    public void scrollThrough10kTasks_reportsFrameTimes() throws Exception {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            RecyclerView[] recyclerView = new RecyclerView[1];
+            CountDownLatch listShown = new CountDownLatch(1);
+            scenario.onActivity(activity -> {
+                recyclerView[0] = new RecyclerView(activity);
+                recyclerView[0].setLayoutManager(new LinearLayoutManager(activity));
+                TaskRecyclerAdapter adapter = new TaskRecyclerAdapter(null, null);
+                recyclerView[0].setAdapter(adapter);
+                activity.setContentView(recyclerView[0]);
+                adapter.submitTaskList(createTasks(), listShown::countDown);
+            });
+            assertTrue(listShown.await(10, TimeUnit.SECONDS));
+
+            HandlerThread metricsThread = new HandlerThread("frame-metrics");
+            metricsThread.start();
+            FrameDurationCollector frameDurations = new FrameDurationCollector();
+            CountDownLatch scrollFinished = new CountDownLatch(1);
+            long[] gcCountBefore = new long[1];
+            long[] bytesAllocatedBefore = new long[1];
+
+            scenario.onActivity(activity -> {
+                activity.getWindow().addOnFrameMetricsAvailableListener(frameDurations,
+                    new Handler(metricsThread.getLooper()));
+                // Rows are all about as tall, so this step reaches the last task on the last frame.
+                int rowPitch = Math.max(
+                    recyclerView[0].getChildAt(1).getTop() - recyclerView[0].getChildAt(0).getTop(), 1);
+                int scrollStep = (int) ((long) rowPitch * LIST_SIZE / SCROLL_FRAMES) + 1;
+
+                gcCountBefore[0] = readRuntimeStat("art.gc.gc-count");
+                bytesAllocatedBefore[0] = readRuntimeStat("art.gc.bytes-allocated");
+                Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                    private int scrolledFrames;
+
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        recyclerView[0].scrollBy(0, scrollStep);
+                        if (++scrolledFrames < SCROLL_FRAMES) {
+                            Choreographer.getInstance().postFrameCallback(this);
+                        } else {
+                            scrollFinished.countDown();
+                        }
+                    }
+                });
+            });
+            assertTrue(scrollFinished.await(60, TimeUnit.SECONDS));
+
+            long[] gcCountAfter = new long[1];
+            long[] bytesAllocatedAfter = new long[1];
+            int[] lastVisiblePosition = new int[1];
+            scenario.onActivity(activity -> {
+                gcCountAfter[0] = readRuntimeStat("art.gc.gc-count");
+                bytesAllocatedAfter[0] = readRuntimeStat("art.gc.bytes-allocated");
+                activity.getWindow().removeOnFrameMetricsAvailableListener(frameDurations);
+                lastVisiblePosition[0] = ((LinearLayoutManager) recyclerView[0].getLayoutManager())
+                    .findLastVisibleItemPosition();
+            });
+            metricsThread.quitSafely();
+
+            long[] durations = frameDurations.sortedDurations();
+            Log.i(LOG_TAG, String.format("scroll through %d tasks: %d frames, p50 %.2f ms, p90 %.2f ms, " +
+                    "p99 %.2f ms, max %.2f ms, %d GCs, %d KB allocated",
+                LIST_SIZE, durations.length, percentile(durations, 50), percentile(durations, 90),
+                percentile(durations, 99), percentile(durations, 100),
+                gcCountAfter[0] - gcCountBefore[0], (bytesAllocatedAfter[0] - bytesAllocatedBefore[0]) / 1024));
+
+            assertTrue(durations.length > 0);
+            assertEquals(LIST_SIZE - 1, lastVisiblePosition[0]);
+        }
+    }
+
+    private static List<TaskItem> createTasks() {
+        long now = System.currentTimeMillis();
+        List<TaskItem> tasks = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            // Spread over two weeks so rows show every kind of relative-time label.
+            tasks.add(new TaskItem(LIST_SIZE - i, "Scroll task " + i, i % 3 == 0,
+                now - i * (RelativeTimeLabels.WEEK_MILLIS * 2 / LIST_SIZE)));
+        }
+        return tasks;
+    }
+
+    private static long readRuntimeStat(String statName) {
+        String value = Debug.getRuntimeStat(statName);
+        return value != null ? Long.parseLong(value) : 0;
+    }
+
+    private static double percentile(long[] sortedNanos, int percent) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = Math.max(0, (int) Math.ceil(percent / 100.0 * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1e6;
+    }
+
+    private static class FrameDurationCollector implements Window.OnFrameMetricsAvailableListener {
+        private final List<Long> durations = new ArrayList<>();
+
+        @Override
+        public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics, int dropCountSinceLastInvocation) {
+            synchronized (durations) {
+                durations.add(frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION));
+            }
+        }
+
+        long[] sortedDurations() {
+            long[] sorted;
+            synchronized (durations) {
+                sorted = new long[durations.size()];
+                for (int i = 0; i < sorted.length; i++) {
+                    sorted[i] = durations.get(i);
+                }
+            }
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.todolist;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs EXPLAIN QUERY PLAN for every statement TaskDatabaseManager issues and fails
+ * when one of them scans the whole table or sorts through a temporary B-tree.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskQueryPlanTest {
+    private static final String TEST_DATABASE = "task_query_plan_test.db";
+    private static final Pattern FULL_TABLE_SCAN = Pattern.compile("^SCAN (TABLE )?task_items$");
+
+    private Context appContext;
+    private TaskDatabaseManager databaseManager;
+
+    @Before
+    public void setUp() {
+        appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        appContext.deleteDatabase(TEST_DATABASE);
+        databaseManager = new TaskDatabaseManager(
+            appContext, TEST_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+
+        List<TaskItem> seededTasks = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            seededTasks.add(new TaskItem(0, "Plan task " + i, i % 4 == 0, System.currentTimeMillis() - i));
+        }
+        databaseManager.insertTasks(seededTasks);
+    }
+
+    @After
+    public void tearDown() {
+        databaseManager.close();
+        appContext.deleteDatabase(TEST_DATABASE);
+    }
+
+    @Test
+    public void everyQuery_usesAnIndexWithoutTempSort() {
+        List<String> violations = new ArrayList<>();
+
+        for (Map.Entry<String, String> probe : TaskDatabaseManager.getQueryPlanProbes().entrySet()) {
+            String sql = probe.getValue();
+            List<String> planDetails = databaseManager.explainQueryPlan(sql);
+            boolean hasFilter = sql.toUpperCase(Locale.ROOT).contains(" WHERE ");
+            boolean usesSearch = false;
+
+            for (String detail : planDetails) {
+                if (FULL_TABLE_SCAN.matcher(detail).matches()) {
+                    violations.add(probe.getKey() + ": full table scan (" + detail + ")");
+                }
+                if (detail.contains("USE TEMP B-TREE")) {
+                    violations.add(probe.getKey() + ": temp sort (" + detail + ")");
+                }
+                if (detail.startsWith("SEARCH")) {
+                    usesSearch = true;
+                }
+            }
+
+            if (hasFilter && !usesSearch) {
+                violations.add(probe.getKey() + ": filter not answered by an index " + planDetails);
+            }
+        }
+
+        assertTrue("Query plan regressions:\n" + String.join("\n", violations), violations.isEmpty());
+    }
+}
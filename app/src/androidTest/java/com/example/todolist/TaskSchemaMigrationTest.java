@@ -0,0 +1,179 @@
+package com.example.todolist;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class TaskSchemaMigrationTest {
+    private static final String TEST_DATABASE = "task_migration_test.db";
+    private static final int SEEDED_TASK_COUNT = TaskMigrationEngine.DEFAULT_CHUNK_SIZE * 2 + 123;
+
+    private static final String VERSION_1_SCHEMA = "CREATE TABLE task_items (" +
+        "task_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+        "description TEXT NOT NULL, " +
+        "is_finished INTEGER DEFAULT 0, " +
+        "creation_timestamp INTEGER NOT NULL)";
+    private static final String VERSION_2_SCHEMA = "CREATE TABLE task_items (" +
+        "task_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+        "description TEXT NOT NULL, " +
+        "is_finished INTEGER DEFAULT 0, " +
+        "creation_timestamp INTEGER NOT NULL, " +
+        "last_modified_timestamp INTEGER NOT NULL)";
+
+    private Context appContext;
+    private TaskDatabaseManager databaseManager;
+
+    @Before
+    public void setUp() {
+        appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        appContext.deleteDatabase(TEST_DATABASE);
+    }
+
+    @After
+    public void tearDown() {
+        if (databaseManager != null) {
+            databaseManager.close();
+        }
+        appContext.deleteDatabase(TEST_DATABASE);
+    }
+
+    @Test
+    public void upgradeFromVersion1_keepsEveryTaskAndBackfillsLastModified() {
+        SQLiteDatabase legacyDatabase = openLegacyDatabase(VERSION_1_SCHEMA, 1);
+        seedTasks(legacyDatabase, "INSERT INTO task_items " +
+            "(task_id, description, is_finished, creation_timestamp) VALUES (?, ?, ?, ?)", 1);
+        legacyDatabase.close();
+
+        SQLiteDatabase upgradedDatabase = openCurrentDatabase();
+
+        assertEquals(SEEDED_TASK_COUNT, DatabaseUtils.queryNumEntries(upgradedDatabase, "task_items"));
+        assertEquals(SEEDED_TASK_COUNT, DatabaseUtils.longForQuery(upgradedDatabase,
+            "SELECT COUNT(*) FROM task_items WHERE last_modified_timestamp = creation_timestamp", null));
+        assertSeededTasksIntact(upgradedDatabase);
+        assertCurrentSchema(upgradedDatabase);
+    }
+
+    @Test
+    public void upgradeFromVersion2_keepsEveryTaskAndAddsIndexes() {
+        SQLiteDatabase legacyDatabase = openLegacyDatabase(VERSION_2_SCHEMA, 2);
+        seedTasks(legacyDatabase, "INSERT INTO task_items " +
+            "(task_id, description, is_finished, creation_timestamp, last_modified_timestamp) " +
+            "VALUES (?, ?, ?, ?, ?)", 2);
+        legacyDatabase.close();
+
+        SQLiteDatabase upgradedDatabase = openCurrentDatabase();
+
+        assertEquals(SEEDED_TASK_COUNT, DatabaseUtils.queryNumEntries(upgradedDatabase, "task_items"));
+        assertSeededTasksIntact(upgradedDatabase);
+        assertCurrentSchema(upgradedDatabase);
+    }
+
+    @Test
+    public void interruptedVersion1Copy_resumesWithoutDuplicates() {
+        SQLiteDatabase legacyDatabase = openLegacyDatabase(VERSION_1_SCHEMA, 1);
+        seedTasks(legacyDatabase, "INSERT INTO task_items " +
+            "(task_id, description, is_finished, creation_timestamp) VALUES (?, ?, ?, ?)", 1);
+        // Leave behind what a crash after the first copied chunk would.
+        legacyDatabase.execSQL(VERSION_2_SCHEMA.replace("task_items", "task_items_v2"));
+        legacyDatabase.execSQL("INSERT INTO task_items_v2 SELECT task_id, description, is_finished, " +
+            "creation_timestamp, creation_timestamp FROM task_items ORDER BY task_id LIMIT " +
+            TaskMigrationEngine.DEFAULT_CHUNK_SIZE);
+        legacyDatabase.close();
+
+        SQLiteDatabase upgradedDatabase = openCurrentDatabase();
+
+        assertEquals(SEEDED_TASK_COUNT, DatabaseUtils.queryNumEntries(upgradedDatabase, "task_items"));
+        assertSeededTasksIntact(upgradedDatabase);
+        assertCurrentSchema(upgradedDatabase);
+    }
+
+    private SQLiteDatabase openLegacyDatabase(String schema, int version) {
+        SQLiteDatabase legacyDatabase = SQLiteDatabase.openOrCreateDatabase(
+            appContext.getDatabasePath(TEST_DATABASE), null);
+        legacyDatabase.execSQL(schema);
+        legacyDatabase.setVersion(version);
+        return legacyDatabase;
+    }
+
+    private SQLiteDatabase openCurrentDatabase() {
+        databaseManager = new TaskDatabaseManager(
+            appContext, TEST_DATABASE, TaskDatabaseManager.ConnectionMode.PERSISTENT);
+        return databaseManager.getWritableDatabase();
+    }
+
+    private void seedTasks(SQLiteDatabase database, String insertSql, int version) {
+        SQLiteStatement insertStatement = database.compileStatement(insertSql);
+        database.beginTransaction();
+        try {
+            for (int taskId = 1; taskId <= SEEDED_TASK_COUNT; taskId++) {
+                insertStatement.bindLong(1, taskId);
+                insertStatement.bindString(2, "Legacy task " + taskId);
+                insertStatement.bindLong(3, taskId % 2);
+                insertStatement.bindLong(4, 1_000_000L + taskId);
+                if (version >= 2) {
+                    insertStatement.bindLong(5, 2_000_000L + taskId);
+                }
+                insertStatement.executeInsert();
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+            insertStatement.close();
+        }
+    }
+
+    private void assertSeededTasksIntact(SQLiteDatabase database) {
+        try (Cursor cursor = database.rawQuery("SELECT task_id, description, is_finished, " +
+                "creation_timestamp FROM task_items ORDER BY task_id", null)) {
+            int expectedTaskId = 1;
+            while (cursor.moveToNext()) {
+                assertEquals(expectedTaskId, cursor.getInt(0));
+                assertEquals("Legacy task " + expectedTaskId, cursor.getString(1));
+                assertEquals(expectedTaskId % 2, cursor.getInt(2));
+                assertEquals(1_000_000L + expectedTaskId, cursor.getLong(3));
+                expectedTaskId++;
+            }
+            assertEquals(SEEDED_TASK_COUNT + 1, expectedTaskId);
+        }
+    }
+
+    private void assertCurrentSchema(SQLiteDatabase database) {
+        assertEquals(new TaskMigrationEngine(TaskSchemaMigrations.all()).getLatestVersion(),
+            database.getVersion());
+        assertEquals(0, DatabaseUtils.longForQuery(database,
+            "SELECT COUNT(*) FROM sqlite_master WHERE name = 'task_items_v2'", null));
+        assertEquals(4, DatabaseUtils.longForQuery(database,
+            "SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND tbl_name = 'task_items' " +
+            "AND name LIKE 'idx_task_items_%'", null));
+
+        boolean foundLegacyTask = false;
+        for (TaskItem taskItem : databaseManager.searchTasksByDescription("legacy task 42")) {
+            foundLegacyTask |= taskItem.getId() == 42;
+        }
+        assertTrue("Upgraded tasks must be searchable", foundLegacyTask);
+
+        assertEquals(0, DatabaseUtils.longForQuery(database,
+            "SELECT COUNT(*) FROM task_items WHERE normalized_description IS NULL", null));
+        assertTrue(databaseManager.hasTaskWithDescription("  LEGACY   task 42 "));
+        assertFalse(databaseManager.hasTaskWithDescription("Legacy task 0"));
+
+        TaskStatistics statistics = databaseManager.loadTaskStatistics(10);
+        assertEquals(SEEDED_TASK_COUNT, statistics.getTotalCount());
+        assertEquals((SEEDED_TASK_COUNT + 1) / 2, statistics.getCompletedCount());
+        assertEquals(1, statistics.getDayCount());
+        assertEquals(SEEDED_TASK_COUNT, statistics.getCreatedOnDay(0));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.todolist;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over a blocked-word list, matched ASCII case-insensitively like
+ * the (?i) regex it replaces. Matching walks a precomputed transition table, so it reads
+ * each character once, whatever the number of words, and allocates nothing.
+ */
+public final class BlockedWordMatcher {
+    public static final BlockedWordMatcher DEFAULT = new BlockedWordMatcher(Arrays.asList("spam", "test123", "dummy"));
+
+    static final int INITIAL_STATE = 0;
+
+    // Folded characters used by any word, sorted; symbol 0 stands for every other character.
+    private final char[] alphabet;
+    private final int[][] transitions;
+    private final boolean[] matchingStates;
+
+    public BlockedWordMatcher(Collection<String> blockedWords) {
+        alphabet = buildAlphabet(blockedWords);
+
+        List<int[]> gotoTable = new ArrayList<>();
+        List<Boolean> wordEnds = new ArrayList<>();
+        gotoTable.add(newState());
+        wordEnds.add(false);
+
+        for (String blockedWord : blockedWords) {
+            int state = INITIAL_STATE;
+            for (int i = 0; i < blockedWord.length(); i++) {
+                int symbol = symbolOf(blockedWord.charAt(i));
+                if (gotoTable.get(state)[symbol] < 0) {
+                    gotoTable.get(state)[symbol] = gotoTable.size();
+                    gotoTable.add(newState());
+                    wordEnds.add(false);
+                }
+                state = gotoTable.get(state)[symbol];
+            }
+            wordEnds.set(state, true);
+        }
+
+        transitions = gotoTable.toArray(new int[0][]);
+        matchingStates = new boolean[transitions.length];
+        for (int state = 0; state < matchingStates.length; state++) {
+            matchingStates[state] = wordEnds.get(state);
+        }
+        linkFailureTransitions();
+    }
+
+    public boolean containsBlockedWord(CharSequence text) {
+        return text != null && containsBlockedWord(text, 0, text.length());
+    }
+
+    public boolean containsBlockedWord(CharSequence text, int start, int end) {
+        int state = INITIAL_STATE;
+        for (int i = start; i < end; i++) {
+            state = nextState(state, text.charAt(i));
+            if (matchingStates[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int nextState(int state, char character) {
+        return transitions[state][symbolOf(character)];
+    }
+
+    boolean isMatch(int state) {
+        return matchingStates[state];
+    }
+
+    private int symbolOf(char character) {
+        int index = Arrays.binarySearch(alphabet, foldAsciiCase(character));
+        return index >= 0 ? index + 1 : 0;
+    }
+
+    private int[] newState() {
+        int[] state = new int[alphabet.length + 1];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    /** Turns the trie into a DFA: missing edges follow the failure link, matches propagate. */
+    private void linkFailureTransitions() {
+        int[] failureLinks = new int[transitions.length];
+        Queue<Integer> pendingStates = new ArrayDeque<>();
+
+        for (int symbol = 0; symbol <= alphabet.length; symbol++) {
+            int child = transitions[INITIAL_STATE][symbol];
+            if (child < 0) {
+                transitions[INITIAL_STATE][symbol] = INITIAL_STATE;
+            } else {
+                failureLinks[child] = INITIAL_STATE;
+                pendingStates.add(child);
+            }
+        }
+
+        while (!pendingStates.isEmpty()) {
+            int state = pendingStates.remove();
+            matchingStates[state] |= matchingStates[failureLinks[state]];
+
+            for (int symbol = 0; symbol <= alphabet.length; symbol++) {
+                int child = transitions[state][symbol];
+                int fallback = transitions[failureLinks[state]][symbol];
+                if (child < 0) {
+                    transitions[state][symbol] = fallback;
+                } else {
+                    failureLinks[child] = fallback;
+                    pendingStates.add(child);
+                }
+            }
+        }
+    }
+
+    private static char[] buildAlphabet(Collection<String> blockedWords) {
+        StringBuilder characters = new StringBuilder();
+        for (String blockedWord : blockedWords) {
+            if (blockedWord == null || blockedWord.isEmpty()) {
+                throw new IllegalArgumentException("Blocked words must not be empty");
+            }
+            for (int i = 0; i < blockedWord.length(); i++) {
+                char folded = foldAsciiCase(blockedWord.charAt(i));
+                if (characters.indexOf(String.valueOf(folded)) < 0) {
+                    characters.append(folded);
+                }
+            }
+        }
+        char[] alphabet = characters.toString().toCharArray();
+        Arrays.sort(alphabet);
+        return alphabet;
+    }
+
+    private static char foldAsciiCase(char character) {
+        return character >= 'A' && character <= 'Z' ? (char) (character + ('a' - 'A')) : character;
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.todolist;
 
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.Choreographer;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.inputmethod.InputMethodManager;
@@ -21,14 +25,31 @@ import com.google.android.material.appbar.MaterialToolbar;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 public class MainActivity extends AppCompatActivity {
+    private static final int LIST_MODE_MAX_TASKS = 500;
+    private static final int PAGED_MODE_MAX_TASKS = 20_000;
+    private static final int STATISTICS_HISTORY_DAYS = 7;
+    private static final long CURSOR_REOPEN_DELAY_MILLIS = 300;
+
     private TaskRecyclerAdapter taskRecyclerAdapter;
     private TaskDatabaseManager databaseManager;
-    private List<TaskItem> taskItems;
+    private TaskRepository taskRepository;
+    private TaskPagedList pagedTaskList;
+    private TaskSearchController taskSearchController;
+    private TaskCompletionWriteQueue completionWriteQueue;
+    private Future<TaskCursorList> pendingCursorListOpen;
+    private int cursorListRequestCount;
+    private final TaskCache.ChangeListener taskChangeListener = (changeType, taskIds) -> scheduleTaskListRefresh();
+    // A burst of cache events, such as an import, costs one reload on the next frame.
+    private final Choreographer.FrameCallback scheduledTaskListRefresh = frameTimeNanos -> runScheduledTaskListRefresh();
+    private final List<Runnable> afterScheduledRefresh = new ArrayList<>();
+    private boolean isTaskListRefreshScheduled;
     private RecyclerView tasksRecyclerView;
     private TextInputEditText taskInputField;
     private TextInputLayout taskInputLayout;
+    private TextInputEditText searchInputField;
     private MaterialButton addTaskButton;
     private FloatingActionButton fabAddTask;
     private MaterialToolbar appToolbar;
@@ -52,17 +73,32 @@ public class MainActivity extends AppCompatActivity {
         tasksRecyclerView = findViewById(R.id.task_recycler);
         taskInputField = findViewById(R.id.input_task);
         taskInputLayout = findViewById(R.id.input_layout);
+        searchInputField = findViewById(R.id.search_input);
         addTaskButton = findViewById(R.id.add_task_btn);
         fabAddTask = findViewById(R.id.fab_add_task);
     }
 
     private void setupDatabase() {
-        databaseManager = new TaskDatabaseManager(this);
-        taskItems = new ArrayList<>();
+        databaseManager = TaskDatabaseManager.getInstance(this);
+        taskRepository = TaskRepository.getInstance(this);
+        taskRepository.getTaskCache().addChangeListener(taskChangeListener);
+        completionWriteQueue = TaskCompletionWriteQueue.getInstance(this);
+        getLifecycle().addObserver(completionWriteQueue);
+        taskSearchController = new TaskSearchController(taskRepository, new TaskSearchController.SearchResultListener() {
+            @Override
+            public void onSearchResults(String searchTerm, List<TaskSearchResult> results) {
+                showSearchResults(results);
+            }
+
+            @Override
+            public void onSearchCleared() {
+                refreshTaskList();
+            }
+        });
     }
 
     private void configureRecyclerView() {
-        taskRecyclerAdapter = new TaskRecyclerAdapter(taskItems, databaseManager, new TaskRecyclerAdapter.TaskActionHandler() {
+        taskRecyclerAdapter = new TaskRecyclerAdapter(taskRepository, new TaskRecyclerAdapter.TaskActionHandler() {
             @Override
             public void onTaskEdit(int position) {
                 displayTaskEditDialog(position);
@@ -76,6 +112,11 @@ public class MainActivity extends AppCompatActivity {
 
         tasksRecyclerView.setLayoutManager(new LinearLayoutManager(this));
         tasksRecyclerView.setAdapter(taskRecyclerAdapter);
+        
+        TaskTimestampTicker timestampTicker = new TaskTimestampTicker(tasksRecyclerView, taskRecyclerAdapter);
+        taskRecyclerAdapter.setTimestampTicker(timestampTicker);
+        getLifecycle().addObserver(timestampTicker);
+        taskRecyclerAdapter.setCompletionWriteQueue(completionWriteQueue);
     }
 
     private void setupEventListeners() {
@@ -90,6 +131,13 @@ public class MainActivity extends AppCompatActivity {
             return false;
         });
         
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            appToolbar.setOnLongClickListener(view -> {
+                showDatabaseMetrics();
+                return true;
+            });
+        }
+        
         taskInputField.setOnEditorActionListener((textView, actionId, keyEvent) -> {
             if (actionId == android.view.inputmethod.EditorInfo.IME_ACTION_DONE) {
                 processNewTaskInput();
@@ -97,6 +145,21 @@ public class MainActivity extends AppCompatActivity {
             }
             return false;
         });
+        
+        searchInputField.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence text, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence text, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable text) {
+                taskSearchController.onSearchTermChanged(text);
+            }
+        });
     }
 
     private void loadExistingTasks() {
@@ -107,23 +170,19 @@ public class MainActivity extends AppCompatActivity {
         String taskDescription = taskInputField.getText().toString().trim();
         
         if (isValidTaskInput(taskDescription)) {
-            if (isDuplicateTask(taskDescription)) {
-                showDuplicateTaskDialog(taskDescription);
-            } else {
-                createNewTask(taskDescription);
-                clearInputField();
-                refreshTaskList();
-                animateTaskAddition();
-            }
+            taskRepository.isDescriptionTaken(taskDescription, isDuplicate -> {
+                if (isDuplicate) {
+                    showDuplicateTaskDialog(taskDescription);
+                } else {
+                    createNewTask(taskDescription);
+                    clearInputField();
+                }
+            });
         } else {
             displayInputValidationDialog();
         }
     }
     
-    private boolean isDuplicateTask(String description) {
-        return !TaskValidationUtils.isTaskDescriptionUnique(description, taskItems);
-    }
-    
     private void showDuplicateTaskDialog(String description) {
         new MaterialAlertDialogBuilder(this)
                 .setTitle("Duplicate Task")
@@ -131,14 +190,13 @@ public class MainActivity extends AppCompatActivity {
                 .setPositiveButton("Add Anyway", (dialog, which) -> {
                     createNewTask(description + " (Copy)");
                     clearInputField();
-                    refreshTaskList();
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
     }
     
     private void animateTaskAddition() {
-        if (taskItems.size() > 0) {
+        if (taskRecyclerAdapter.getItemCount() > 0) {
             tasksRecyclerView.smoothScrollToPosition(0);
         }
     }
@@ -163,16 +221,18 @@ public class MainActivity extends AppCompatActivity {
 
     private void createNewTask(String description) {
         TaskItem newTaskItem = new TaskItem(description.trim());
-        long insertResult = databaseManager.insertTask(newTaskItem);
-        
-        if (insertResult != -1) {
-            String successMessage = String.format("✓ '%s' added to your tasks", 
-                truncateText(description, 30));
-            Toast.makeText(this, successMessage, Toast.LENGTH_SHORT).show();
-        } else {
-            Toast.makeText(this, "Failed to save task. Please try again.", 
-                Toast.LENGTH_LONG).show();
-        }
+        taskRepository.insertTask(newTaskItem, insertResult -> {
+            if (insertResult != -1) {
+                String successMessage = String.format("✓ '%s' added to your tasks", 
+                    truncateText(description, 30));
+                Toast.makeText(this, successMessage, Toast.LENGTH_SHORT).show();
+                // The insert's cache event has already scheduled the reload that shows the task.
+                runAfterScheduledRefresh(this::animateTaskAddition);
+            } else {
+                Toast.makeText(this, "Failed to save task. Please try again.", 
+                    Toast.LENGTH_LONG).show();
+            }
+        });
     }
     
     private String truncateText(String text, int maxLength) {
@@ -188,20 +248,165 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void refreshTaskList() {
-        taskItems.clear();
-        taskItems.addAll(databaseManager.retrieveAllTasks());
-        taskRecyclerAdapter.notifyDataSetChanged();
+        refreshTaskList(null);
+    }
+
+    private void scheduleTaskListRefresh() {
+        if (taskRecyclerAdapter.isCursorMode()) {
+            // Each reopen counts the whole table again, so wait for a burst of writes to end.
+            Choreographer.getInstance().removeFrameCallback(scheduledTaskListRefresh);
+            Choreographer.getInstance().postFrameCallbackDelayed(scheduledTaskListRefresh, CURSOR_REOPEN_DELAY_MILLIS);
+            isTaskListRefreshScheduled = true;
+        } else if (!isTaskListRefreshScheduled) {
+            isTaskListRefreshScheduled = true;
+            Choreographer.getInstance().postFrameCallback(scheduledTaskListRefresh);
+        }
+    }
+    
+    /** Runs action once the scheduled reload has been shown; dropped if none is scheduled. */
+    private void runAfterScheduledRefresh(Runnable action) {
+        if (isTaskListRefreshScheduled) {
+            afterScheduledRefresh.add(action);
+        }
+    }
+    
+    private void runScheduledTaskListRefresh() {
+        isTaskListRefreshScheduled = false;
+        if (afterScheduledRefresh.isEmpty()) {
+            refreshTaskList(null);
+            return;
+        }
+        List<Runnable> actions = new ArrayList<>(afterScheduledRefresh);
+        afterScheduledRefresh.clear();
+        refreshTaskList(() -> {
+            for (Runnable action : actions) {
+                action.run();
+            }
+        });
+    }
+
+    private void refreshTaskList(Runnable onRefreshed) {
+        if (taskSearchController.isSearchActive()) {
+            taskSearchController.refresh();
+            return;
+        }
+        
+        taskRepository.getTaskCount(totalTasks -> {
+            if (totalTasks > PAGED_MODE_MAX_TASKS) {
+                showCursorTaskList(totalTasks, onRefreshed);
+            } else if (totalTasks > LIST_MODE_MAX_TASKS) {
+                showPagedTaskList(totalTasks, onRefreshed);
+            } else {
+                loadFullTaskList(onRefreshed);
+            }
+        });
+    }
+    
+    private void loadFullTaskList(Runnable onRefreshed) {
+        taskRepository.loadAllTasks(loadedTasks -> {
+            leaveWindowedListModes();
+            taskRecyclerAdapter.submitTaskList(loadedTasks, () -> {
+                updateTaskCountDisplay();
+                updateEmptyState();
+                
+                if (onRefreshed != null) {
+                    onRefreshed.run();
+                }
+            });
+        });
+    }
+    
+    private void showSearchResults(List<TaskSearchResult> results) {
+        leaveWindowedListModes();
+        List<TaskItem> matchingTasks = new ArrayList<>(results.size());
+        for (TaskSearchResult result : results) {
+            matchingTasks.add(result.getTaskItem());
+        }
+        taskRecyclerAdapter.submitTaskList(matchingTasks, () -> {
+            updateTaskCountDisplay();
+            updateEmptyState();
+        });
+    }
+    
+    private void leaveWindowedListModes() {
+        if (pagedTaskList != null) {
+            pagedTaskList = null;
+            taskRecyclerAdapter.setPagedTaskList(null);
+        }
+        if (taskRecyclerAdapter.isCursorMode()) {
+            taskRecyclerAdapter.setCursorTaskList(null);
+        }
+    }
+    
+    private void showCursorTaskList(int totalTasks, Runnable onRefreshed) {
+        if (pendingCursorListOpen != null) {
+            pendingCursorListOpen.cancel(false);
+        }
+        int requestId = ++cursorListRequestCount;
+        pendingCursorListOpen = taskRepository.openTaskCursorList(cursorTaskList -> {
+            // The repository outlives this activity, so a result can come after onDestroy,
+            // or after a newer open has replaced this one.
+            if (isDestroyed() || requestId != cursorListRequestCount) {
+                if (cursorTaskList != null) {
+                    cursorTaskList.close();
+                }
+                return;
+            }
+            pendingCursorListOpen = null;
+            if (cursorTaskList == null) {
+                showPagedTaskList(totalTasks, onRefreshed);
+                return;
+            }
+            if (taskSearchController.isSearchActive()) {
+                cursorTaskList.close();
+                return;
+            }
+            
+            pagedTaskList = null;
+            taskRecyclerAdapter.setCursorTaskList(cursorTaskList);
+            updateTaskCountDisplay();
+            updateEmptyState();
+            
+            if (onRefreshed != null) {
+                onRefreshed.run();
+            }
+        });
+    }
+    
+    private void showPagedTaskList(int totalTasks, Runnable onRefreshed) {
+        if (pagedTaskList == null) {
+            pagedTaskList = new TaskPagedList(taskRepository, totalTasks);
+            taskRecyclerAdapter.setPagedTaskList(pagedTaskList);
+        } else if (pagedTaskList.size() != totalTasks) {
+            pagedTaskList.reset(totalTasks);
+            taskRecyclerAdapter.notifyDataSetChanged();
+        }
         
         updateTaskCountDisplay();
         updateEmptyState();
+        
+        if (onRefreshed != null) {
+            onRefreshed.run();
+        }
     }
     
     private void updateTaskCountDisplay() {
+        if (taskSearchController.isSearchActive()) {
+            TextView taskCountView = findViewById(R.id.task_count);
+            if (taskCountView != null) {
+                taskCountView.setText(String.format("%d matches", taskRecyclerAdapter.getItemCount()));
+            }
+        } else if (pagedTaskList != null || taskRecyclerAdapter.isCursorMode()) {
+            taskRepository.loadTaskCounts(counts -> renderTaskCount(counts[0], counts[1]));
+        } else {
+            TaskColumnStore shownTasks = taskRecyclerAdapter.getTaskColumnStore();
+            renderTaskCount(shownTasks.size(), shownTasks.getCompletedCount());
+        }
+    }
+    
+    private void renderTaskCount(int totalTasks, int completedTasks) {
         TextView taskCountView = findViewById(R.id.task_count);
-        if (taskCountView != null && taskItems != null) {
-            int totalTasks = taskItems.size();
-            int completedTasks = (int) taskItems.stream().filter(TaskItem::isFinished).count();
-            
+        if (taskCountView != null) {
             String countText = String.format("%d tasks • %d done", totalTasks, completedTasks);
             taskCountView.setText(countText);
         }
@@ -211,8 +416,8 @@ public class MainActivity extends AppCompatActivity {
         View emptyStateView = findViewById(R.id.empty_state);
         View tasksContainer = findViewById(R.id.tasks_container_card);
         
-        if (emptyStateView != null && tasksContainer != null && taskItems != null) {
-            if (taskItems.isEmpty()) {
+        if (emptyStateView != null && tasksContainer != null) {
+            if (taskRecyclerAdapter.getItemCount() == 0) {
                 emptyStateView.setVisibility(View.VISIBLE);
                 tasksContainer.setVisibility(View.GONE);
             } else {
@@ -223,13 +428,32 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void removeTaskAtPosition(int position) {
-        if (position >= 0 && position < taskItems.size()) {
-            TaskItem taskToRemove = taskItems.get(position);
-            databaseManager.removeTask(taskToRemove.getId());
-            taskItems.remove(position);
-            taskRecyclerAdapter.notifyItemRemoved(position);
+        TaskItem taskToRemove = taskRecyclerAdapter.getTaskAt(position);
+        if (taskToRemove != null) {
+            taskSearchController.invalidateResults();
+            // In cursor mode the row stays until the cache's REMOVED event reopens the cursor.
+            if (pagedTaskList != null) {
+                pagedTaskList.invalidateFrom(position, pagedTaskList.size() - 1);
+                taskRecyclerAdapter.notifyItemRemoved(position);
+                updateTaskCountDisplay();
+                updateEmptyState();
+            } else if (!taskRecyclerAdapter.isCursorMode()) {
+                List<TaskItem> remainingTasks = new ArrayList<>(taskRecyclerAdapter.getCurrentTasks());
+                remainingTasks.remove(position);
+                taskRecyclerAdapter.submitTaskList(remainingTasks, () -> {
+                    updateTaskCountDisplay();
+                    updateEmptyState();
+                });
+            }
             
-            Toast.makeText(this, "Task removed", Toast.LENGTH_SHORT).show();
+            taskRepository.removeTask(taskToRemove.getId(), removed -> {
+                if (removed) {
+                    Toast.makeText(this, "Task removed", Toast.LENGTH_SHORT).show();
+                } else {
+                    Toast.makeText(this, "Failed to remove task", Toast.LENGTH_SHORT).show();
+                    refreshTaskList();
+                }
+            });
         }
     }
 
@@ -265,12 +489,11 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void displayTaskEditDialog(int position) {
-        if (position < 0 || position >= taskItems.size()) {
+        TaskItem currentTask = taskRecyclerAdapter.getTaskAt(position);
+        if (currentTask == null) {
             return;
         }
         
-        TaskItem currentTask = taskItems.get(position);
-        
         final TextInputEditText editInput = new TextInputEditText(this);
         editInput.setText(currentTask.getDescription());
         editInput.setSelection(currentTask.getDescription().length());
@@ -298,12 +521,29 @@ public class MainActivity extends AppCompatActivity {
     }
     
     private void updateTaskAtPosition(int position, String newDescription) {
-        TaskItem taskToUpdate = taskItems.get(position);
+        TaskItem currentTask = taskRecyclerAdapter.getTaskAt(position);
+        if (currentTask == null) {
+            return;
+        }
+        // The shown row may still be read by the differ; the edit goes on a copy.
+        TaskItem taskToUpdate = new TaskItem(currentTask);
         taskToUpdate.setDescription(newDescription);
-        databaseManager.modifyTask(taskToUpdate);
-        taskRecyclerAdapter.notifyItemChanged(position);
+        if (taskRecyclerAdapter.isPagedMode() || taskRecyclerAdapter.isCursorMode()) {
+            currentTask.setDescription(newDescription);
+            taskRecyclerAdapter.notifyItemChanged(position, TaskRecyclerAdapter.RowChange.DESCRIPTION);
+        } else {
+            taskRecyclerAdapter.updateTaskItem(position, taskToUpdate);
+        }
+        taskSearchController.invalidateResults();
         
-        Toast.makeText(this, "Task updated successfully", Toast.LENGTH_SHORT).show();
+        taskRepository.modifyTask(taskToUpdate, updated -> {
+            if (updated) {
+                Toast.makeText(this, "Task updated successfully", Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(this, "Failed to update task", Toast.LENGTH_SHORT).show();
+                refreshTaskList();
+            }
+        });
     }
 
     @Override
@@ -343,31 +583,81 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        refreshTaskList();
+        taskRepository.getMaintenanceScheduler().start();
+    }
+
+    @Override
+    protected void onPause() {
+        taskRepository.getMaintenanceScheduler().stop();
+        super.onPause();
     }
 
     @Override
     protected void onDestroy() {
-        if (databaseManager != null) {
-            databaseManager.close();
+        if (taskSearchController != null) {
+            taskSearchController.release();
+        }
+        if (pendingCursorListOpen != null) {
+            // A cancelled open closes the list it was still building.
+            pendingCursorListOpen.cancel(false);
+            pendingCursorListOpen = null;
+        }
+        if (taskRecyclerAdapter != null) {
+            taskRecyclerAdapter.setCursorTaskList(null);
+        }
+        if (taskRepository != null) {
+            taskRepository.getTaskCache().removeChangeListener(taskChangeListener);
+            Choreographer.getInstance().removeFrameCallback(scheduledTaskListRefresh);
+            isTaskListRefreshScheduled = false;
+            afterScheduledRefresh.clear();
+            // The repository outlives this activity; writes already queued still complete.
+            taskRepository.cancelPendingReads();
         }
         super.onDestroy();
     }
 
     private void showTaskStatistics() {
-        int totalTasks = databaseManager.getTaskCount();
-        int completedTasks = (int) taskItems.stream().filter(TaskItem::isFinished).count();
-        int pendingTasks = totalTasks - completedTasks;
+        taskRepository.loadTaskStatistics(STATISTICS_HISTORY_DAYS, statistics -> {
+            StringBuilder statisticsMessage = new StringBuilder(String.format(
+                "Task Statistics:\n\nTotal: %d\nCompleted: %d\nPending: %d",
+                statistics.getTotalCount(), statistics.getCompletedCount(), statistics.getPendingCount()
+            ));
+            
+            if (statistics.getDayCount() > 0) {
+                statisticsMessage.append("\n\nRecent days (created / done):");
+                for (int i = 0; i < statistics.getDayCount(); i++) {
+                    statisticsMessage.append(String.format("\n%s: %d / %d",
+                        java.time.LocalDate.ofEpochDay(statistics.getEpochDay(i)),
+                        statistics.getCreatedOnDay(i), statistics.getCompletedOnDay(i)));
+                }
+            }
+            
+            new MaterialAlertDialogBuilder(this)
+                    .setTitle("Task Overview")
+                    .setMessage(statisticsMessage.toString())
+                    .setPositiveButton("OK", null)
+                    .show();
+        });
+    }
+
+    /** Debug builds only: long-press the toolbar. */
+    private void showDatabaseMetrics() {
+        StringBuilder metricsMessage = new StringBuilder(databaseManager.getMetrics().formatReport());
         
-        String statisticsMessage = String.format(
-            "Task Statistics:\n\nTotal: %d\nCompleted: %d\nPending: %d",
-            totalTasks, completedTasks, pendingTasks
-        );
+        List<TaskMaintenanceScheduler.MaintenanceReport> maintenanceReports =
+            taskRepository.getMaintenanceScheduler().getRecentReports();
+        if (!maintenanceReports.isEmpty()) {
+            metricsMessage.append("\n\nRecent maintenance:");
+            for (TaskMaintenanceScheduler.MaintenanceReport report : maintenanceReports) {
+                metricsMessage.append("\n").append(report);
+            }
+        }
         
         new MaterialAlertDialogBuilder(this)
-                .setTitle("Task Overview")
-                .setMessage(statisticsMessage)
+                .setTitle("Database Metrics")
+                .setMessage(metricsMessage.toString())
                 .setPositiveButton("OK", null)
+                .setNeutralButton("Reset", (dialog, which) -> databaseManager.getMetrics().reset())
                 .show();
     }
 }
@@ -0,0 +1,65 @@
+package com.example.todolist;
+
+/**
+ * The "5m ago" labels shown on task rows. Every label the rows can show is built once up
+ * front, one per minute, hour and day bucket, so binding a row only looks one up.
+ */
+public final class RelativeTimeLabels {
+    static final long MINUTE_MILLIS = 60_000L;
+    static final long HOUR_MILLIS = 60 * MINUTE_MILLIS;
+    static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+    static final long WEEK_MILLIS = 7 * DAY_MILLIS;
+
+    static final String JUST_NOW = "Just now";
+    static final String LAST_WEEK = "Last week";
+
+    private static final String[] MINUTE_LABELS = buildLabels(60, "m ago");
+    private static final String[] HOUR_LABELS = buildLabels(24, "h ago");
+    private static final String[] DAY_LABELS = buildLabels(7, "d ago");
+
+    private RelativeTimeLabels() {
+    }
+
+    /** The label for a task created at timestamp, as seen at now. Allocates nothing. */
+    public static String labelFor(long timestamp, long now) {
+        long age = now - timestamp;
+
+        if (age < MINUTE_MILLIS) {
+            return JUST_NOW;
+        } else if (age < HOUR_MILLIS) {
+            return MINUTE_LABELS[(int) (age / MINUTE_MILLIS)];
+        } else if (age < DAY_MILLIS) {
+            return HOUR_LABELS[(int) (age / HOUR_MILLIS)];
+        } else if (age < WEEK_MILLIS) {
+            return DAY_LABELS[(int) (age / DAY_MILLIS)];
+        }
+        return LAST_WEEK;
+    }
+
+    /**
+     * The first time after now at which labelFor(timestamp, time) stops returning what it
+     * returns at now, or Long.MAX_VALUE once the label is "Last week" for good.
+     */
+    public static long nextChangeAt(long timestamp, long now) {
+        long age = now - timestamp;
+
+        if (age < MINUTE_MILLIS) {
+            return timestamp + MINUTE_MILLIS;
+        } else if (age < HOUR_MILLIS) {
+            return timestamp + (age / MINUTE_MILLIS + 1) * MINUTE_MILLIS;
+        } else if (age < DAY_MILLIS) {
+            return timestamp + (age / HOUR_MILLIS + 1) * HOUR_MILLIS;
+        } else if (age < WEEK_MILLIS) {
+            return timestamp + (age / DAY_MILLIS + 1) * DAY_MILLIS;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static String[] buildLabels(int count, String suffix) {
+        String[] labels = new String[count];
+        for (int i = 1; i < count; i++) {
+            labels[i] = i + suffix;
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.todolist;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The compact export format: a header, then one length-prefixed record per task, then an
+ * end marker and the record count.
+ *
+ * <pre>
+ * header:  int MAGIC, int FORMAT_VERSION
+ * record:  int length, int taskId, long created, long lastModified, byte finished,
+ *          UTF-8 description (the rest of the record)
+ * trailer: int END_OF_RECORDS, long recordCount
+ * </pre>
+ *
+ * All numbers are big-endian. The length prefix lets a reader reject a corrupt record
+ * before allocating for it, and the trailer tells a complete file from a truncated one.
+ */
+public final class TaskBinaryRecords {
+    public static final int MAGIC = 0x54534B42; // "TSKB"
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int END_OF_RECORDS = -1;
+    private static final int FIXED_FIELDS_LENGTH = 4 + 8 + 8 + 1;
+    private static final int MAX_RECORD_LENGTH = 1 << 20;
+
+    private TaskBinaryRecords() {
+    }
+
+    public static final class Writer implements TaskRecordWriter {
+        private final DataOutputStream output;
+        private long recordCount;
+
+        /** output should be buffered; every field is written to it separately. */
+        public Writer(OutputStream output) throws IOException {
+            this.output = new DataOutputStream(output);
+            this.output.writeInt(MAGIC);
+            this.output.writeInt(FORMAT_VERSION);
+        }
+
+        @Override
+        public void writeTask(TaskItem taskItem) throws IOException {
+            byte[] description = taskItem.getDescription().getBytes(StandardCharsets.UTF_8);
+            output.writeInt(FIXED_FIELDS_LENGTH + description.length);
+            output.writeInt(taskItem.getId());
+            output.writeLong(taskItem.getCreationTimestamp());
+            output.writeLong(taskItem.getLastModifiedTimestamp());
+            output.writeByte(taskItem.isFinished() ? 1 : 0);
+            output.write(description);
+            recordCount++;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            output.writeInt(END_OF_RECORDS);
+            output.writeLong(recordCount);
+            output.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+    }
+
+    public static final class Reader implements TaskRecordReader {
+        private final DataInputStream input;
+        private byte[] descriptionBuffer = new byte[256];
+        private long recordCount;
+        private boolean reachedEnd;
+
+        public Reader(InputStream input) throws IOException {
+            this.input = new DataInputStream(input);
+            try {
+                if (this.input.readInt() != MAGIC) {
+                    throw new IOException("Not a binary task export");
+                }
+                int version = this.input.readInt();
+                if (version != FORMAT_VERSION) {
+                    throw new IOException("Unsupported binary task export version " + version);
+                }
+            } catch (EOFException e) {
+                throw new IOException("Not a binary task export");
+            }
+        }
+
+        @Override
+        public TaskItem readTask() throws IOException {
+            if (reachedEnd) {
+                return null;
+            }
+            
+            try {
+                int recordLength = input.readInt();
+                if (recordLength == END_OF_RECORDS) {
+                    long expectedCount = input.readLong();
+                    if (expectedCount != recordCount) {
+                        throw new IOException("Export holds " + recordCount + " tasks but declares " + expectedCount);
+                    }
+                    reachedEnd = true;
+                    return null;
+                }
+                if (recordLength < FIXED_FIELDS_LENGTH || recordLength > MAX_RECORD_LENGTH) {
+                    throw new IOException("Corrupt record length " + recordLength + " after " + recordCount + " tasks");
+                }
+                
+                int taskId = input.readInt();
+                if (taskId <= 0) {
+                    throw new IOException("Corrupt task id " + taskId + " after " + recordCount + " tasks");
+                }
+                long creationTimestamp = input.readLong();
+                long lastModifiedTimestamp = input.readLong();
+                boolean finished = input.readByte() != 0;
+                
+                int descriptionLength = recordLength - FIXED_FIELDS_LENGTH;
+                if (descriptionLength > descriptionBuffer.length) {
+                    descriptionBuffer = new byte[Math.max(descriptionLength, descriptionBuffer.length * 2)];
+                }
+                input.readFully(descriptionBuffer, 0, descriptionLength);
+                
+                TaskItem taskItem = new TaskItem(taskId,
+                    new String(descriptionBuffer, 0, descriptionLength, StandardCharsets.UTF_8),
+                    finished, creationTimestamp);
+                taskItem.setLastModifiedTimestamp(lastModifiedTimestamp);
+                recordCount++;
+                return taskItem;
+            } catch (EOFException e) {
+                throw new IOException("Export is truncated after " + recordCount + " tasks");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.todolist;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Process-wide copy of task_items, kept in step with every write TaskRepository makes.
+ * Once loaded it answers list, count and duplicate-description reads from memory. Every write is published to
+ * change listeners, loaded or not, on the event executor (the main looper for the
+ * shared instance).
+ */
+public class TaskCache {
+    static final int MAX_CACHED_TASKS = 10_000;
+
+    // RELOADED: the table changed wholesale, e.g. by an import; no task ids are given.
+    public enum ChangeType { INSERTED, UPDATED, REMOVED, RELOADED }
+
+    public interface ChangeListener {
+        void onTasksChanged(ChangeType changeType, int[] taskIds);
+    }
+
+    // Same orders as TaskDatabaseManager, with task_id breaking ties so the sets stay total.
+    private static final Comparator<TaskItem> NEWEST_FIRST = (first, second) -> {
+        int byCreation = Long.compare(second.getCreationTimestamp(), first.getCreationTimestamp());
+        return byCreation != 0 ? byCreation : Integer.compare(second.getId(), first.getId());
+    };
+    private static final Comparator<TaskItem> RECENTLY_MODIFIED_FIRST = (first, second) -> {
+        int byModification = Long.compare(second.getLastModifiedTimestamp(), first.getLastModifiedTimestamp());
+        return byModification != 0 ? byModification : Integer.compare(second.getId(), first.getId());
+    };
+
+    private static TaskCache sharedInstance;
+
+    private final Executor eventExecutor;
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private final Map<Integer, TaskItem> tasksById = new HashMap<>();
+    private final TreeSet<TaskItem> allTasks = new TreeSet<>(NEWEST_FIRST);
+    private final TreeSet<TaskItem> pendingTasks = new TreeSet<>(NEWEST_FIRST);
+    private final TreeSet<TaskItem> completedTasks = new TreeSet<>(RECENTLY_MODIFIED_FIRST);
+    private final TaskDescriptionIndex descriptionIndex = new TaskDescriptionIndex();
+    private boolean isLoaded;
+    private long modificationCount;
+
+    public static synchronized TaskCache getInstance() {
+        if (sharedInstance == null) {
+            Handler mainThreadHandler = new Handler(Looper.getMainLooper());
+            sharedInstance = new TaskCache(mainThreadHandler::post);
+        }
+        return sharedInstance;
+    }
+
+    TaskCache(Executor eventExecutor) {
+        this.eventExecutor = eventExecutor;
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    public synchronized boolean isLoaded() {
+        return isLoaded;
+    }
+
+    /** Copies in TaskDatabaseManager.retrieveAllTasks order, or null when not loaded. */
+    public synchronized List<TaskItem> getAllTasks() {
+        return isLoaded ? copyOf(allTasks) : null;
+    }
+
+    public synchronized List<TaskItem> getPendingTasks() {
+        return isLoaded ? copyOf(pendingTasks) : null;
+    }
+
+    public synchronized List<TaskItem> getCompletedTasks() {
+        return isLoaded ? copyOf(completedTasks) : null;
+    }
+
+    /** {total, completed}, or null when not loaded. */
+    public synchronized int[] getTaskCounts() {
+        return isLoaded ? new int[]{allTasks.size(), completedTasks.size()} : null;
+    }
+
+    /** Whether a task normalizes to the same description, or null when not loaded. */
+    public synchronized Boolean containsDescription(String description) {
+        return isLoaded ? descriptionIndex.contains(description) : null;
+    }
+
+    /** Read before loading from the database and handed back to replaceAll. */
+    public synchronized long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Installs a full read of the table unless a write landed since modificationCount was
+     * taken, in which case the read may be stale and is dropped.
+     */
+    public synchronized boolean replaceAll(Collection<TaskItem> tasks, long expectedModificationCount) {
+        if (expectedModificationCount != modificationCount || tasks.size() > MAX_CACHED_TASKS) {
+            return false;
+        }
+
+        clearViews();
+        for (TaskItem task : tasks) {
+            putTask(new TaskItem(task));
+        }
+        isLoaded = true;
+        return true;
+    }
+
+    public void taskInserted(TaskItem task) {
+        tasksInserted(Collections.singletonList(task));
+    }
+
+    public void tasksInserted(List<TaskItem> tasks) {
+        synchronized (this) {
+            modificationCount++;
+            if (isLoaded) {
+                for (TaskItem task : tasks) {
+                    putTask(new TaskItem(task));
+                }
+                trimIfOversized();
+            }
+        }
+        publishChange(ChangeType.INSERTED, idsOf(tasks));
+    }
+
+    public void taskModified(TaskItem task) {
+        tasksModified(Collections.singletonList(task));
+    }
+
+    public void tasksModified(List<TaskItem> tasks) {
+        synchronized (this) {
+            modificationCount++;
+            if (isLoaded) {
+                for (TaskItem task : tasks) {
+                    TaskItem cachedTask = removeTask(task.getId());
+                    if (cachedTask != null) {
+                        // Only the columns TaskDatabaseManager.modifyTask writes change.
+                        cachedTask.setDescription(task.getDescription());
+                        cachedTask.setFinished(task.isFinished());
+                        putTask(cachedTask);
+                    }
+                }
+            }
+        }
+        publishChange(ChangeType.UPDATED, idsOf(tasks));
+    }
+
+    /** toggledAt is the modification time the database stored for each task. */
+    public void taskCompletionsModified(int[] taskIds, boolean[] finished, long[] toggledAt) {
+        synchronized (this) {
+            modificationCount++;
+            if (isLoaded) {
+                for (int i = 0; i < taskIds.length; i++) {
+                    TaskItem cachedTask = removeTask(taskIds[i]);
+                    if (cachedTask != null) {
+                        cachedTask.setFinished(finished[i]);
+                        cachedTask.setLastModifiedTimestamp(toggledAt[i]);
+                        putTask(cachedTask);
+                    }
+                }
+            }
+        }
+        publishChange(ChangeType.UPDATED, taskIds.clone());
+    }
+
+    public void taskRemoved(int taskId) {
+        tasksRemoved(new int[]{taskId});
+    }
+
+    public void tasksRemoved(int[] taskIds) {
+        synchronized (this) {
+            modificationCount++;
+            if (isLoaded) {
+                for (int taskId : taskIds) {
+                    removeTask(taskId);
+                }
+            }
+        }
+        publishChange(ChangeType.REMOVED, taskIds.clone());
+    }
+
+    /** Forgets the loaded copy after a bulk change too large to apply row by row. */
+    public void tasksReloaded() {
+        synchronized (this) {
+            modificationCount++;
+            clearViews();
+            isLoaded = false;
+        }
+        publishChange(ChangeType.RELOADED, new int[0]);
+    }
+
+    private void putTask(TaskItem task) {
+        tasksById.put(task.getId(), task);
+        allTasks.add(task);
+        (task.isFinished() ? completedTasks : pendingTasks).add(task);
+        descriptionIndex.add(task.getDescription());
+    }
+
+    private TaskItem removeTask(int taskId) {
+        TaskItem cachedTask = tasksById.remove(taskId);
+        if (cachedTask != null) {
+            allTasks.remove(cachedTask);
+            (cachedTask.isFinished() ? completedTasks : pendingTasks).remove(cachedTask);
+            descriptionIndex.remove(cachedTask.getDescription());
+        }
+        return cachedTask;
+    }
+
+    private void trimIfOversized() {
+        if (allTasks.size() > MAX_CACHED_TASKS) {
+            clearViews();
+            isLoaded = false;
+        }
+    }
+
+    private void clearViews() {
+        tasksById.clear();
+        allTasks.clear();
+        pendingTasks.clear();
+        completedTasks.clear();
+        descriptionIndex.clear();
+    }
+
+    private void publishChange(ChangeType changeType, int[] taskIds) {
+        if (changeListeners.isEmpty()) {
+            return;
+        }
+        eventExecutor.execute(() -> {
+            for (ChangeListener listener : changeListeners) {
+                listener.onTasksChanged(changeType, taskIds);
+            }
+        });
+    }
+
+    private static List<TaskItem> copyOf(Collection<TaskItem> tasks) {
+        List<TaskItem> copies = new ArrayList<>(tasks.size());
+        for (TaskItem task : tasks) {
+            copies.add(new TaskItem(task));
+        }
+        return copies;
+    }
+
+    private static int[] idsOf(List<TaskItem> tasks) {
+        int[] taskIds = new int[tasks.size()];
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = tasks.get(i).getId();
+        }
+        return taskIds;
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.todolist;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Tasks stored column by column: ids and timestamps in primitive arrays, finished flags in a
+ * BitSet and every description packed into one shared char arena. Rows keep the order they
+ * were added in. Counts are kept up to date on every change, and the completed and pending
+ * views filter through the BitSet without building lists.
+ *
+ * Not thread-safe; TaskRecyclerAdapter only touches it on the main thread.
+ */
+public class TaskColumnStore {
+    private static final int INITIAL_ROW_CAPACITY = 16;
+    private static final int INITIAL_ARENA_CAPACITY = 512;
+
+    private int[] taskIds = new int[INITIAL_ROW_CAPACITY];
+    private long[] creationTimestamps = new long[INITIAL_ROW_CAPACITY];
+    private long[] lastModifiedTimestamps = new long[INITIAL_ROW_CAPACITY];
+    private int[] descriptionOffsets = new int[INITIAL_ROW_CAPACITY];
+    private int[] descriptionLengths = new int[INITIAL_ROW_CAPACITY];
+    private final BitSet finishedRows = new BitSet();
+    private char[] descriptionArena = new char[INITIAL_ARENA_CAPACITY];
+    private int arenaEnd;
+    private int liveArenaChars;
+    private int rowCount;
+    private int completedCount;
+
+    private final FilteredView completedView = new FilteredView(true);
+    private final FilteredView pendingView = new FilteredView(false);
+
+    public static TaskColumnStore fromTasks(List<TaskItem> tasks) {
+        TaskColumnStore columnStore = new TaskColumnStore();
+        columnStore.replaceAll(tasks);
+        return columnStore;
+    }
+
+    /** Refills the store from tasks, reusing its arrays when they are already big enough. */
+    public void replaceAll(List<TaskItem> tasks) {
+        clear();
+        for (int i = 0; i < tasks.size(); i++) {
+            append(tasks.get(i));
+        }
+    }
+
+    public void clear() {
+        finishedRows.clear();
+        arenaEnd = 0;
+        liveArenaChars = 0;
+        rowCount = 0;
+        completedCount = 0;
+        invalidateViews();
+    }
+
+    public void append(TaskItem taskItem) {
+        ensureRowCapacity(rowCount + 1);
+        int row = rowCount++;
+        taskIds[row] = taskItem.getId();
+        creationTimestamps[row] = taskItem.getCreationTimestamp();
+        lastModifiedTimestamps[row] = taskItem.getLastModifiedTimestamp();
+        // A reused row still holds an earlier fill's length; a compaction on the way must not copy it.
+        descriptionLengths[row] = 0;
+        storeDescription(row, taskItem.getDescription());
+        if (taskItem.isFinished()) {
+            finishedRows.set(row);
+            completedCount++;
+        }
+        invalidateViews();
+    }
+
+    public void removeRow(int row) {
+        checkRow(row);
+        if (finishedRows.get(row)) {
+            completedCount--;
+        }
+        liveArenaChars -= descriptionLengths[row];
+
+        int rowsAfter = rowCount - row - 1;
+        System.arraycopy(taskIds, row + 1, taskIds, row, rowsAfter);
+        System.arraycopy(creationTimestamps, row + 1, creationTimestamps, row, rowsAfter);
+        System.arraycopy(lastModifiedTimestamps, row + 1, lastModifiedTimestamps, row, rowsAfter);
+        System.arraycopy(descriptionOffsets, row + 1, descriptionOffsets, row, rowsAfter);
+        System.arraycopy(descriptionLengths, row + 1, descriptionLengths, row, rowsAfter);
+        for (int i = row; i < rowCount - 1; i++) {
+            finishedRows.set(i, finishedRows.get(i + 1));
+        }
+        finishedRows.clear(rowCount - 1);
+        rowCount--;
+        invalidateViews();
+    }
+
+    public void setFinished(int row, boolean finished) {
+        checkRow(row);
+        if (finishedRows.get(row) != finished) {
+            finishedRows.set(row, finished);
+            completedCount += finished ? 1 : -1;
+            invalidateViews();
+        }
+    }
+
+    public void setDescription(int row, String description) {
+        checkRow(row);
+        liveArenaChars -= descriptionLengths[row];
+        // The old text is dead from here on, so a compaction on the way must not copy it.
+        descriptionLengths[row] = 0;
+        storeDescription(row, description);
+    }
+
+    public int indexOfTask(int taskId) {
+        for (int row = 0; row < rowCount; row++) {
+            if (taskIds[row] == taskId) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    public int getPendingCount() {
+        return rowCount - completedCount;
+    }
+
+    public int getTaskId(int row) {
+        checkRow(row);
+        return taskIds[row];
+    }
+
+    public long getCreationTimestamp(int row) {
+        checkRow(row);
+        return creationTimestamps[row];
+    }
+
+    public long getLastModifiedTimestamp(int row) {
+        checkRow(row);
+        return lastModifiedTimestamps[row];
+    }
+
+    public boolean isFinished(int row) {
+        checkRow(row);
+        return finishedRows.get(row);
+    }
+
+    /**
+     * The arena holding every description; read a row's text from getDescriptionOffset for
+     * getDescriptionLength chars, e.g. with TextView.setText(char[], int, int). The array is
+     * replaced when the arena grows or compacts, so fetch it again after any change.
+     */
+    public char[] getDescriptionArena() {
+        return descriptionArena;
+    }
+
+    public int getDescriptionOffset(int row) {
+        checkRow(row);
+        return descriptionOffsets[row];
+    }
+
+    public int getDescriptionLength(int row) {
+        checkRow(row);
+        return descriptionLengths[row];
+    }
+
+    public String getDescription(int row) {
+        checkRow(row);
+        return new String(descriptionArena, descriptionOffsets[row], descriptionLengths[row]);
+    }
+
+    public TaskItem toTaskItem(int row) {
+        TaskItem taskItem = new TaskItem(getTaskId(row), getDescription(row), isFinished(row),
+            getCreationTimestamp(row));
+        taskItem.setLastModifiedTimestamp(getLastModifiedTimestamp(row));
+        return taskItem;
+    }
+
+    /** Completed rows in store order. The same instance is returned on every call. */
+    public FilteredView getCompletedView() {
+        return completedView;
+    }
+
+    public FilteredView getPendingView() {
+        return pendingView;
+    }
+
+    private void storeDescription(int row, String description) {
+        int length = description != null ? description.length() : 0;
+        if (arenaEnd + length > descriptionArena.length) {
+            compactArena(length);
+        }
+        if (length > 0) {
+            description.getChars(0, length, descriptionArena, arenaEnd);
+        }
+        descriptionOffsets[row] = arenaEnd;
+        descriptionLengths[row] = length;
+        arenaEnd += length;
+        liveArenaChars += length;
+    }
+
+    /** Drops text left behind by edits and removals, growing the arena if that is not enough. */
+    private void compactArena(int extraChars) {
+        int requiredCapacity = liveArenaChars + extraChars;
+        int newCapacity = requiredCapacity > descriptionArena.length / 2
+            ? Math.max(descriptionArena.length * 2, requiredCapacity) : descriptionArena.length;
+        char[] compactedArena = new char[newCapacity];
+
+        int compactedEnd = 0;
+        for (int row = 0; row < rowCount; row++) {
+            System.arraycopy(descriptionArena, descriptionOffsets[row], compactedArena, compactedEnd,
+                descriptionLengths[row]);
+            descriptionOffsets[row] = compactedEnd;
+            compactedEnd += descriptionLengths[row];
+        }
+        descriptionArena = compactedArena;
+        arenaEnd = compactedEnd;
+    }
+
+    private void ensureRowCapacity(int requiredRows) {
+        if (requiredRows <= taskIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(taskIds.length * 2, requiredRows);
+        taskIds = Arrays.copyOf(taskIds, newCapacity);
+        creationTimestamps = Arrays.copyOf(creationTimestamps, newCapacity);
+        lastModifiedTimestamps = Arrays.copyOf(lastModifiedTimestamps, newCapacity);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, newCapacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, newCapacity);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        }
+    }
+
+    private void invalidateViews() {
+        completedView.forgetLastLookup();
+        pendingView.forgetLastLookup();
+    }
+
+    /**
+     * The rows whose finished flag matches, addressed by position within the view. Each
+     * lookup walks the BitSet from the previous one, so scanning in order is linear overall.
+     */
+    public final class FilteredView {
+        private final boolean finished;
+        private int lastPosition = -1;
+        private int lastRow = -1;
+
+        private FilteredView(boolean finished) {
+            this.finished = finished;
+        }
+
+        public int size() {
+            return finished ? completedCount : rowCount - completedCount;
+        }
+
+        /** The store row shown at position in this view. */
+        public int rowAt(int position) {
+            if (position < 0 || position >= size()) {
+                throw new IndexOutOfBoundsException("Position " + position + " of " + size());
+            }
+            if (lastPosition < 0 || position < lastPosition) {
+                lastPosition = 0;
+                lastRow = nextRow(-1);
+            }
+            while (lastPosition < position) {
+                lastRow = nextRow(lastRow);
+                lastPosition++;
+            }
+            return lastRow;
+        }
+
+        /** The first matching row after row, or -1; start from -1. */
+        public int nextRow(int row) {
+            int next = finished ? finishedRows.nextSetBit(row + 1) : finishedRows.nextClearBit(row + 1);
+            return next >= 0 && next < rowCount ? next : -1;
+        }
+
+        private void forgetLastLookup() {
+            lastPosition = -1;
+            lastRow = -1;
+        }
+    }
+}
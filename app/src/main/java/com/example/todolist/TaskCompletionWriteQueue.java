@@ -0,0 +1,271 @@
+package com.example.todolist;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Gathers checkbox toggles so a burst of taps costs one write. A toggle is shown at once
+ * and journaled; further toggles of the same task replace it, and a task toggled back to
+ * what the database holds drops out. FLUSH_DELAY_MILLIS after the first toggle, or when
+ * an owner pauses, everything waiting goes to the writer as one transaction. Journal
+ * entries are removed only once their write has succeeded, so toggles a crash or a
+ * failed write left behind are written again on the next start.
+ *
+ * The journal is written with commit() on one background thread rather than apply(), so
+ * an entry is on disk as soon as that thread gets to it and a removal never overtakes the
+ * put before it. Every entry carries the time of its toggle, and the write skips a task
+ * changed after that, so a late replay never undoes a newer change.
+ * One queue serves the process; observe it from each activity. Main thread only.
+ */
+public class TaskCompletionWriteQueue implements DefaultLifecycleObserver {
+    private static final String LOG_TAG = "TaskCompletionQueue";
+    static final String JOURNAL_NAME = "pending_task_completions";
+    private static final long FLUSH_DELAY_MILLIS = 500;
+    private static final long RETRY_DELAY_MILLIS = 5_000;
+    // Shared by every queue, so a journal read sees every commit made before it.
+    private static final ExecutorService JOURNAL_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-completion-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static TaskCompletionWriteQueue sharedInstance;
+
+    private static final class Toggle {
+        final boolean finished;
+        final long toggledAt;
+
+        Toggle(boolean finished, long toggledAt) {
+            this.finished = finished;
+            this.toggledAt = toggledAt;
+        }
+    }
+
+    private final TaskRepository taskRepository;
+    private final SharedPreferences journal;
+    private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
+    private final Runnable flushPendingCompletions = this::flush;
+    // Latest toggle per task, not yet handed to the writer.
+    private final Map<Integer, Toggle> pendingCompletions = new LinkedHashMap<>();
+    // What the database held before a pending task's first toggle, where that is known.
+    private final Map<Integer, Boolean> storedCompletions = new HashMap<>();
+    // Handed to the writer and not yet confirmed.
+    private final Map<Integer, Toggle> inFlightCompletions = new HashMap<>();
+    private boolean isFlushScheduled;
+
+    public static synchronized TaskCompletionWriteQueue getInstance(Context context) {
+        if (sharedInstance == null) {
+            sharedInstance = new TaskCompletionWriteQueue(context.getApplicationContext(),
+                TaskRepository.getInstance(context));
+        }
+        return sharedInstance;
+    }
+
+    TaskCompletionWriteQueue(Context context, TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+        this.journal = context.getSharedPreferences(JOURNAL_NAME, Context.MODE_PRIVATE);
+        JOURNAL_EXECUTOR.execute(this::readJournal);
+    }
+
+    @Override
+    public void onPause(@NonNull LifecycleOwner owner) {
+        flush();
+    }
+
+    /**
+     * Queues taskId's new state; the caller has already shown it. wasFinished is the state
+     * the row showed before the toggle.
+     */
+    public void setFinished(int taskId, boolean finished, boolean wasFinished) {
+        if (!pendingCompletions.containsKey(taskId) && !inFlightCompletions.containsKey(taskId)) {
+            storedCompletions.put(taskId, wasFinished);
+        }
+
+        Boolean storedFinished = storedCompletions.get(taskId);
+        if (storedFinished != null && storedFinished == finished) {
+            // Back where the database already is; there is nothing left to write.
+            pendingCompletions.remove(taskId);
+            storedCompletions.remove(taskId);
+            commitJournalRemovals(new int[]{taskId});
+            return;
+        }
+
+        Toggle toggle = new Toggle(finished, System.currentTimeMillis());
+        pendingCompletions.put(taskId, toggle);
+        JOURNAL_EXECUTOR.execute(
+            () -> journal.edit().putLong(journalKey(taskId), encodeJournalEntry(toggle)).commit());
+        scheduleFlush(FLUSH_DELAY_MILLIS);
+    }
+
+    public boolean hasUnwrittenCompletions() {
+        return !pendingCompletions.isEmpty() || !inFlightCompletions.isEmpty();
+    }
+
+    /** The state a toggle still waiting to be written gave taskId, or null if none is waiting. */
+    public Boolean getUnwrittenCompletion(int taskId) {
+        if (!hasUnwrittenCompletions()) {
+            return null;
+        }
+        Toggle toggle = pendingCompletions.get(taskId);
+        if (toggle == null) {
+            toggle = inFlightCompletions.get(taskId);
+        }
+        return toggle != null ? toggle.finished : null;
+    }
+
+    /** Hands every pending toggle to the writer now, as one transaction. */
+    public void flush() {
+        mainThreadHandler.removeCallbacks(flushPendingCompletions);
+        isFlushScheduled = false;
+        if (pendingCompletions.isEmpty()) {
+            return;
+        }
+
+        int[] taskIds = new int[pendingCompletions.size()];
+        Toggle[] toggles = new Toggle[taskIds.length];
+        boolean[] finished = new boolean[taskIds.length];
+        long[] toggledAt = new long[taskIds.length];
+        int index = 0;
+        for (Map.Entry<Integer, Toggle> pendingCompletion : pendingCompletions.entrySet()) {
+            taskIds[index] = pendingCompletion.getKey();
+            toggles[index] = pendingCompletion.getValue();
+            finished[index] = toggles[index].finished;
+            toggledAt[index] = toggles[index].toggledAt;
+            index++;
+        }
+        inFlightCompletions.putAll(pendingCompletions);
+        pendingCompletions.clear();
+        storedCompletions.clear();
+
+        // After shutdown no callback comes; the journal keeps these for the next start.
+        taskRepository.modifyTaskCompletions(taskIds, finished, toggledAt,
+            new TaskRepository.ResultCallback<Integer>() {
+                @Override
+                public void onResult(Integer modifiedCount) {
+                    if (modifiedCount >= 0) {
+                        onCompletionsWritten(taskIds, toggles);
+                    } else {
+                        onCompletionsFailed(taskIds, toggles);
+                    }
+                }
+
+                @Override
+                public void onError(Exception error) {
+                    Log.e(LOG_TAG, "Error writing task completions: " + error.getMessage());
+                    onCompletionsFailed(taskIds, toggles);
+                }
+            });
+    }
+
+    private void onCompletionsWritten(int[] taskIds, Toggle[] toggles) {
+        int[] writtenTaskIds = new int[taskIds.length];
+        int writtenCount = 0;
+        for (int i = 0; i < taskIds.length; i++) {
+            if (inFlightCompletions.get(taskIds[i]) == toggles[i]) {
+                inFlightCompletions.remove(taskIds[i]);
+            }
+            // A later toggle of the task keeps the entry until that one is written too.
+            if (!pendingCompletions.containsKey(taskIds[i]) && !inFlightCompletions.containsKey(taskIds[i])) {
+                writtenTaskIds[writtenCount++] = taskIds[i];
+            }
+        }
+        commitJournalRemovals(Arrays.copyOf(writtenTaskIds, writtenCount));
+    }
+
+    private void onCompletionsFailed(int[] taskIds, Toggle[] toggles) {
+        for (int i = 0; i < taskIds.length; i++) {
+            // Skip tasks a later write already covers.
+            if (inFlightCompletions.get(taskIds[i]) != toggles[i]) {
+                continue;
+            }
+            inFlightCompletions.remove(taskIds[i]);
+            if (!pendingCompletions.containsKey(taskIds[i])) {
+                pendingCompletions.put(taskIds[i], toggles[i]);
+            }
+        }
+        scheduleFlush(RETRY_DELAY_MILLIS);
+    }
+
+    private void scheduleFlush(long delayMillis) {
+        if (!isFlushScheduled) {
+            isFlushScheduled = true;
+            mainThreadHandler.postDelayed(flushPendingCompletions, delayMillis);
+        }
+    }
+
+    private void commitJournalRemovals(int[] taskIds) {
+        if (taskIds.length == 0) {
+            return;
+        }
+        JOURNAL_EXECUTOR.execute(() -> {
+            SharedPreferences.Editor journalEditor = journal.edit();
+            for (int taskId : taskIds) {
+                journalEditor.remove(journalKey(taskId));
+            }
+            journalEditor.commit();
+        });
+    }
+
+    /** Runs on the journal thread; the entries are queued back on the main thread. */
+    private void readJournal() {
+        Map<Integer, Toggle> journaledToggles = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> journalEntry : journal.getAll().entrySet()) {
+            if (!(journalEntry.getValue() instanceof Long)) {
+                continue;
+            }
+            try {
+                journaledToggles.put(Integer.parseInt(journalEntry.getKey()),
+                    decodeJournalEntry((Long) journalEntry.getValue()));
+            } catch (NumberFormatException e) {
+                Log.e(LOG_TAG, "Error reading completion journal entry: " + e.getMessage());
+            }
+        }
+        if (!journaledToggles.isEmpty()) {
+            mainThreadHandler.post(() -> replayJournal(journaledToggles));
+        }
+    }
+
+    private void replayJournal(Map<Integer, Toggle> journaledToggles) {
+        int replayedCount = 0;
+        for (Map.Entry<Integer, Toggle> journaledToggle : journaledToggles.entrySet()) {
+            // A toggle made since the start is newer than the journaled one.
+            if (!pendingCompletions.containsKey(journaledToggle.getKey())
+                    && !inFlightCompletions.containsKey(journaledToggle.getKey())) {
+                pendingCompletions.put(journaledToggle.getKey(), journaledToggle.getValue());
+                replayedCount++;
+            }
+        }
+
+        if (replayedCount > 0) {
+            Log.w(LOG_TAG, "Replaying " + replayedCount + " unwritten task completions");
+            flush();
+        }
+    }
+
+    private static String journalKey(int taskId) {
+        return Integer.toString(taskId);
+    }
+
+    /** The toggle time and the new state in one long, so an entry is written in one put. */
+    private static long encodeJournalEntry(Toggle toggle) {
+        return toggle.toggledAt << 1 | (toggle.finished ? 1 : 0);
+    }
+
+    private static Toggle decodeJournalEntry(long journalEntry) {
+        return new Toggle((journalEntry & 1) != 0, journalEntry >>> 1);
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.todolist;
+
+import android.database.Cursor;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-only view of a task_items cursor for lists too large to hold as TaskItems. Rows are
+ * read out of the cursor ROWS_PER_READ at a time, and only the most recently read rows are
+ * kept as TaskItems, so memory stays near one CursorWindow whatever the row count.
+ *
+ * Open it with TaskRepository.openTaskCursorList: rows not read yet come back as null while
+ * the reader pool reads them, moving the cursor and refilling its window off the main thread,
+ * and the RowLoadListener hears when they arrive, as with TaskPagedList. A list opened
+ * straight from TaskDatabaseManager.openTaskCursorList reads on the calling thread instead.
+ * Apart from those reads, all methods must be called on the main thread.
+ *
+ * The list is only consistent until the next write. SQLiteCursor runs its query again each
+ * time it refills its window, so after a write the rows at a position can shift, and rows
+ * removed since the list opened stay unreadable because the row count is fixed at open.
+ * That is why MainActivity swaps in a new list after every write and closes the old one.
+ */
+public class TaskCursorList implements Closeable {
+    static final int ROWS_PER_READ = 32;
+    static final int MAX_BUILT_ROWS = 4 * ROWS_PER_READ;
+    private static final int PREFETCH_DISTANCE = ROWS_PER_READ / 2;
+
+    public interface RowLoadListener {
+        void onItemRangeLoaded(int startPosition, int itemCount);
+    }
+
+    private final Cursor cursor;
+    private final TaskDatabaseManager.TaskRowReader rowReader;
+    private final int rowCount;
+    // Guards the cursor, which reads on the reader pool move.
+    private final ReentrantLock cursorLock = new ReentrantLock();
+    // In read order rather than access order, so a lookup never reorders it.
+    private final Map<Integer, TaskItem> builtRows =
+        new LinkedHashMap<Integer, TaskItem>(MAX_BUILT_ROWS + 1, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, TaskItem> eldest) {
+                return size() > MAX_BUILT_ROWS;
+            }
+        };
+    private final Set<Integer> readsInFlight = new HashSet<>();
+    private final BitSet unreadableRows = new BitSet();
+    private TaskRepository taskRepository;
+    private int databaseGeneration;
+    private RowLoadListener rowLoadListener;
+    private volatile boolean isReleased;
+
+    /** Counts the rows, which walks the whole result; do it off the main thread. */
+    TaskCursorList(Cursor cursor, TaskDatabaseManager.TaskRowReader rowReader) {
+        this.cursor = cursor;
+        this.rowReader = rowReader;
+        this.rowCount = cursor.getCount();
+    }
+
+    /**
+     * From here on rows are read through taskRepository's reader pool, which stops reading
+     * them once a restore has moved past databaseGeneration.
+     */
+    void setTaskRepository(TaskRepository taskRepository, int databaseGeneration) {
+        this.taskRepository = taskRepository;
+        this.databaseGeneration = databaseGeneration;
+    }
+
+    int getDatabaseGeneration() {
+        return databaseGeneration;
+    }
+
+    public void setRowLoadListener(RowLoadListener rowLoadListener) {
+        this.rowLoadListener = rowLoadListener;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * The task at position; null if closed, if the row is unreadable, or while it is still
+     * being read, in which case the RowLoadListener hears when it arrives.
+     */
+    public TaskItem getItem(int position) {
+        if (position < 0 || position >= rowCount || isReleased) {
+            return null;
+        }
+
+        int readIndex = position / ROWS_PER_READ;
+        if (position % ROWS_PER_READ >= ROWS_PER_READ - PREFETCH_DISTANCE
+                && (readIndex + 1) * ROWS_PER_READ < rowCount
+                && !builtRows.containsKey((readIndex + 1) * ROWS_PER_READ)) {
+            requestRows(readIndex + 1);
+        }
+
+        TaskItem builtRow = builtRows.get(position);
+        if (builtRow == null && !unreadableRows.get(position)) {
+            requestRows(readIndex);
+            builtRow = builtRows.get(position);
+        }
+        return builtRow;
+    }
+
+    /** The task at position if it has been read already; reads and requests nothing. */
+    public TaskItem peekItem(int position) {
+        return isReleased ? null : builtRows.get(position);
+    }
+
+    public boolean isClosed() {
+        return isReleased;
+    }
+
+    /** A read in progress keeps the cursor until it finishes, then closes it. */
+    @Override
+    public void close() {
+        isReleased = true;
+        builtRows.clear();
+        readsInFlight.clear();
+        closeCursorIfReleased();
+    }
+
+    /** Reads up to count rows from startPosition; called on the reader pool, or inline without one. */
+    List<TaskItem> readRows(int startPosition, int count) {
+        List<TaskItem> rows = new ArrayList<>(count);
+        cursorLock.lock();
+        try {
+            if (!isReleased && !cursor.isClosed()) {
+                for (int position = startPosition; position < startPosition + count; position++) {
+                    if (!cursor.moveToPosition(position)) {
+                        break;
+                    }
+                    rows.add(rowReader.readTaskItem(cursor));
+                }
+            }
+        } finally {
+            cursorLock.unlock();
+        }
+        // close() may have come while the cursor was busy here.
+        closeCursorIfReleased();
+        return rows;
+    }
+
+    private void requestRows(int readIndex) {
+        if (!readsInFlight.add(readIndex)) {
+            return;
+        }
+        int startPosition = readIndex * ROWS_PER_READ;
+        int count = Math.min(ROWS_PER_READ, rowCount - startPosition);
+
+        if (taskRepository == null) {
+            onRowsRead(readIndex, startPosition, readRows(startPosition, count), false);
+        } else {
+            taskRepository.readCursorRows(this, startPosition, count,
+                rows -> onRowsRead(readIndex, startPosition, rows, true));
+        }
+    }
+
+    private void onRowsRead(int readIndex, int startPosition, List<TaskItem> rows, boolean notifyListener) {
+        if (isReleased) {
+            return;
+        }
+        readsInFlight.remove(readIndex);
+        for (int i = 0; i < rows.size(); i++) {
+            TaskItem row = rows.get(i);
+            if (row != null) {
+                builtRows.put(startPosition + i, row);
+            } else {
+                // Asking again would only read the same bad row, and rebind, forever.
+                unreadableRows.set(startPosition + i);
+            }
+        }
+
+        if (notifyListener && rowLoadListener != null && !rows.isEmpty()) {
+            rowLoadListener.onItemRangeLoaded(startPosition, rows.size());
+        }
+    }
+
+    private void closeCursorIfReleased() {
+        if (isReleased && cursorLock.tryLock()) {
+            try {
+                if (!cursor.isClosed()) {
+                    cursor.close();
+                }
+            } finally {
+                cursorLock.unlock();
+            }
+        }
+    }
+}
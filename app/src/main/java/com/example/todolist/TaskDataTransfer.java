@@ -0,0 +1,180 @@
+package com.example.todolist;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams task_items to and from a file. Exports read the table in primary-key chunks and
+ * imports write it back one chunk per transaction, so memory stays at one chunk of tasks
+ * whatever the table size. Task ids are kept where they are free, and a re-run of an
+ * interrupted import skips what already made it in.
+ */
+public class TaskDataTransfer {
+    private static final String LOG_TAG = "TaskDataTransfer";
+    private static final boolean DEBUG_LOGGING = Log.isLoggable(LOG_TAG, Log.DEBUG);
+    public static final int DEFAULT_CHUNK_SIZE = 1_000;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    public enum Format {
+        BINARY,
+        JSON
+    }
+
+    private final TaskDatabaseManager databaseManager;
+    private final int chunkSize;
+
+    public TaskDataTransfer(TaskDatabaseManager databaseManager) {
+        this(databaseManager, DEFAULT_CHUNK_SIZE);
+    }
+
+    TaskDataTransfer(TaskDatabaseManager databaseManager, int chunkSize) {
+        this.databaseManager = databaseManager;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Writes every task to target, replacing it only once the export is complete. Returns
+     * the number of tasks written.
+     */
+    public int exportTasks(File target, Format format, boolean compress) throws IOException {
+        File partialTarget = new File(target.getPath() + ".part");
+        boolean exported = false;
+        
+        try {
+            int exportedCount;
+            try (FileChannel channel = FileChannel.open(partialTarget.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                exportedCount = exportTasks(Channels.newOutputStream(channel), format, compress);
+                channel.force(false);
+            }
+            Files.move(partialTarget.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+            exported = true;
+            
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Exported " + exportedCount + " tasks to " + target);
+            }
+            return exportedCount;
+        } finally {
+            if (!exported) {
+                Files.deleteIfExists(partialTarget.toPath());
+            }
+        }
+    }
+
+    /** Writes every task to output, then closes it. */
+    public int exportTasks(OutputStream output, Format format, boolean compress) throws IOException {
+        OutputStream stream = compress
+            ? new BufferedOutputStream(new GZIPOutputStream(output, STREAM_BUFFER_SIZE), STREAM_BUFFER_SIZE)
+            : new BufferedOutputStream(output, STREAM_BUFFER_SIZE);
+        int exportedCount = 0;
+        
+        try (TaskRecordWriter recordWriter = format == Format.BINARY
+                ? new TaskBinaryRecords.Writer(stream) : new TaskJsonRecords.Writer(stream)) {
+            int lastTaskId = 0;
+            while (true) {
+                List<TaskItem> taskChunk = databaseManager.retrieveTaskChunkAfter(lastTaskId, chunkSize);
+                if (taskChunk == null) {
+                    throw new IOException("Could not read tasks after id " + lastTaskId);
+                }
+                
+                for (int i = 0; i < taskChunk.size(); i++) {
+                    recordWriter.writeTask(taskChunk.get(i));
+                }
+                exportedCount += taskChunk.size();
+                
+                if (taskChunk.size() < chunkSize) {
+                    break;
+                }
+                lastTaskId = taskChunk.get(taskChunk.size() - 1).getId();
+            }
+            recordWriter.finish();
+        }
+        
+        return exportedCount;
+    }
+
+    /**
+     * Reads an export of either format, compressed or not, and inserts its tasks. A task whose
+     * id holds a different task is inserted under a fresh id; only tasks already stored exactly
+     * as exported are skipped. Returns the number of tasks added; on failure, chunks
+     * committed before it stay in the table.
+     */
+    public int importTasks(File source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            int importedCount = importTasks(Channels.newInputStream(channel));
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Imported " + importedCount + " tasks from " + source);
+            }
+            return importedCount;
+        }
+    }
+
+    /** Reads an export from input, then closes it. */
+    public int importTasks(InputStream input) throws IOException {
+        InputStream stream = new BufferedInputStream(input, STREAM_BUFFER_SIZE);
+        if (readLittleEndianShort(stream) == GZIP_MAGIC) {
+            stream = new BufferedInputStream(new GZIPInputStream(stream, STREAM_BUFFER_SIZE), STREAM_BUFFER_SIZE);
+        }
+        
+        List<TaskItem> taskChunk = new ArrayList<>(chunkSize);
+        int importedCount = 0;
+        
+        try (TaskRecordReader recordReader = startsWithBinaryMagic(stream)
+                ? new TaskBinaryRecords.Reader(stream) : new TaskJsonRecords.Reader(stream)) {
+            TaskItem taskItem;
+            while ((taskItem = recordReader.readTask()) != null) {
+                taskChunk.add(taskItem);
+                if (taskChunk.size() == chunkSize) {
+                    importedCount += insertChunk(taskChunk, importedCount);
+                }
+            }
+            importedCount += insertChunk(taskChunk, importedCount);
+        }
+        
+        return importedCount;
+    }
+
+    private int insertChunk(List<TaskItem> taskChunk, int importedSoFar) throws IOException {
+        if (taskChunk.isEmpty()) {
+            return 0;
+        }
+        int insertedCount = databaseManager.insertTasksKeepingIds(taskChunk);
+        if (insertedCount < 0) {
+            throw new IOException("Import stopped after " + importedSoFar + " tasks: database write failed");
+        }
+        taskChunk.clear();
+        return insertedCount;
+    }
+
+    private static int readLittleEndianShort(InputStream stream) throws IOException {
+        stream.mark(2);
+        int firstByte = stream.read();
+        int secondByte = stream.read();
+        stream.reset();
+        return firstByte | (secondByte << 8);
+    }
+
+    private static boolean startsWithBinaryMagic(InputStream stream) throws IOException {
+        stream.mark(1);
+        int firstByte = stream.read();
+        stream.reset();
+        return firstByte == TaskBinaryRecords.MAGIC >>> 24;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.todolist;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.os.CancellationSignal;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Online backup and verified restore of the task database. A backup runs VACUUM INTO on a
+ * connection of its own, which SQLite serves from a read snapshot: the copy is
+ * transactionally consistent, and the app's connection keeps writing to the WAL meanwhile.
+ */
+public class TaskDatabaseBackup {
+    private static final String LOG_TAG = "TaskDatabaseBackup";
+    private static final long PROGRESS_INTERVAL_MILLIS = 100;
+    private static final int MAX_REPORTED_PROBLEMS = 10;
+
+    public interface ProgressListener {
+        /** Estimated percent done, 0 to 100, called on a background thread. */
+        void onProgress(int percent);
+    }
+
+    private final TaskDatabaseManager databaseManager;
+
+    public TaskDatabaseBackup(TaskDatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+    }
+
+    /**
+     * Writes a consistent copy of the database to target, replacing it only once the copy is
+     * complete and synced. Blocks until done, so call it off the main thread. Throws
+     * OperationCanceledException when cancellationSignal fires; target is then left as it was.
+     */
+    public long backup(File target, CancellationSignal cancellationSignal,
+                       ProgressListener progressListener) throws IOException {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        File databaseFile = databaseManager.getDatabaseFile();
+        File partialTarget = new File(target.getPath() + ".part");
+        // VACUUM INTO refuses to overwrite a non-empty file.
+        Files.deleteIfExists(partialTarget.toPath());
+        
+        SQLiteDatabase snapshotConnection = null;
+        ScheduledExecutorService progressPoller = null;
+        boolean backedUp = false;
+        try {
+            snapshotConnection = SQLiteDatabase.openDatabase(databaseFile.getPath(), null,
+                SQLiteDatabase.OPEN_READWRITE | SQLiteDatabase.ENABLE_WRITE_AHEAD_LOGGING);
+            if (progressListener != null) {
+                progressPoller = startProgressPolling(partialTarget, estimateBackupBytes(snapshotConnection),
+                    progressListener);
+            }
+            
+            // rawQuery rather than execSQL, so the statement can be interrupted by the signal.
+            try (Cursor cursor = snapshotConnection.rawQuery("VACUUM INTO ?",
+                    new String[]{partialTarget.getPath()}, cancellationSignal)) {
+                cursor.getCount();
+            }
+            try (FileChannel channel = FileChannel.open(partialTarget.toPath(), StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(partialTarget.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+            backedUp = true;
+        } catch (SQLiteException e) {
+            throw new IOException("Backup failed: " + e.getMessage(), e);
+        } finally {
+            if (progressPoller != null) {
+                progressPoller.shutdownNow();
+            }
+            if (snapshotConnection != null) {
+                snapshotConnection.close();
+            }
+            if (!backedUp) {
+                Files.deleteIfExists(partialTarget.toPath());
+            }
+            databaseManager.getMetrics().record(TaskDatabaseMetrics.Operation.BACKUP,
+                SystemClock.elapsedRealtimeNanos() - startNanos, 0);
+        }
+        
+        if (progressListener != null) {
+            progressListener.onProgress(100);
+        }
+        if (Log.isLoggable(LOG_TAG, Log.DEBUG)) {
+            Log.d(LOG_TAG, "Database backed up to " + target + " (" + target.length() + " bytes)");
+        }
+        return target.length();
+    }
+
+    /**
+     * Replaces the database with a backup. The backup is copied beside the live file and
+     * checked with PRAGMA integrity_check first, so a damaged or foreign file leaves the
+     * current data untouched. The swap closes the shared connection, so run it with no other
+     * writes, reads or maintenance in flight and no cursor left open on it; TaskRepository
+     * runs it on its writer thread after draining its readers and maintenance.
+     */
+    public void restore(File backup, CancellationSignal cancellationSignal) throws IOException {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        File databaseFile = databaseManager.getDatabaseFile();
+        File restoreCopy = new File(databaseFile.getPath() + ".restore");
+        boolean restored = false;
+        
+        try {
+            throwIfCanceled(cancellationSignal);
+            Files.copy(backup.toPath(), restoreCopy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            verifyBackup(restoreCopy, cancellationSignal);
+            throwIfCanceled(cancellationSignal);
+            databaseManager.replaceDatabaseFile(restoreCopy);
+            restored = true;
+            if (Log.isLoggable(LOG_TAG, Log.DEBUG)) {
+                Log.d(LOG_TAG, "Database restored from " + backup);
+            }
+        } finally {
+            if (!restored) {
+                SQLiteDatabase.deleteDatabase(restoreCopy);
+            } else {
+                Files.deleteIfExists(new File(restoreCopy.getPath() + "-journal").toPath());
+            }
+            databaseManager.getMetrics().record(TaskDatabaseMetrics.Operation.RESTORE,
+                SystemClock.elapsedRealtimeNanos() - startNanos, 0);
+        }
+    }
+
+    /**
+     * Opened on the copy rather than the backup itself: Android deletes a database file it
+     * finds corrupt on open.
+     */
+    private static void verifyBackup(File restoreCopy, CancellationSignal cancellationSignal) throws IOException {
+        SQLiteDatabase backupConnection = null;
+        try {
+            backupConnection = SQLiteDatabase.openDatabase(restoreCopy.getPath(), null,
+                SQLiteDatabase.OPEN_READWRITE);
+            
+            List<String> problems = new ArrayList<>();
+            try (Cursor cursor = backupConnection.rawQuery(
+                    "PRAGMA integrity_check(" + MAX_REPORTED_PROBLEMS + ")", null, cancellationSignal)) {
+                while (cursor.moveToNext()) {
+                    problems.add(cursor.getString(0));
+                }
+            }
+            if (problems.size() != 1 || !"ok".equals(problems.get(0))) {
+                throw new IOException("Backup failed integrity check: " + problems);
+            }
+            
+            int schemaVersion = backupConnection.getVersion();
+            if (schemaVersion < 1 || schemaVersion > TaskDatabaseManager.DATABASE_VERSION) {
+                throw new IOException("Backup has unsupported schema version " + schemaVersion);
+            }
+        } catch (SQLiteException e) {
+            throw new IOException("Backup is not a readable database: " + e.getMessage(), e);
+        } finally {
+            if (backupConnection != null) {
+                backupConnection.close();
+            }
+        }
+    }
+
+    /** VACUUM INTO writes only the pages in use, so free pages are left out of the estimate. */
+    private static long estimateBackupBytes(SQLiteDatabase database) {
+        return (readPragma(database, "page_count") - readPragma(database, "freelist_count"))
+            * readPragma(database, "page_size");
+    }
+
+    private static long readPragma(SQLiteDatabase database, String pragma) {
+        try (Cursor cursor = database.rawQuery("PRAGMA " + pragma, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    private static ScheduledExecutorService startProgressPolling(File partialTarget, long expectedBytes,
+                                                                 ProgressListener progressListener) {
+        ScheduledExecutorService progressPoller = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "task-db-backup-progress"));
+        progressPoller.scheduleAtFixedRate(() -> {
+            long writtenBytes = partialTarget.length();
+            // Held below 100 until the copy is synced and in place.
+            int percent = expectedBytes > 0 ? (int) Math.min(99, writtenBytes * 100 / expectedBytes) : 0;
+            progressListener.onProgress(percent);
+        }, 0, PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        return progressPoller;
+    }
+
+    private static void throwIfCanceled(CancellationSignal cancellationSignal) {
+        if (cancellationSignal != null) {
+            cancellationSignal.throwIfCanceled();
+        }
+    }
+}
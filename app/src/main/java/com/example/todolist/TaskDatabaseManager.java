@@ -1,19 +1,34 @@
 package com.example.todolist;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteQueryBuilder;
+import android.database.sqlite.SQLiteStatement;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.os.SystemClock;
 import android.util.Log;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TaskDatabaseManager extends SQLiteOpenHelper {
     private static final String DATABASE_NAME = "personal_task_manager.db";
-    private static final int DATABASE_VERSION = 2;
+    static final int DATABASE_VERSION = 6;
     private static final String LOG_TAG = "TaskDatabaseManager";
+    // Read once; enable with "adb shell setprop log.tag.TaskDatabaseManager DEBUG" and restart.
+    private static final boolean DEBUG_LOGGING = Log.isLoggable(LOG_TAG, Log.DEBUG);
 
     private static final String TASK_TABLE_NAME = "task_items";
     private static final String COLUMN_TASK_ID = "task_id";
@@ -21,10 +36,128 @@ public class TaskDatabaseManager extends SQLiteOpenHelper {
     private static final String COLUMN_IS_FINISHED = "is_finished";
     private static final String COLUMN_CREATION_TIME = "creation_timestamp";
     private static final String COLUMN_LAST_MODIFIED = "last_modified_timestamp";
+    private static final String COLUMN_NORMALIZED_DESCRIPTION = "normalized_description";
+
+    private static final String SEARCH_TABLE_NAME = "task_items_fts";
+    private static final String STATS_TABLE_NAME = "task_stats";
+    private static final String DAILY_STATS_TABLE_NAME = "task_daily_stats";
+    private static final String COLUMN_STATS_ID = "stats_id";
+    private static final String COLUMN_TOTAL_COUNT = "total_count";
+    private static final String COLUMN_COMPLETED_COUNT = "completed_count";
+    private static final String COLUMN_CREATED_COUNT = "created_count";
+    private static final String COLUMN_STATS_DAY = "day";
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+    private static final String INDEX_CREATION_ORDER = "idx_task_items_creation";
+    private static final String INDEX_FINISHED_BY_CREATION = "idx_task_items_finished_creation";
+    private static final String INDEX_FINISHED_BY_MODIFIED = "idx_task_items_finished_modified";
+    private static final String INDEX_NORMALIZED_DESCRIPTION = "idx_task_items_normalized";
+
+    private static final String[] TASK_LIST_COLUMNS = {
+        COLUMN_TASK_ID, COLUMN_DESCRIPTION, COLUMN_IS_FINISHED, COLUMN_CREATION_TIME, COLUMN_LAST_MODIFIED
+    };
+    private static final String TASK_PAGE_ORDER = COLUMN_CREATION_TIME + " DESC, " + COLUMN_TASK_ID + " DESC";
+    private static final String TASK_PAGE_AFTER_KEY =
+            "(" + COLUMN_CREATION_TIME + ", " + COLUMN_TASK_ID + ") < (?, ?)";
+    private static final String FINISHED_FILTER = COLUMN_IS_FINISHED + "=?";
+    private static final String TASK_CHUNK_AFTER_ID = COLUMN_TASK_ID + " > ?";
+    private static final String TASK_ID_ORDER = COLUMN_TASK_ID + " ASC";
+    private static final String COMPLETED_TASK_ORDER = COLUMN_LAST_MODIFIED + " DESC";
+    private static final String PENDING_TASK_ORDER = COLUMN_CREATION_TIME + " DESC";
+
+    private static final String TASK_STATS_QUERY = "SELECT " + COLUMN_TOTAL_COUNT + ", " +
+            COLUMN_COMPLETED_COUNT + " FROM " + STATS_TABLE_NAME + " WHERE " + COLUMN_STATS_ID + " = 0";
+    private static final String DAILY_STATS_QUERY = "SELECT " + COLUMN_STATS_DAY + ", " +
+            COLUMN_CREATED_COUNT + ", " + COLUMN_COMPLETED_COUNT + " FROM " + DAILY_STATS_TABLE_NAME +
+            " ORDER BY " + COLUMN_STATS_DAY + " DESC LIMIT ?";
+    private static final String DESCRIPTION_EXISTS_QUERY = "SELECT EXISTS(SELECT 1 FROM " + TASK_TABLE_NAME +
+            " WHERE " + COLUMN_NORMALIZED_DESCRIPTION + " = ?)";
+    // Ranking reads only what scoring needs; rows and snippets are fetched for the winners alone.
+    private static final String SEARCH_MATCHES_QUERY = "SELECT " + SEARCH_TABLE_NAME + ".docid, " +
+            "matchinfo(" + SEARCH_TABLE_NAME + ", '" + TaskSearchQuery.MATCHINFO_FORMAT + "') AS search_match_info, " +
+            TASK_TABLE_NAME + "." + COLUMN_CREATION_TIME + " " +
+            "FROM " + SEARCH_TABLE_NAME + " JOIN " + TASK_TABLE_NAME +
+            " ON " + TASK_TABLE_NAME + "." + COLUMN_TASK_ID + " = " + SEARCH_TABLE_NAME + ".docid " +
+            "WHERE " + SEARCH_TABLE_NAME + " MATCH ?";
+    private static final String SEARCH_RESULT_ROWS_QUERY = "SELECT " + TASK_TABLE_NAME + ".*, " +
+            "snippet(" + SEARCH_TABLE_NAME + ", ?, ?, ?, -1, 12) AS search_snippet " +
+            "FROM " + SEARCH_TABLE_NAME + " JOIN " + TASK_TABLE_NAME +
+            " ON " + TASK_TABLE_NAME + "." + COLUMN_TASK_ID + " = " + SEARCH_TABLE_NAME + ".docid " +
+            "WHERE " + SEARCH_TABLE_NAME + " MATCH ? AND " + SEARCH_TABLE_NAME + ".docid IN ";
+    // Stays well under SQLite's limit of 999 bound parameters per statement.
+    private static final int SEARCH_RESULT_ROWS_PER_QUERY = 500;
+
+    private static final String INSERT_TASK_STATEMENT = "INSERT INTO " + TASK_TABLE_NAME + " (" +
+            COLUMN_DESCRIPTION + ", " + COLUMN_IS_FINISHED + ", " +
+            COLUMN_CREATION_TIME + ", " + COLUMN_LAST_MODIFIED + ", " +
+            COLUMN_NORMALIZED_DESCRIPTION + ") VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_TASK_WITH_ID_STATEMENT = "INSERT OR IGNORE INTO " + TASK_TABLE_NAME + " (" +
+            COLUMN_TASK_ID + ", " + COLUMN_DESCRIPTION + ", " + COLUMN_IS_FINISHED + ", " +
+            COLUMN_CREATION_TIME + ", " + COLUMN_LAST_MODIFIED + ", " +
+            COLUMN_NORMALIZED_DESCRIPTION + ") VALUES (?, ?, ?, ?, ?, ?)";
+    // An import row already stored, under any id, exactly as the file has it.
+    private static final String IMPORTED_TASK_EXISTS_QUERY = "SELECT EXISTS(SELECT 1 FROM " + TASK_TABLE_NAME +
+            " WHERE " + COLUMN_CREATION_TIME + " = ? AND " + COLUMN_DESCRIPTION + " = ? AND " +
+            COLUMN_IS_FINISHED + " = ? AND " + COLUMN_LAST_MODIFIED + " = ?)";
+    private static final String UPDATE_TASK_STATEMENT = "UPDATE " + TASK_TABLE_NAME + " SET " +
+            COLUMN_DESCRIPTION + " = ?, " + COLUMN_IS_FINISHED + " = ?, " +
+            COLUMN_LAST_MODIFIED + " = ?, " + COLUMN_NORMALIZED_DESCRIPTION + " = ? " +
+            "WHERE " + COLUMN_TASK_ID + " = ?";
+    // Leaves a row changed after the toggle alone.
+    private static final String UPDATE_COMPLETION_STATEMENT = "UPDATE " + TASK_TABLE_NAME + " SET " +
+            COLUMN_IS_FINISHED + " = ?, " + COLUMN_LAST_MODIFIED + " = ? " +
+            "WHERE " + COLUMN_TASK_ID + " = ? AND " + COLUMN_LAST_MODIFIED + " <= ?";
+    private static final String DELETE_TASK_STATEMENT = "DELETE FROM " + TASK_TABLE_NAME +
+            " WHERE " + COLUMN_TASK_ID + " = ?";
+
+    public enum ConnectionMode {
+        PER_OPERATION,
+        PERSISTENT
+    }
+
+    private static TaskDatabaseManager sharedInstance;
+
+    private final ConnectionMode connectionMode;
+    // A statement's monitor is always taken before the connection: batches lock their
+    // statements first and only then begin the transaction, as single-row writes do.
+    private final Map<String, SQLiteStatement> compiledStatements = new HashMap<>();
+    private final Object statisticsLock = new Object();
+    private final TaskDatabaseMetrics databaseMetrics = new TaskDatabaseMetrics();
+    private SQLiteDatabase openDatabase;
+    // {total, completed} as last read from task_stats; null after a write until read again.
+    private volatile int[] statisticsSnapshot;
+    private long statisticsVersion;
+
+    public static synchronized TaskDatabaseManager getInstance(Context context) {
+        if (sharedInstance == null) {
+            sharedInstance = new TaskDatabaseManager(context.getApplicationContext());
+        }
+        return sharedInstance;
+    }
 
     public TaskDatabaseManager(Context context) {
+        this(context, DATABASE_NAME, ConnectionMode.PERSISTENT);
+    }
+
+    TaskDatabaseManager(Context context, String databaseName, ConnectionMode connectionMode) {
+        super(context, databaseName, null, DATABASE_VERSION);
+        this.connectionMode = connectionMode;
+        setWriteAheadLoggingEnabled(true);
+    }
 
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    public ConnectionMode getConnectionMode() {
+        return connectionMode;
+    }
+
+    public TaskDatabaseMetrics getMetrics() {
+        return databaseMetrics;
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase database) {
+        // Only takes effect on a new, empty file; older files are converted by
+        // TaskMaintenanceScheduler.
+        database.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
     }
 
     @Override
@@ -34,11 +167,17 @@ public class TaskDatabaseManager extends SQLiteOpenHelper {
                 COLUMN_DESCRIPTION + " TEXT NOT NULL, " +
                 COLUMN_IS_FINISHED + " INTEGER DEFAULT 0, " +
                 COLUMN_CREATION_TIME + " INTEGER NOT NULL, " +
-                COLUMN_LAST_MODIFIED + " INTEGER NOT NULL)";
+                COLUMN_LAST_MODIFIED + " INTEGER NOT NULL, " +
+                COLUMN_NORMALIZED_DESCRIPTION + " TEXT)";
         
         try {
             database.execSQL(createTableQuery);
-            Log.d(LOG_TAG, "Database table created successfully");
+            createTaskIndexes(database);
+            createSearchIndex(database);
+            createStatisticsTables(database);
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Database table created successfully");
+            }
         } catch (Exception e) {
             Log.e(LOG_TAG, "Error creating database table: " + e.getMessage());
         }
@@ -46,337 +185,1269 @@ public class TaskDatabaseManager extends SQLiteOpenHelper {
 
     @Override
     public void onUpgrade(SQLiteDatabase database, int oldVersion, int newVersion) {
-        Log.d(LOG_TAG, "Upgrading database from version " + oldVersion + " to " + newVersion);
+        if (DEBUG_LOGGING) {
+            Log.d(LOG_TAG, "Upgrading database from version " + oldVersion + " to " + newVersion);
+        }
         
         try {
-            database.execSQL("DROP TABLE IF EXISTS " + TASK_TABLE_NAME);
-            onCreate(database);
-        } catch (Exception e) {
+            new TaskMigrationEngine(TaskSchemaMigrations.all()).migrate(database, oldVersion, newVersion);
+        } catch (RuntimeException e) {
+            // Rethrow so SQLiteOpenHelper rolls back the step in progress instead of
+            // stamping the new version onto a half-migrated schema.
             Log.e(LOG_TAG, "Error upgrading database: " + e.getMessage());
+            throw e;
         }
     }
 
+    private void createTaskIndexes(SQLiteDatabase database) {
+        database.execSQL("CREATE INDEX IF NOT EXISTS " + INDEX_CREATION_ORDER + " ON " +
+                TASK_TABLE_NAME + " (" + COLUMN_CREATION_TIME + ", " + COLUMN_TASK_ID + ")");
+        database.execSQL("CREATE INDEX IF NOT EXISTS " + INDEX_FINISHED_BY_CREATION + " ON " +
+                TASK_TABLE_NAME + " (" + COLUMN_IS_FINISHED + ", " + COLUMN_CREATION_TIME + ")");
+        database.execSQL("CREATE INDEX IF NOT EXISTS " + INDEX_FINISHED_BY_MODIFIED + " ON " +
+                TASK_TABLE_NAME + " (" + COLUMN_IS_FINISHED + ", " + COLUMN_LAST_MODIFIED + ")");
+        database.execSQL("CREATE INDEX IF NOT EXISTS " + INDEX_NORMALIZED_DESCRIPTION + " ON " +
+                TASK_TABLE_NAME + " (" + COLUMN_NORMALIZED_DESCRIPTION + ")");
+    }
+
     public long insertTask(TaskItem taskItem) {
-        SQLiteDatabase database = null;
+        long startNanos = SystemClock.elapsedRealtimeNanos();
         long insertedRowId = -1;
         
         try {
-            database = this.getWritableDatabase();
-            ContentValues contentValues = new ContentValues();
+            SQLiteStatement insertStatement = obtainStatement(INSERT_TASK_STATEMENT);
             
-            contentValues.put(COLUMN_DESCRIPTION, taskItem.getDescription());
-            contentValues.put(COLUMN_IS_FINISHED, taskItem.isFinished() ? 1 : 0);
-            contentValues.put(COLUMN_CREATION_TIME, taskItem.getCreationTimestamp());
-            contentValues.put(COLUMN_LAST_MODIFIED, taskItem.getLastModifiedTimestamp());
-            
-            insertedRowId = database.insert(TASK_TABLE_NAME, null, contentValues);
+            synchronized (insertStatement) {
+                insertStatement.bindString(1, taskItem.getDescription());
+                insertStatement.bindLong(2, taskItem.isFinished() ? 1 : 0);
+                insertStatement.bindLong(3, taskItem.getCreationTimestamp());
+                insertStatement.bindLong(4, taskItem.getLastModifiedTimestamp());
+                insertStatement.bindString(5, TaskValidationUtils.normalizeForDuplicateCheck(taskItem.getDescription()));
+                insertedRowId = insertStatement.executeInsert();
+                insertStatement.clearBindings();
+            }
             
             if (insertedRowId != -1) {
                 taskItem.setId((int) insertedRowId);
-                Log.d(LOG_TAG, "Task inserted successfully with ID: " + insertedRowId);
+                if (DEBUG_LOGGING) {
+                    Log.d(LOG_TAG, "Task inserted successfully with ID: " + insertedRowId);
+                }
             }
         } catch (Exception e) {
             Log.e(LOG_TAG, "Error inserting task: " + e.getMessage());
         } finally {
-            if (database != null) {
-                database.close();
-            }
+            releaseDatabase();
+            invalidateStatistics();
+            recordOperation(TaskDatabaseMetrics.Operation.INSERT, startNanos,
+                insertedRowId != -1 ? 1 : 0, INSERT_TASK_STATEMENT);
         }
         
         return insertedRowId;
     }
 
+    /** Returns how many rows were added, or -1 if the transaction failed and nothing was written. */
+    public int insertTasks(List<TaskItem> taskItems) {
+        int insertedCount = 0;
+        
+        if (taskItems == null || taskItems.isEmpty()) {
+            return insertedCount;
+        }
+        
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        SQLiteDatabase database = null;
+        try {
+            database = obtainDatabase();
+            SQLiteStatement insertStatement = obtainStatement(INSERT_TASK_STATEMENT);
+            
+            long[] insertedRowIds = new long[taskItems.size()];
+            synchronized (insertStatement) {
+                database.beginTransaction();
+                for (TaskItem taskItem : taskItems) {
+                    insertStatement.bindString(1, taskItem.getDescription());
+                    insertStatement.bindLong(2, taskItem.isFinished() ? 1 : 0);
+                    insertStatement.bindLong(3, taskItem.getCreationTimestamp());
+                    insertStatement.bindLong(4, taskItem.getLastModifiedTimestamp());
+                    insertStatement.bindString(5,
+                        TaskValidationUtils.normalizeForDuplicateCheck(taskItem.getDescription()));
+                    
+                    long insertedRowId = insertStatement.executeInsert();
+                    if (insertedRowId == -1) {
+                        throw new IllegalStateException("Insert failed for task: " + taskItem.getDescription());
+                    }
+                    insertedRowIds[insertedCount++] = insertedRowId;
+                }
+                insertStatement.clearBindings();
+            }
+            database.setTransactionSuccessful();
+            database.endTransaction();
+            
+            // Ids are handed out only once the rows are committed; a rollback leaves the items as they were.
+            for (int i = 0; i < insertedRowIds.length; i++) {
+                taskItems.get(i).setId((int) insertedRowIds[i]);
+            }
+            
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Batch inserted " + insertedCount + " tasks");
+            }
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Error batch inserting tasks: " + e.getMessage());
+            insertedCount = -1;
+        } finally {
+            endTransactionAndRelease(database);
+            invalidateStatistics();
+            recordOperation(TaskDatabaseMetrics.Operation.INSERT_BATCH, startNanos, insertedCount,
+                INSERT_TASK_STATEMENT);
+        }
+        
+        return insertedCount;
+    }
+
+    /**
+     * Inserts tasks under the ids they already carry, in one transaction. A task stored exactly
+     * as given is skipped, so an interrupted import can simply be run again; a task whose id
+     * holds something else is added under a fresh id, which it is given once the transaction
+     * commits. Returns how many rows were added, or -1 if the transaction failed and nothing
+     * was written.
+     */
+    public int insertTasksKeepingIds(List<TaskItem> taskItems) {
+        int insertedCount = 0;
+        
+        if (taskItems == null || taskItems.isEmpty()) {
+            return insertedCount;
+        }
+        
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        SQLiteDatabase database = null;
+        try {
+            database = obtainDatabase();
+            SQLiteStatement insertStatement = obtainStatement(INSERT_TASK_WITH_ID_STATEMENT);
+            SQLiteStatement existsStatement = obtainStatement(IMPORTED_TASK_EXISTS_QUERY);
+            SQLiteStatement insertWithNewIdStatement = obtainStatement(INSERT_TASK_STATEMENT);
+            
+            List<TaskItem> reassignedTasks = new ArrayList<>();
+            long[] reassignedRowIds = new long[taskItems.size()];
+            synchronized (insertStatement) {
+                synchronized (existsStatement) {
+                    synchronized (insertWithNewIdStatement) {
+                        database.beginTransaction();
+                        for (TaskItem taskItem : taskItems) {
+                            String normalizedDescription =
+                                TaskValidationUtils.normalizeForDuplicateCheck(taskItem.getDescription());
+                            insertStatement.bindLong(1, taskItem.getId());
+                            insertStatement.bindString(2, taskItem.getDescription());
+                            insertStatement.bindLong(3, taskItem.isFinished() ? 1 : 0);
+                            insertStatement.bindLong(4, taskItem.getCreationTimestamp());
+                            insertStatement.bindLong(5, taskItem.getLastModifiedTimestamp());
+                            insertStatement.bindString(6, normalizedDescription);
+                            
+                            // OR IGNORE reports a taken id as -1.
+                            if (insertStatement.executeInsert() != -1) {
+                                insertedCount++;
+                                continue;
+                            }
+                            
+                            existsStatement.bindLong(1, taskItem.getCreationTimestamp());
+                            existsStatement.bindString(2, taskItem.getDescription());
+                            existsStatement.bindLong(3, taskItem.isFinished() ? 1 : 0);
+                            existsStatement.bindLong(4, taskItem.getLastModifiedTimestamp());
+                            if (existsStatement.simpleQueryForLong() == 1) {
+                                continue;
+                            }
+                            
+                            insertWithNewIdStatement.bindString(1, taskItem.getDescription());
+                            insertWithNewIdStatement.bindLong(2, taskItem.isFinished() ? 1 : 0);
+                            insertWithNewIdStatement.bindLong(3, taskItem.getCreationTimestamp());
+                            insertWithNewIdStatement.bindLong(4, taskItem.getLastModifiedTimestamp());
+                            insertWithNewIdStatement.bindString(5, normalizedDescription);
+                            long insertedRowId = insertWithNewIdStatement.executeInsert();
+                            if (insertedRowId == -1) {
+                                throw new IllegalStateException("Insert failed for task: " + taskItem.getDescription());
+                            }
+                            reassignedRowIds[reassignedTasks.size()] = insertedRowId;
+                            reassignedTasks.add(taskItem);
+                            insertedCount++;
+                        }
+                        insertWithNewIdStatement.clearBindings();
+                    }
+                    existsStatement.clearBindings();
+                }
+                insertStatement.clearBindings();
+            }
+            database.setTransactionSuccessful();
+            database.endTransaction();
+            
+            for (int i = 0; i < reassignedTasks.size(); i++) {
+                reassignedTasks.get(i).setId((int) reassignedRowIds[i]);
+            }
+            
+            if (!reassignedTasks.isEmpty()) {
+                Log.w(LOG_TAG, "Imported " + reassignedTasks.size() + " tasks under new ids; their ids held other tasks");
+            }
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Inserted " + insertedCount + " of " + taskItems.size() + " tasks keeping their ids");
+            }
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Error inserting tasks with ids: " + e.getMessage());
+            insertedCount = -1;
+        } finally {
+            endTransactionAndRelease(database);
+            invalidateStatistics();
+            recordOperation(TaskDatabaseMetrics.Operation.INSERT_KEEPING_IDS, startNanos, insertedCount,
+                INSERT_TASK_WITH_ID_STATEMENT);
+        }
+        
+        return insertedCount;
+    }
+
     public List<TaskItem> retrieveAllTasks() {
-        return retrieveTasksWithFilter(null, null, COLUMN_CREATION_TIME + " DESC");
+        return retrieveTasksWithFilter(TaskDatabaseMetrics.Operation.RETRIEVE_ALL, null, null, TASK_PAGE_ORDER);
+    }
+
+    public List<TaskItem> retrieveFirstTaskPage(int pageSize) {
+        return retrieveTasksWithFilter(TaskDatabaseMetrics.Operation.RETRIEVE_FIRST_PAGE,
+            null, null, TASK_PAGE_ORDER, String.valueOf(pageSize));
+    }
+
+    public List<TaskItem> retrieveTaskPageAfter(long creationTimestamp, int taskId, int pageSize) {
+        return retrieveTasksWithFilter(
+            TaskDatabaseMetrics.Operation.RETRIEVE_PAGE_AFTER,
+            TASK_PAGE_AFTER_KEY,
+            new String[]{String.valueOf(creationTimestamp), String.valueOf(taskId)},
+            TASK_PAGE_ORDER,
+            String.valueOf(pageSize)
+        );
+    }
+    
+    /**
+     * The page starting offset rows into the keyset order, for a jump deep into the list
+     * where no earlier page's end key is known. SQLite steps over the skipped rows in the
+     * index, so pages after it are read with retrieveTaskPageAfter instead.
+     */
+    public List<TaskItem> retrieveTaskPageAt(int offset, int pageSize) {
+        return retrieveTasksWithFilter(TaskDatabaseMetrics.Operation.RETRIEVE_PAGE_AT,
+            null, null, TASK_PAGE_ORDER, offset + "," + pageSize);
     }
     
     public List<TaskItem> retrieveCompletedTasks() {
         return retrieveTasksWithFilter(
-            COLUMN_IS_FINISHED + "=?", 
+            TaskDatabaseMetrics.Operation.RETRIEVE_COMPLETED,
+            FINISHED_FILTER, 
             new String[]{"1"}, 
-            COLUMN_LAST_MODIFIED + " DESC"
+            COMPLETED_TASK_ORDER
         );
     }
     
     public List<TaskItem> retrievePendingTasks() {
         return retrieveTasksWithFilter(
-            COLUMN_IS_FINISHED + "=?", 
+            TaskDatabaseMetrics.Operation.RETRIEVE_PENDING,
+            FINISHED_FILTER, 
             new String[]{"0"}, 
-            COLUMN_CREATION_TIME + " DESC"
+            PENDING_TASK_ORDER
         );
     }
     
-    private List<TaskItem> retrieveTasksWithFilter(String whereClause, String[] whereArgs, String orderBy) {
+    /**
+     * Opens task_items in list order for TaskCursorList. The row count is taken here, which
+     * runs the query and fills the first window, so call it off the main thread. Returns
+     * null in PER_OPERATION mode, where the connection would close under the open cursor.
+     */
+    public TaskCursorList openTaskCursorList() {
+        if (connectionMode == ConnectionMode.PER_OPERATION) {
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Cursor-backed list needs a persistent connection");
+            }
+            return null;
+        }
+        
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        Cursor cursor = null;
+        try {
+            cursor = obtainDatabase().query(TASK_TABLE_NAME, TASK_LIST_COLUMNS,
+                null, null, null, null, TASK_PAGE_ORDER);
+            TaskCursorList cursorList = new TaskCursorList(cursor, new TaskRowReader(cursor));
+            recordOperation(TaskDatabaseMetrics.Operation.OPEN_CURSOR, startNanos, cursorList.size(),
+                buildTaskQuery(null, TASK_PAGE_ORDER, null));
+            
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Opened cursor over " + cursorList.size() + " tasks");
+            }
+            return cursorList;
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Error opening task cursor: " + e.getMessage());
+            if (cursor != null) {
+                cursor.close();
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * Up to chunkSize tasks with ids above afterTaskId, in id order and exactly as stored;
+     * start from 0. Walking the primary key keeps every chunk as cheap as the first.
+     */
+    public List<TaskItem> retrieveTaskChunkAfter(int afterTaskId, int chunkSize) {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        List<TaskItem> taskChunk = new ArrayList<>(chunkSize);
+        Cursor cursor = null;
+        
+        try {
+            cursor = obtainDatabase().query(TASK_TABLE_NAME, TASK_LIST_COLUMNS,
+                TASK_CHUNK_AFTER_ID, new String[]{String.valueOf(afterTaskId)},
+                null, null, TASK_ID_ORDER, String.valueOf(chunkSize));
+            
+            TaskRowReader rowReader = new TaskRowReader(cursor);
+            while (cursor.moveToNext()) {
+                taskChunk.add(rowReader.readStoredTaskItem(cursor));
+            }
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Error retrieving task chunk: " + e.getMessage());
+            taskChunk = null;
+        } finally {
+            closeDatabaseResources(cursor);
+            int rowCount = taskChunk != null ? taskChunk.size() : 0;
+            long elapsedNanos = SystemClock.elapsedRealtimeNanos() - startNanos;
+            if (databaseMetrics.record(TaskDatabaseMetrics.Operation.RETRIEVE_CHUNK, elapsedNanos, rowCount)) {
+                logSlowQuery(TaskDatabaseMetrics.Operation.RETRIEVE_CHUNK,
+                    buildTaskQuery(TASK_CHUNK_AFTER_ID, TASK_ID_ORDER, String.valueOf(chunkSize)),
+                    elapsedNanos, rowCount);
+            }
+        }
+        
+        return taskChunk;
+    }
+    
+    private List<TaskItem> retrieveTasksWithFilter(TaskDatabaseMetrics.Operation operation, String whereClause,
+                                                   String[] whereArgs, String orderBy) {
+        return retrieveTasksWithFilter(operation, whereClause, whereArgs, orderBy, null);
+    }
+    
+    private List<TaskItem> retrieveTasksWithFilter(TaskDatabaseMetrics.Operation operation, String whereClause,
+                                                   String[] whereArgs, String orderBy, String limit) {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
         List<TaskItem> taskItemsList = new ArrayList<>();
-        SQLiteDatabase database = null;
         Cursor cursor = null;
         
         try {
-            database = this.getReadableDatabase();
-            cursor = database.query(
+            cursor = obtainDatabase().query(
                 TASK_TABLE_NAME,
                 null,
                 whereClause,
                 whereArgs,
                 null,
                 null,
-                orderBy
+                orderBy,
+                limit
             );
 
             if (cursor != null && cursor.moveToFirst()) {
+                TaskRowReader rowReader = new TaskRowReader(cursor);
                 do {
-                    TaskItem taskItem = createTaskItemFromCursor(cursor);
+                    TaskItem taskItem = rowReader.readTaskItem(cursor);
                     if (taskItem != null) {
                         taskItemsList.add(taskItem);
                     }
                 } while (cursor.moveToNext());
             }
             
-            String filterDesc = whereClause != null ? " with filter" : "";
-            Log.d(LOG_TAG, "Retrieved " + taskItemsList.size() + " tasks" + filterDesc);
+            if (DEBUG_LOGGING) {
+                String filterDesc = whereClause != null ? " with filter" : "";
+                Log.d(LOG_TAG, "Retrieved " + taskItemsList.size() + " tasks" + filterDesc);
+            }
         } catch (Exception e) {
             Log.e(LOG_TAG, "Error retrieving filtered tasks: " + e.getMessage());
         } finally {
-            closeDatabaseResources(cursor, database);
+            closeDatabaseResources(cursor);
+            long elapsedNanos = SystemClock.elapsedRealtimeNanos() - startNanos;
+            // The SQL is only built for the slow-query log.
+            if (databaseMetrics.record(operation, elapsedNanos, taskItemsList.size())) {
+                logSlowQuery(operation, buildTaskQuery(whereClause, orderBy, limit), elapsedNanos,
+                    taskItemsList.size());
+            }
         }
         
         return taskItemsList;
     }
 
     public boolean modifyTask(TaskItem taskItem) {
-        SQLiteDatabase database = null;
+        long startNanos = SystemClock.elapsedRealtimeNanos();
         int affectedRows = 0;
         
         try {
-            database = this.getWritableDatabase();
-            ContentValues contentValues = new ContentValues();
+            SQLiteStatement updateStatement = obtainStatement(UPDATE_TASK_STATEMENT);
             
-            contentValues.put(COLUMN_DESCRIPTION, taskItem.getDescription());
-            contentValues.put(COLUMN_IS_FINISHED, taskItem.isFinished() ? 1 : 0);
-            contentValues.put(COLUMN_LAST_MODIFIED, System.currentTimeMillis());
-            
-            affectedRows = database.update(
-                TASK_TABLE_NAME,
-                contentValues,
-                COLUMN_TASK_ID + "=?",
-                new String[]{String.valueOf(taskItem.getId())}
-            );
+            synchronized (updateStatement) {
+                updateStatement.bindString(1, taskItem.getDescription());
+                updateStatement.bindLong(2, taskItem.isFinished() ? 1 : 0);
+                updateStatement.bindLong(3, System.currentTimeMillis());
+                updateStatement.bindString(4, TaskValidationUtils.normalizeForDuplicateCheck(taskItem.getDescription()));
+                updateStatement.bindLong(5, taskItem.getId());
+                affectedRows = updateStatement.executeUpdateDelete();
+                updateStatement.clearBindings();
+            }
             
-            Log.d(LOG_TAG, "Task modification affected " + affectedRows + " rows");
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Task modification affected " + affectedRows + " rows");
+            }
         } catch (Exception e) {
             Log.e(LOG_TAG, "Error modifying task: " + e.getMessage());
         } finally {
-            if (database != null) {
-                database.close();
-            }
+            releaseDatabase();
+            invalidateStatistics();
+            recordOperation(TaskDatabaseMetrics.Operation.MODIFY, startNanos, affectedRows, UPDATE_TASK_STATEMENT);
         }
         
         return affectedRows > 0;
     }
 
     public boolean removeTask(int taskId) {
-        SQLiteDatabase database = null;
+        long startNanos = SystemClock.elapsedRealtimeNanos();
         int deletedRows = 0;
         
         try {
-            database = this.getWritableDatabase();
-            deletedRows = database.delete(
-                TASK_TABLE_NAME,
-                COLUMN_TASK_ID + "=?",
-                new String[]{String.valueOf(taskId)}
-            );
+            SQLiteStatement deleteStatement = obtainStatement(DELETE_TASK_STATEMENT);
+            
+            synchronized (deleteStatement) {
+                deleteStatement.bindLong(1, taskId);
+                deletedRows = deleteStatement.executeUpdateDelete();
+                deleteStatement.clearBindings();
+            }
             
-            Log.d(LOG_TAG, "Task removal affected " + deletedRows + " rows");
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Task removal affected " + deletedRows + " rows");
+            }
         } catch (Exception e) {
             Log.e(LOG_TAG, "Error removing task: " + e.getMessage());
         } finally {
-            if (database != null) {
-                database.close();
-            }
+            releaseDatabase();
+            invalidateStatistics();
+            recordOperation(TaskDatabaseMetrics.Operation.REMOVE, startNanos, deletedRows, DELETE_TASK_STATEMENT);
         }
         
         return deletedRows > 0;
     }
 
+    /** Returns how many rows were changed, or -1 if the transaction failed and nothing was written. */
+    public int modifyTasks(List<TaskItem> taskItems) {
+        int affectedRows = 0;
+        
+        if (taskItems == null || taskItems.isEmpty()) {
+            return affectedRows;
+        }
+        
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        SQLiteDatabase database = null;
+        try {
+            database = obtainDatabase();
+            SQLiteStatement updateStatement = obtainStatement(UPDATE_TASK_STATEMENT);
+            long modificationTime = System.currentTimeMillis();
+            
+            synchronized (updateStatement) {
+                database.beginTransaction();
+                for (TaskItem taskItem : taskItems) {
+                    updateStatement.bindString(1, taskItem.getDescription());
+                    updateStatement.bindLong(2, taskItem.isFinished() ? 1 : 0);
+                    updateStatement.bindLong(3, modificationTime);
+                    updateStatement.bindString(4,
+                        TaskValidationUtils.normalizeForDuplicateCheck(taskItem.getDescription()));
+                    updateStatement.bindLong(5, taskItem.getId());
+                    affectedRows += updateStatement.executeUpdateDelete();
+                }
+                updateStatement.clearBindings();
+            }
+            database.setTransactionSuccessful();
+            database.endTransaction();
+            
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Batch modification affected " + affectedRows + " rows");
+            }
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Error batch modifying tasks: " + e.getMessage());
+            affectedRows = -1;
+        } finally {
+            endTransactionAndRelease(database);
+            invalidateStatistics();
+            recordOperation(TaskDatabaseMetrics.Operation.MODIFY_BATCH, startNanos, affectedRows, UPDATE_TASK_STATEMENT);
+        }
+        
+        return affectedRows;
+    }
+
+    /**
+     * Sets is_finished[i] on taskIds[i], in one transaction, leaving descriptions as they
+     * are. Returns how many rows were changed, or -1 if the transaction failed and nothing
+     * was written.
+     */
+    public int modifyTaskCompletions(int[] taskIds, boolean[] finished) {
+        long[] toggledAt = new long[taskIds != null ? taskIds.length : 0];
+        Arrays.fill(toggledAt, System.currentTimeMillis());
+        return modifyTaskCompletions(taskIds, finished, toggledAt);
+    }
+    
+    /**
+     * Sets each task's completion as toggled at toggledAt, which also becomes its modification
+     * time. A task modified after its toggle is skipped, so a toggle written late never undoes
+     * a newer change; neither it nor a missing task is counted.
+     */
+    public int modifyTaskCompletions(int[] taskIds, boolean[] finished, long[] toggledAt) {
+        int affectedRows = 0;
+        
+        if (taskIds == null || taskIds.length == 0) {
+            return affectedRows;
+        }
+        
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        SQLiteDatabase database = null;
+        try {
+            database = obtainDatabase();
+            SQLiteStatement updateStatement = obtainStatement(UPDATE_COMPLETION_STATEMENT);
+            
+            synchronized (updateStatement) {
+                database.beginTransaction();
+                for (int i = 0; i < taskIds.length; i++) {
+                    updateStatement.bindLong(1, finished[i] ? 1 : 0);
+                    updateStatement.bindLong(2, toggledAt[i]);
+                    updateStatement.bindLong(3, taskIds[i]);
+                    updateStatement.bindLong(4, toggledAt[i]);
+                    affectedRows += updateStatement.executeUpdateDelete();
+                }
+                updateStatement.clearBindings();
+            }
+            database.setTransactionSuccessful();
+            database.endTransaction();
+            
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Completion update affected " + affectedRows + " rows");
+            }
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Error updating task completions: " + e.getMessage());
+            affectedRows = -1;
+        } finally {
+            endTransactionAndRelease(database);
+            invalidateStatistics();
+            recordOperation(TaskDatabaseMetrics.Operation.MODIFY_COMPLETIONS, startNanos, affectedRows,
+                UPDATE_COMPLETION_STATEMENT);
+        }
+        
+        return affectedRows;
+    }
+    
+    /** Returns how many rows were deleted, or -1 if the transaction failed and nothing was written. */
+    public int removeTasks(int[] taskIds) {
+        int deletedRows = 0;
+        
+        if (taskIds == null || taskIds.length == 0) {
+            return deletedRows;
+        }
+        
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        SQLiteDatabase database = null;
+        try {
+            database = obtainDatabase();
+            SQLiteStatement deleteStatement = obtainStatement(DELETE_TASK_STATEMENT);
+            
+            synchronized (deleteStatement) {
+                database.beginTransaction();
+                for (int taskId : taskIds) {
+                    deleteStatement.bindLong(1, taskId);
+                    deletedRows += deleteStatement.executeUpdateDelete();
+                }
+                deleteStatement.clearBindings();
+            }
+            database.setTransactionSuccessful();
+            database.endTransaction();
+            
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Batch removal affected " + deletedRows + " rows");
+            }
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Error batch removing tasks: " + e.getMessage());
+            deletedRows = -1;
+        } finally {
+            endTransactionAndRelease(database);
+            invalidateStatistics();
+            recordOperation(TaskDatabaseMetrics.Operation.REMOVE_BATCH, startNanos, deletedRows, DELETE_TASK_STATEMENT);
+        }
+        
+        return deletedRows;
+    }
+
     public int getTaskCount() {
-        return executeCountQuery("SELECT COUNT(*) FROM " + TASK_TABLE_NAME);
+        return readTaskStatistics()[0];
     }
     
     public int getCompletedTaskCount() {
-        return executeCountQuery("SELECT COUNT(*) FROM " + TASK_TABLE_NAME + 
-                                " WHERE " + COLUMN_IS_FINISHED + " = 1");
+        return readTaskStatistics()[1];
     }
     
     public int getPendingTaskCount() {
-        return executeCountQuery("SELECT COUNT(*) FROM " + TASK_TABLE_NAME + 
-                                " WHERE " + COLUMN_IS_FINISHED + " = 0");
+        int[] counts = readTaskStatistics();
+        return counts[0] - counts[1];
+    }
+
+    /** {total, completed} from one consistent read. */
+    public int[] getTaskCounts() {
+        return readTaskStatistics().clone();
+    }
+
+    /** Counters plus the per-day histogram for the most recent maxDays days with tasks. */
+    public TaskStatistics loadTaskStatistics(int maxDays) {
+        int[] counts = readTaskStatistics();
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        List<long[]> dailyRows = new ArrayList<>();
+        Cursor cursor = null;
+        
+        try {
+            cursor = obtainDatabase().rawQuery(DAILY_STATS_QUERY, new String[]{String.valueOf(maxDays)});
+            while (cursor.moveToNext()) {
+                dailyRows.add(new long[]{cursor.getLong(0), cursor.getLong(1), cursor.getLong(2)});
+            }
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Error loading daily statistics: " + e.getMessage());
+        } finally {
+            closeDatabaseResources(cursor);
+            recordOperation(TaskDatabaseMetrics.Operation.LOAD_STATISTICS, startNanos, dailyRows.size(), DAILY_STATS_QUERY);
+        }
+        
+        return new TaskStatistics(counts[0], counts[1], dailyRows);
+    }
+
+    /**
+     * {total, completed} from the in-memory mirror of task_stats. After a write the mirror is
+     * empty until the next read fetches the single stats row again.
+     */
+    private int[] readTaskStatistics() {
+        int[] snapshot = statisticsSnapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        
+        long versionBeforeRead;
+        synchronized (statisticsLock) {
+            versionBeforeRead = statisticsVersion;
+        }
+        
+        snapshot = queryTaskStatistics();
+        if (snapshot == null) {
+            return new int[]{0, 0};
+        }
+        synchronized (statisticsLock) {
+            // A write that landed during the query may not be in it; leave the mirror empty.
+            if (versionBeforeRead == statisticsVersion) {
+                statisticsSnapshot = snapshot;
+            }
+        }
+        return snapshot;
     }
     
-    private int executeCountQuery(String query) {
-        SQLiteDatabase database = null;
+    private int[] queryTaskStatistics() {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        int[] counts = null;
         Cursor cursor = null;
-        int count = 0;
         
         try {
-            database = this.getReadableDatabase();
-            cursor = database.rawQuery(query, null);
+            cursor = obtainDatabase().rawQuery(TASK_STATS_QUERY, null);
+            if (cursor.moveToFirst()) {
+                counts = new int[]{cursor.getInt(0), cursor.getInt(1)};
+            } else {
+                Log.e(LOG_TAG, "Statistics row is missing");
+            }
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Error reading task statistics: " + e.getMessage());
+        } finally {
+            closeDatabaseResources(cursor);
+            recordOperation(TaskDatabaseMetrics.Operation.COUNT, startNanos, counts != null ? 1 : 0, TASK_STATS_QUERY);
+        }
+        return counts;
+    }
+    
+    private void invalidateStatistics() {
+        synchronized (statisticsLock) {
+            statisticsVersion++;
+            statisticsSnapshot = null;
+        }
+    }
+    
+    public boolean hasTaskWithDescription(String description) {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        boolean descriptionExists = false;
+        
+        try {
+            SQLiteStatement existsStatement = obtainStatement(DESCRIPTION_EXISTS_QUERY);
             
-            if (cursor != null && cursor.moveToFirst()) {
-                count = cursor.getInt(0);
+            synchronized (existsStatement) {
+                existsStatement.bindString(1, TaskValidationUtils.normalizeForDuplicateCheck(description));
+                descriptionExists = existsStatement.simpleQueryForLong() == 1;
+                existsStatement.clearBindings();
             }
-            Log.d(LOG_TAG, "Count query result: " + count);
         } catch (Exception e) {
-            Log.e(LOG_TAG, "Error executing count query: " + e.getMessage());
+            Log.e(LOG_TAG, "Error checking for duplicate task: " + e.getMessage());
         } finally {
-            closeDatabaseResources(cursor, database);
+            releaseDatabase();
+            recordOperation(TaskDatabaseMetrics.Operation.DESCRIPTION_EXISTS, startNanos, descriptionExists ? 1 : 0,
+                DESCRIPTION_EXISTS_QUERY);
         }
         
-        return count;
+        return descriptionExists;
     }
     
     public List<TaskItem> searchTasksByDescription(String searchTerm) {
-        List<TaskItem> searchResults = new ArrayList<>();
-        SQLiteDatabase database = null;
+        List<TaskSearchResult> rankedResults = searchTasksRanked(searchTerm, Integer.MAX_VALUE);
+        List<TaskItem> searchResults = new ArrayList<>(rankedResults.size());
+        
+        for (TaskSearchResult rankedResult : rankedResults) {
+            searchResults.add(rankedResult.getTaskItem());
+        }
+        return searchResults;
+    }
+    
+    public List<TaskSearchResult> searchTasksRanked(String searchTerm, int maxResults) {
+        return searchTasksRanked(searchTerm, maxResults, null);
+    }
+    
+    /** Throws OperationCanceledException if the signal fires while the query is running. */
+    public List<TaskSearchResult> searchTasksRanked(String searchTerm, int maxResults,
+                                                    CancellationSignal cancellationSignal) {
+        List<TaskSearchResult> searchResults = new ArrayList<>();
+        String matchQuery = TaskSearchQuery.toPrefixMatchQuery(searchTerm);
         Cursor cursor = null;
         
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+        if (matchQuery == null || maxResults <= 0) {
             return searchResults;
         }
         
+        long startNanos = SystemClock.elapsedRealtimeNanos();
         try {
-            database = this.getReadableDatabase();
-            String searchQuery = "SELECT * FROM " + TASK_TABLE_NAME + 
-                               " WHERE " + COLUMN_DESCRIPTION + " LIKE ? " +
-                               " ORDER BY " + COLUMN_CREATION_TIME + " DESC";
-            
-            cursor = database.rawQuery(searchQuery, new String[]{"%" + searchTerm.trim() + "%"});
+            TaskSearchTopMatches topMatches = new TaskSearchTopMatches(maxResults);
+            cursor = obtainDatabase().rawQuery(SEARCH_MATCHES_QUERY, new String[]{matchQuery}, cancellationSignal);
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    topMatches.offer(cursor.getInt(0), TaskSearchQuery.scoreMatchInfo(cursor.getBlob(1)),
+                        cursor.getLong(2));
+                }
+                cursor.close();
+                cursor = null;
+            }
             
-            if (cursor != null && cursor.moveToFirst()) {
-                do {
-                    TaskItem taskItem = createTaskItemFromCursor(cursor);
-                    if (taskItem != null) {
-                        searchResults.add(taskItem);
-                    }
-                } while (cursor.moveToNext());
+            topMatches.sortBestFirst();
+            for (int first = 0; first < topMatches.size(); first += SEARCH_RESULT_ROWS_PER_QUERY) {
+                int last = Math.min(first + SEARCH_RESULT_ROWS_PER_QUERY, topMatches.size());
+                readSearchResultRows(matchQuery, topMatches, first, last, cancellationSignal, searchResults);
             }
             
-            Log.d(LOG_TAG, "Search found " + searchResults.size() + " tasks for term: " + searchTerm);
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Search found " + searchResults.size() + " tasks for term: " + searchTerm);
+            }
+        } catch (OperationCanceledException e) {
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Search cancelled for term: " + searchTerm);
+            }
+            throw e;
         } catch (Exception e) {
             Log.e(LOG_TAG, "Error searching tasks: " + e.getMessage());
         } finally {
-            closeDatabaseResources(cursor, database);
+            closeDatabaseResources(cursor);
+            recordOperation(TaskDatabaseMetrics.Operation.SEARCH, startNanos, searchResults.size(), SEARCH_MATCHES_QUERY);
         }
         
         return searchResults;
     }
     
+    /**
+     * Appends the rows and snippets of topMatches[first, last) to searchResults, best first.
+     * A task removed since it was ranked is left out.
+     */
+    private void readSearchResultRows(String matchQuery, TaskSearchTopMatches topMatches, int first, int last,
+                                      CancellationSignal cancellationSignal, List<TaskSearchResult> searchResults) {
+        StringBuilder rowsQuery = new StringBuilder(SEARCH_RESULT_ROWS_QUERY).append('(');
+        String[] queryArgs = new String[4 + last - first];
+        queryArgs[0] = TaskSearchResult.SNIPPET_MATCH_START;
+        queryArgs[1] = TaskSearchResult.SNIPPET_MATCH_END;
+        queryArgs[2] = TaskSearchResult.SNIPPET_ELLIPSIS;
+        queryArgs[3] = matchQuery;
+        Map<Integer, TaskItem> tasksById = new HashMap<>();
+        Map<Integer, String> snippetsById = new HashMap<>();
+        for (int i = first; i < last; i++) {
+            rowsQuery.append(i == first ? "?" : ", ?");
+            queryArgs[4 + i - first] = String.valueOf(topMatches.getTaskId(i));
+        }
+        rowsQuery.append(')');
+        
+        try (Cursor cursor = obtainDatabase().rawQuery(rowsQuery.toString(), queryArgs, cancellationSignal)) {
+            int snippetColumn = cursor.getColumnIndexOrThrow("search_snippet");
+            TaskRowReader rowReader = new TaskRowReader(cursor);
+            while (cursor.moveToNext()) {
+                TaskItem taskItem = rowReader.readTaskItem(cursor);
+                if (taskItem != null) {
+                    tasksById.put(taskItem.getId(), taskItem);
+                    snippetsById.put(taskItem.getId(), cursor.getString(snippetColumn));
+                }
+            }
+        }
+        
+        for (int i = first; i < last; i++) {
+            TaskItem taskItem = tasksById.get(topMatches.getTaskId(i));
+            if (taskItem != null) {
+                searchResults.add(new TaskSearchResult(taskItem, snippetsById.get(taskItem.getId()),
+                    topMatches.getRelevance(i)));
+            }
+        }
+    }
+    
     public boolean clearAllCompletedTasks() {
-        SQLiteDatabase database = null;
+        long startNanos = SystemClock.elapsedRealtimeNanos();
         int deletedRows = 0;
         
         try {
-            database = this.getWritableDatabase();
-            deletedRows = database.delete(
+            deletedRows = obtainDatabase().delete(
                 TASK_TABLE_NAME,
-                COLUMN_IS_FINISHED + "=?",
+                FINISHED_FILTER,
                 new String[]{"1"}
             );
             
-            Log.d(LOG_TAG, "Cleared " + deletedRows + " completed tasks");
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Cleared " + deletedRows + " completed tasks");
+            }
         } catch (Exception e) {
             Log.e(LOG_TAG, "Error clearing completed tasks: " + e.getMessage());
         } finally {
-            if (database != null) {
-                database.close();
-            }
+            releaseDatabase();
+            invalidateStatistics();
+            recordOperation(TaskDatabaseMetrics.Operation.CLEAR_COMPLETED, startNanos, deletedRows, null);
         }
         
         return deletedRows > 0;
     }
     
-    private void closeDatabaseResources(Cursor cursor, SQLiteDatabase database) {
+    private void closeDatabaseResources(Cursor cursor) {
         if (cursor != null) {
             cursor.close();
         }
-        if (database != null) {
-            database.close();
+        releaseDatabase();
+    }
+
+    private void createSearchIndex(SQLiteDatabase database) {
+        database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + SEARCH_TABLE_NAME + " USING fts4(" +
+                "content=\"" + TASK_TABLE_NAME + "\", " + COLUMN_DESCRIPTION + ", tokenize=unicode61)");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS task_items_fts_after_insert AFTER INSERT ON " +
+                TASK_TABLE_NAME + " BEGIN INSERT INTO " + SEARCH_TABLE_NAME + " (docid, " + COLUMN_DESCRIPTION +
+                ") VALUES (new." + COLUMN_TASK_ID + ", new." + COLUMN_DESCRIPTION + "); END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS task_items_fts_before_update BEFORE UPDATE OF " +
+                COLUMN_DESCRIPTION + " ON " + TASK_TABLE_NAME + " WHEN old." + COLUMN_DESCRIPTION +
+                " IS NOT new." + COLUMN_DESCRIPTION + " BEGIN DELETE FROM " + SEARCH_TABLE_NAME +
+                " WHERE docid = old." + COLUMN_TASK_ID + "; END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS task_items_fts_after_update AFTER UPDATE OF " +
+                COLUMN_DESCRIPTION + " ON " + TASK_TABLE_NAME + " WHEN old." + COLUMN_DESCRIPTION +
+                " IS NOT new." + COLUMN_DESCRIPTION + " BEGIN INSERT INTO " + SEARCH_TABLE_NAME +
+                " (docid, " + COLUMN_DESCRIPTION + ") VALUES (new." + COLUMN_TASK_ID + ", new." +
+                COLUMN_DESCRIPTION + "); END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS task_items_fts_before_delete BEFORE DELETE ON " +
+                TASK_TABLE_NAME + " BEGIN DELETE FROM " + SEARCH_TABLE_NAME +
+                " WHERE docid = old." + COLUMN_TASK_ID + "; END");
+    }
+
+    private void createStatisticsTables(SQLiteDatabase database) {
+        database.execSQL("CREATE TABLE IF NOT EXISTS " + STATS_TABLE_NAME + " (" +
+                COLUMN_STATS_ID + " INTEGER PRIMARY KEY CHECK (" + COLUMN_STATS_ID + " = 0), " +
+                COLUMN_TOTAL_COUNT + " INTEGER NOT NULL, " +
+                COLUMN_COMPLETED_COUNT + " INTEGER NOT NULL)");
+        database.execSQL("CREATE TABLE IF NOT EXISTS " + DAILY_STATS_TABLE_NAME + " (" +
+                COLUMN_STATS_DAY + " INTEGER PRIMARY KEY, " +
+                COLUMN_CREATED_COUNT + " INTEGER NOT NULL, " +
+                COLUMN_COMPLETED_COUNT + " INTEGER NOT NULL)");
+        database.execSQL("INSERT OR IGNORE INTO " + STATS_TABLE_NAME + " VALUES (0, 0, 0)");
+
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS task_stats_after_insert AFTER INSERT ON " +
+                TASK_TABLE_NAME + " BEGIN " +
+                adjustStatistics("1", finishedFlag("new")) +
+                adjustDailyStatistics("new", "1", finishedFlag("new")) +
+                "END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS task_stats_after_delete AFTER DELETE ON " +
+                TASK_TABLE_NAME + " BEGIN " +
+                adjustStatistics("-1", "-" + finishedFlag("old")) +
+                adjustDailyStatistics("old", "-1", "-" + finishedFlag("old")) +
+                "END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS task_stats_after_update AFTER UPDATE OF " +
+                COLUMN_IS_FINISHED + ", " + COLUMN_CREATION_TIME + " ON " + TASK_TABLE_NAME +
+                " WHEN old." + COLUMN_IS_FINISHED + " IS NOT new." + COLUMN_IS_FINISHED +
+                " OR old." + COLUMN_CREATION_TIME + " IS NOT new." + COLUMN_CREATION_TIME + " BEGIN " +
+                adjustStatistics("0", finishedFlag("new") + " - " + finishedFlag("old")) +
+                adjustDailyStatistics("old", "-1", "-" + finishedFlag("old")) +
+                adjustDailyStatistics("new", "1", finishedFlag("new")) +
+                "END");
+    }
+
+    private static String finishedFlag(String row) {
+        return "(CASE WHEN " + row + "." + COLUMN_IS_FINISHED + " = 1 THEN 1 ELSE 0 END)";
+    }
+
+    private static String adjustStatistics(String totalDelta, String completedDelta) {
+        return "UPDATE " + STATS_TABLE_NAME + " SET " +
+                COLUMN_TOTAL_COUNT + " = " + COLUMN_TOTAL_COUNT + " + " + totalDelta + ", " +
+                COLUMN_COMPLETED_COUNT + " = " + COLUMN_COMPLETED_COUNT + " + " + completedDelta +
+                " WHERE " + COLUMN_STATS_ID + " = 0; ";
+    }
+
+    /** Days are UTC, keyed by the task's creation day, so every change can be reversed exactly. */
+    private static String adjustDailyStatistics(String row, String createdDelta, String completedDelta) {
+        String day = row + "." + COLUMN_CREATION_TIME + " / " + MILLIS_PER_DAY;
+        return "INSERT OR IGNORE INTO " + DAILY_STATS_TABLE_NAME + " VALUES (" + day + ", 0, 0); " +
+                "UPDATE " + DAILY_STATS_TABLE_NAME + " SET " +
+                COLUMN_CREATED_COUNT + " = " + COLUMN_CREATED_COUNT + " + " + createdDelta + ", " +
+                COLUMN_COMPLETED_COUNT + " = " + COLUMN_COMPLETED_COUNT + " + " + completedDelta +
+                " WHERE " + COLUMN_STATS_DAY + " = " + day + "; " +
+                "DELETE FROM " + DAILY_STATS_TABLE_NAME + " WHERE " + COLUMN_STATS_DAY + " = " + day +
+                " AND " + COLUMN_CREATED_COUNT + " = 0; ";
+    }
+
+    static Map<String, String> getQueryPlanProbes() {
+        Map<String, String> probes = new LinkedHashMap<>();
+        probes.put("retrieveAllTasks", buildTaskQuery(null, TASK_PAGE_ORDER, null));
+        probes.put("retrieveFirstTaskPage", buildTaskQuery(null, TASK_PAGE_ORDER, "50"));
+        probes.put("retrieveTaskPageAfter", buildTaskQuery(TASK_PAGE_AFTER_KEY, TASK_PAGE_ORDER, "50"));
+        probes.put("retrieveTaskPageAt", buildTaskQuery(null, TASK_PAGE_ORDER, "1000,50"));
+        probes.put("retrieveCompletedTasks", buildTaskQuery(FINISHED_FILTER, COMPLETED_TASK_ORDER, null));
+        probes.put("retrievePendingTasks", buildTaskQuery(FINISHED_FILTER, PENDING_TASK_ORDER, null));
+        probes.put("retrieveTaskChunkAfter", buildTaskQuery(TASK_CHUNK_AFTER_ID, TASK_ID_ORDER, "1000"));
+        probes.put("readTaskStatistics", TASK_STATS_QUERY);
+        probes.put("loadTaskStatistics", DAILY_STATS_QUERY);
+        probes.put("hasTaskWithDescription", DESCRIPTION_EXISTS_QUERY);
+        probes.put("insertTasksKeepingIds", IMPORTED_TASK_EXISTS_QUERY);
+        probes.put("searchTasksRanked", SEARCH_MATCHES_QUERY);
+        probes.put("searchTasksRankedRows", SEARCH_RESULT_ROWS_QUERY + "(?, ?)");
+        probes.put("modifyTask", UPDATE_TASK_STATEMENT);
+        probes.put("modifyTaskCompletions", UPDATE_COMPLETION_STATEMENT);
+        probes.put("removeTask", DELETE_TASK_STATEMENT);
+        probes.put("clearAllCompletedTasks", "DELETE FROM " + TASK_TABLE_NAME + " WHERE " + FINISHED_FILTER);
+        return probes;
+    }
+
+    private static String buildTaskQuery(String whereClause, String orderBy, String limit) {
+        return SQLiteQueryBuilder.buildQueryString(
+            false, TASK_TABLE_NAME, null, whereClause, null, null, orderBy, limit);
+    }
+
+    private void recordOperation(TaskDatabaseMetrics.Operation operation, long startNanos, int rowCount,
+                                 String sql) {
+        long elapsedNanos = SystemClock.elapsedRealtimeNanos() - startNanos;
+        if (databaseMetrics.record(operation, elapsedNanos, rowCount) && sql != null) {
+            logSlowQuery(operation, sql, elapsedNanos, rowCount);
+        }
+    }
+
+    private void logSlowQuery(TaskDatabaseMetrics.Operation operation, String sql, long elapsedNanos,
+                              int rowCount) {
+        Log.w(LOG_TAG, "Slow " + operation + ": " + (elapsedNanos / 1_000_000) + " ms for " +
+            rowCount + " rows");
+        databaseMetrics.logSlowQuery(operation, sql, elapsedNanos, rowCount, explainForSlowQueryLog(sql));
+    }
+
+    private List<String> explainForSlowQueryLog(String sql) {
+        try {
+            return explainQueryPlan(sql);
+        } catch (Exception e) {
+            return Collections.singletonList("plan unavailable: " + e.getMessage());
         }
     }
 
-    private TaskItem createTaskItemFromCursor(Cursor cursor) {
+    List<String> explainQueryPlan(String sql) {
+        List<String> planDetails = new ArrayList<>();
+        Cursor cursor = null;
+        
         try {
+            cursor = obtainDatabase().rawQuery("EXPLAIN QUERY PLAN " + sql, null);
+            int detailColumn = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                planDetails.add(cursor.getString(detailColumn));
+            }
+        } finally {
+            closeDatabaseResources(cursor);
+        }
+        
+        return planDetails;
+    }
+
+    private void endTransactionAndRelease(SQLiteDatabase database) {
+        if (database != null && database.inTransaction()) {
+            database.endTransaction();
+        }
+        releaseDatabase();
+    }
+
+    private synchronized SQLiteDatabase obtainDatabase() {
+        if (openDatabase == null || !openDatabase.isOpen()) {
+            closeCompiledStatements();
+            openDatabase = getWritableDatabase();
+        }
+        return openDatabase;
+    }
+
+    private synchronized SQLiteStatement obtainStatement(String sql) {
+        SQLiteDatabase database = obtainDatabase();
+        SQLiteStatement statement = compiledStatements.get(sql);
+        
+        if (statement == null) {
+            statement = database.compileStatement(sql);
+            compiledStatements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    private synchronized void releaseDatabase() {
+        if (connectionMode == ConnectionMode.PER_OPERATION) {
+            closeConnection();
+        }
+    }
+
+    private synchronized void closeCompiledStatements() {
+        for (SQLiteStatement statement : compiledStatements.values()) {
+            statement.close();
+        }
+        compiledStatements.clear();
+    }
+
+    private synchronized void closeConnection() {
+        closeCompiledStatements();
+        if (openDatabase != null) {
+            openDatabase.close();
+            openDatabase = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeConnection();
+        super.close();
+        if (DEBUG_LOGGING) {
+            Log.d(LOG_TAG, "Database connection closed");
+        }
+    }
+
+    /**
+     * Reads task rows from a task_items cursor. Column indices are resolved once, when the
+     * reader is created, instead of once per column per row.
+     */
+    static final class TaskRowReader {
+        private final int taskIdColumn;
+        private final int descriptionColumn;
+        private final int finishedColumn;
+        private final int creationTimeColumn;
+        private final int lastModifiedColumn;
+
+        TaskRowReader(Cursor cursor) {
             validateCursorColumns(cursor);
-            
-            int taskId = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_TASK_ID));
-            String description = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_DESCRIPTION));
-            boolean isFinished = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_IS_FINISHED)) == 1;
-            long creationTime = cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_CREATION_TIME));
-            
-            if (description == null || description.trim().isEmpty()) {
-                Log.w(LOG_TAG, "Found task with empty description, ID: " + taskId);
+            taskIdColumn = cursor.getColumnIndex(COLUMN_TASK_ID);
+            descriptionColumn = cursor.getColumnIndex(COLUMN_DESCRIPTION);
+            finishedColumn = cursor.getColumnIndex(COLUMN_IS_FINISHED);
+            creationTimeColumn = cursor.getColumnIndex(COLUMN_CREATION_TIME);
+            lastModifiedColumn = cursor.getColumnIndex(COLUMN_LAST_MODIFIED);
+        }
+
+        /** Builds the task at the cursor's current row, or null for a blank or unreadable row. */
+        TaskItem readTaskItem(Cursor cursor) {
+            try {
+                int taskId = cursor.getInt(taskIdColumn);
+                String description = cursor.getString(descriptionColumn);
+                
+                // Descriptions are sanitized before they are written, so trim() rarely copies.
+                String trimmedDescription = description != null ? description.trim() : "";
+                if (trimmedDescription.isEmpty()) {
+                    Log.w(LOG_TAG, "Found task with empty description, ID: " + taskId);
+                    return null;
+                }
+                
+                TaskItem taskItem = new TaskItem(taskId, trimmedDescription,
+                    cursor.getInt(finishedColumn) == 1, cursor.getLong(creationTimeColumn));
+                
+                if (lastModifiedColumn != -1) {
+                    long lastModified = cursor.getLong(lastModifiedColumn);
+                    if (lastModified > 0) {
+                        taskItem.setLastModifiedTimestamp(lastModified);
+                    }
+                }
+                
+                return taskItem;
+            } catch (Exception e) {
+                Log.e(LOG_TAG, "Error creating TaskItem from cursor: " + e.getMessage());
                 return null;
             }
+        }
+
+        /** The row exactly as stored, without the trimming and blank-row skipping above. */
+        TaskItem readStoredTaskItem(Cursor cursor) {
+            TaskItem taskItem = new TaskItem(cursor.getInt(taskIdColumn), cursor.getString(descriptionColumn),
+                cursor.getInt(finishedColumn) == 1, cursor.getLong(creationTimeColumn));
+            taskItem.setLastModifiedTimestamp(lastModifiedColumn != -1 ? cursor.getLong(lastModifiedColumn) : 0);
+            return taskItem;
+        }
+
+        private static void validateCursorColumns(Cursor cursor) throws IllegalStateException {
+            String[] requiredColumns = {
+                COLUMN_TASK_ID, COLUMN_DESCRIPTION, 
+                COLUMN_IS_FINISHED, COLUMN_CREATION_TIME
+            };
             
-            TaskItem taskItem = new TaskItem(taskId, description.trim(), isFinished, creationTime);
-            
-            long lastModified = cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_LAST_MODIFIED));
-            if (lastModified > 0) {
-                taskItem.setCreationTimestamp(creationTime);
+            for (String column : requiredColumns) {
+                if (cursor.getColumnIndex(column) == -1) {
+                    throw new IllegalStateException("Missing required column: " + column);
+                }
             }
-            
-            return taskItem;
-        } catch (Exception e) {
-            Log.e(LOG_TAG, "Error creating TaskItem from cursor: " + e.getMessage());
-            return null;
         }
     }
     
-    private void validateCursorColumns(Cursor cursor) throws IllegalStateException {
-        String[] requiredColumns = {
-            COLUMN_TASK_ID, COLUMN_DESCRIPTION, 
-            COLUMN_IS_FINISHED, COLUMN_CREATION_TIME
-        };
-        
-        for (String column : requiredColumns) {
-            if (cursor.getColumnIndex(column) == -1) {
-                throw new IllegalStateException("Missing required column: " + column);
+    /**
+     * Lets SQLite refresh the statistics its planner relies on, for tables whose use has
+     * changed; usually a no-op. TaskMaintenanceScheduler runs it when the app is idle.
+     */
+    public void optimizeDatabase() {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        try {
+            obtainDatabase().execSQL("PRAGMA optimize");
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Database optimization completed");
             }
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Error optimizing database: " + e.getMessage());
+        } finally {
+            releaseDatabase();
+            recordOperation(TaskDatabaseMetrics.Operation.OPTIMIZE, startNanos, 0, null);
         }
     }
     
-    public void optimizeDatabase() {
-        SQLiteDatabase database = null;
+    boolean isIncrementalAutoVacuumEnabled() {
         try {
-            database = this.getWritableDatabase();
+            return queryPragma(obtainDatabase(), "auto_vacuum") == AUTO_VACUUM_INCREMENTAL;
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Error reading auto_vacuum mode: " + e.getMessage());
+            return false;
+        } finally {
+            releaseDatabase();
+        }
+    }
+    
+    /**
+     * Switches a file created before incremental auto-vacuum to it. That takes one full
+     * VACUUM, so it is done once. Returns the pages released.
+     */
+    int convertToIncrementalAutoVacuum() {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        int pagesReleased = 0;
+        try {
+            SQLiteDatabase database = obtainDatabase();
+            long pagesBefore = queryPragma(database, "page_count");
+            database.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
             database.execSQL("VACUUM");
-            database.execSQL("ANALYZE");
-            Log.d(LOG_TAG, "Database optimization completed");
+            pagesReleased = (int) (pagesBefore - queryPragma(database, "page_count"));
+            
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Converted to incremental auto-vacuum, released " + pagesReleased + " pages");
+            }
         } catch (Exception e) {
-            Log.e(LOG_TAG, "Error optimizing database: " + e.getMessage());
+            Log.e(LOG_TAG, "Error converting to incremental auto-vacuum: " + e.getMessage());
         } finally {
-            if (database != null) {
-                database.close();
+            releaseDatabase();
+            recordOperation(TaskDatabaseMetrics.Operation.VACUUM, startNanos, pagesReleased, null);
+        }
+        return pagesReleased;
+    }
+    
+    /** Returns up to maxPages free pages to the file system; returns how many were freed. */
+    int vacuumIncrementally(int maxPages) {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        int pagesFreed = 0;
+        try {
+            SQLiteDatabase database = obtainDatabase();
+            long freePagesBefore = queryPragma(database, "freelist_count");
+            if (freePagesBefore > 0) {
+                // Read through a cursor: every step of the statement frees one page.
+                try (Cursor cursor = database.rawQuery("PRAGMA incremental_vacuum(" + maxPages + ")", null)) {
+                    cursor.getCount();
+                }
+                pagesFreed = (int) (freePagesBefore - queryPragma(database, "freelist_count"));
             }
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Error running incremental vacuum: " + e.getMessage());
+        } finally {
+            releaseDatabase();
+            recordOperation(TaskDatabaseMetrics.Operation.VACUUM, startNanos, pagesFreed, null);
         }
+        return pagesFreed;
     }
     
+    /**
+     * Copies what it can of the WAL into the database without waiting on readers or writers.
+     * Returns the frames checkpointed, or -1 on error.
+     */
+    int checkpointWal() {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        int framesCheckpointed = -1;
+        try (Cursor cursor = obtainDatabase().rawQuery("PRAGMA wal_checkpoint(PASSIVE)", null)) {
+            if (cursor.moveToFirst()) {
+                framesCheckpointed = Math.max(cursor.getInt(2), 0);
+            }
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Error checkpointing WAL: " + e.getMessage());
+        } finally {
+            releaseDatabase();
+            recordOperation(TaskDatabaseMetrics.Operation.CHECKPOINT, startNanos, Math.max(framesCheckpointed, 0), null);
+        }
+        return framesCheckpointed;
+    }
+    
+    private static long queryPragma(SQLiteDatabase database, String pragma) {
+        try (Cursor cursor = database.rawQuery("PRAGMA " + pragma, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+    
+    /**
+     * Blocking backup to backupPath. TaskRepository.backupDatabase runs the same consistent
+     * copy in the background, with progress and cancellation.
+     */
     public boolean backupDatabase(String backupPath) {
         try {
-            java.io.File currentDbFile = new java.io.File(this.getReadableDatabase().getPath());
-            java.io.File backupDbFile = new java.io.File(backupPath);
-            
-            if (currentDbFile.exists()) {
-                java.nio.file.Files.copy(
-                    currentDbFile.toPath(), 
-                    backupDbFile.toPath(), 
-                    java.nio.file.StandardCopyOption.REPLACE_EXISTING
-                );
-                Log.d(LOG_TAG, "Database backed up to: " + backupPath);
-                return true;
-            }
+            new TaskDatabaseBackup(this).backup(new File(backupPath), null, null);
+            return true;
         } catch (Exception e) {
             Log.e(LOG_TAG, "Error backing up database: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** The live database file; its -wal and -shm files sit beside it. */
+    File getDatabaseFile() {
+        try {
+            return new File(obtainDatabase().getPath());
+        } finally {
+            releaseDatabase();
+        }
+    }
+
+    /**
+     * Moves replacement over the live database file. The WAL is checkpointed and truncated
+     * first, so no frames from the old database can be replayed onto the new one, and the
+     * connection reopens on next use, migrating the restored schema if it is older.
+     */
+    synchronized void replaceDatabaseFile(File replacement) throws IOException {
+        SQLiteDatabase database = obtainDatabase();
+        File databaseFile = new File(database.getPath());
+        
+        try (Cursor cursor = database.rawQuery("PRAGMA wal_checkpoint(TRUNCATE)", null)) {
+            if (!cursor.moveToFirst() || cursor.getInt(0) != 0) {
+                throw new IOException("Database is busy; could not checkpoint before replacing it");
+            }
+        }
+        closeConnection();
+        
+        try {
+            Files.move(replacement.toPath(), databaseFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(new File(databaseFile.getPath() + "-wal").toPath());
+            Files.deleteIfExists(new File(databaseFile.getPath() + "-shm").toPath());
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Database file replaced");
+            }
+        } finally {
+            invalidateStatistics();
         }
-        return false;
     }
 }
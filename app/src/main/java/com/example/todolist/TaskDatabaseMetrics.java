@@ -0,0 +1,252 @@
+package com.example.todolist;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and row counts for every TaskDatabaseManager operation, and a log of the slowest
+ * queries with their plans. Recording an operation is lock-free and allocation-free; only
+ * queries over the slow-query threshold take a lock, to join the log.
+ */
+public class TaskDatabaseMetrics {
+    public static final long DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS = 50;
+    private static final int SLOW_QUERY_LOG_SIZE = 32;
+
+    public enum Operation {
+        INSERT,
+        INSERT_BATCH,
+        INSERT_KEEPING_IDS,
+        MODIFY,
+        MODIFY_BATCH,
+        MODIFY_COMPLETIONS,
+        REMOVE,
+        REMOVE_BATCH,
+        RETRIEVE_ALL,
+        RETRIEVE_FIRST_PAGE,
+        RETRIEVE_PAGE_AFTER,
+        RETRIEVE_PAGE_AT,
+        RETRIEVE_COMPLETED,
+        RETRIEVE_PENDING,
+        RETRIEVE_CHUNK,
+        OPEN_CURSOR,
+        COUNT,
+        LOAD_STATISTICS,
+        DESCRIPTION_EXISTS,
+        SEARCH,
+        CLEAR_COMPLETED,
+        OPTIMIZE,
+        VACUUM,
+        CHECKPOINT,
+        BACKUP,
+        RESTORE
+    }
+
+    /** One operation's figures at the time of the snapshot; latencies in nanoseconds. */
+    public static final class OperationSnapshot {
+        private final Operation operation;
+        private final long callCount;
+        private final long rowCount;
+        private final long meanNanos;
+        private final long p50Nanos;
+        private final long p90Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        OperationSnapshot(Operation operation, long callCount, long rowCount, LatencyHistogram latencies) {
+            this.operation = operation;
+            this.callCount = callCount;
+            this.rowCount = rowCount;
+            this.meanNanos = latencies.getMean();
+            this.p50Nanos = latencies.getValueAtPercentile(50);
+            this.p90Nanos = latencies.getValueAtPercentile(90);
+            this.p99Nanos = latencies.getValueAtPercentile(99);
+            this.maxNanos = latencies.getMax();
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public long getCallCount() {
+            return callCount;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public long getMeanNanos() {
+            return meanNanos;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP90Nanos() {
+            return p90Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+    }
+
+    public static final class SlowQuery {
+        private final Operation operation;
+        private final String sql;
+        private final long elapsedNanos;
+        private final int rowCount;
+        private final List<String> queryPlan;
+        private final long recordedAt;
+
+        SlowQuery(Operation operation, String sql, long elapsedNanos, int rowCount, List<String> queryPlan,
+                  long recordedAt) {
+            this.operation = operation;
+            this.sql = sql;
+            this.elapsedNanos = elapsedNanos;
+            this.rowCount = rowCount;
+            this.queryPlan = Collections.unmodifiableList(new ArrayList<>(queryPlan));
+            this.recordedAt = recordedAt;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /** EXPLAIN QUERY PLAN details, taken when the query was logged. */
+        public List<String> getQueryPlan() {
+            return queryPlan;
+        }
+
+        /** Wall-clock time the query was logged. */
+        public long getRecordedAt() {
+            return recordedAt;
+        }
+    }
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+    private final AtomicLong[] rowCounts = new AtomicLong[Operation.values().length];
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private volatile long slowQueryThresholdNanos =
+        TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS);
+
+    public TaskDatabaseMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            rowCounts[i] = new AtomicLong();
+        }
+    }
+
+    /** Records one call; returns whether it was slow enough for logSlowQuery. */
+    public boolean record(Operation operation, long elapsedNanos, int rowCount) {
+        latencies[operation.ordinal()].record(elapsedNanos);
+        rowCounts[operation.ordinal()].addAndGet(Math.max(rowCount, 0));
+        return elapsedNanos >= slowQueryThresholdNanos;
+    }
+
+    public void logSlowQuery(Operation operation, String sql, long elapsedNanos, int rowCount,
+                             List<String> queryPlan) {
+        SlowQuery slowQuery = new SlowQuery(operation, sql, elapsedNanos, rowCount, queryPlan,
+            System.currentTimeMillis());
+        synchronized (slowQueries) {
+            slowQueries.addFirst(slowQuery);
+            if (slowQueries.size() > SLOW_QUERY_LOG_SIZE) {
+                slowQueries.removeLast();
+            }
+        }
+    }
+
+    public void setSlowQueryThresholdMillis(long thresholdMillis) {
+        slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    public long getSlowQueryThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowQueryThresholdNanos);
+    }
+
+    public OperationSnapshot snapshot(Operation operation) {
+        LatencyHistogram operationLatencies = latencies[operation.ordinal()];
+        return new OperationSnapshot(operation, operationLatencies.getCount(),
+            rowCounts[operation.ordinal()].get(), operationLatencies);
+    }
+
+    /** Snapshots of the operations called at least once, in Operation order. */
+    public List<OperationSnapshot> snapshotAll() {
+        List<OperationSnapshot> snapshots = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            if (latencies[operation.ordinal()].getCount() > 0) {
+                snapshots.add(snapshot(operation));
+            }
+        }
+        return snapshots;
+    }
+
+    /** Newest first. */
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i].reset();
+            rowCounts[i].set(0);
+        }
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    /** A plain-text table of every snapshot followed by the slow-query log. */
+    public String formatReport() {
+        StringBuilder report = new StringBuilder(String.format(Locale.US,
+            "Slow query threshold: %d ms\n\n%-20s %7s %8s %8s %8s %8s %8s\n",
+            getSlowQueryThresholdMillis(), "operation", "calls", "rows", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (OperationSnapshot snapshot : snapshotAll()) {
+            report.append(String.format(Locale.US, "%-20s %7d %8d %8.2f %8.2f %8.2f %8.2f\n",
+                snapshot.getOperation().name().toLowerCase(Locale.US), snapshot.getCallCount(),
+                snapshot.getRowCount(), toMillis(snapshot.getP50Nanos()), toMillis(snapshot.getP90Nanos()),
+                toMillis(snapshot.getP99Nanos()), toMillis(snapshot.getMaxNanos())));
+        }
+        
+        List<SlowQuery> loggedQueries = getSlowQueries();
+        report.append("\nSlow queries (newest first): ").append(loggedQueries.size()).append('\n');
+        for (SlowQuery slowQuery : loggedQueries) {
+            report.append(String.format(Locale.US, "\n%s %.1f ms, %d rows\n  %s\n",
+                slowQuery.getOperation().name().toLowerCase(Locale.US), toMillis(slowQuery.getElapsedNanos()),
+                slowQuery.getRowCount(), slowQuery.getSql()));
+            for (String planDetail : slowQuery.getQueryPlan()) {
+                report.append("  plan: ").append(planDetail).append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.todolist;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Multiset of normalized task descriptions, so a duplicate check is one hash lookup
+ * instead of a sanitizing pass over every task. Not thread-safe; TaskCache guards it.
+ */
+public class TaskDescriptionIndex {
+    private final Map<String, Integer> descriptionCounts = new HashMap<>();
+
+    public void add(String description) {
+        descriptionCounts.merge(TaskValidationUtils.normalizeForDuplicateCheck(description), 1, Integer::sum);
+    }
+
+    public void remove(String description) {
+        descriptionCounts.computeIfPresent(TaskValidationUtils.normalizeForDuplicateCheck(description),
+            (normalizedDescription, count) -> count > 1 ? count - 1 : null);
+    }
+
+    public boolean contains(String description) {
+        return descriptionCounts.containsKey(TaskValidationUtils.normalizeForDuplicateCheck(description));
+    }
+
+    public int size() {
+        return descriptionCounts.size();
+    }
+
+    public void clear() {
+        descriptionCounts.clear();
+    }
+}
@@ -24,6 +24,14 @@ public class TaskItem {
         this.lastModifiedTimestamp = this.creationTimestamp;
     }
 
+    public TaskItem(TaskItem other) {
+        this.taskId = other.taskId;
+        this.description = other.description;
+        this.isFinished = other.isFinished;
+        this.creationTimestamp = other.creationTimestamp;
+        this.lastModifiedTimestamp = other.lastModifiedTimestamp;
+    }
+
     public int getId() {
         return taskId;
     }
@@ -63,6 +71,10 @@ public class TaskItem {
         this.creationTimestamp = timestamp;
     }
 
+    public void setLastModifiedTimestamp(long timestamp) {
+        this.lastModifiedTimestamp = timestamp;
+    }
+
     private void updateModificationTime() {
         this.lastModifiedTimestamp = System.currentTimeMillis();
     }
@@ -75,6 +87,14 @@ public class TaskItem {
         return lastModifiedTimestamp > creationTimestamp;
     }
 
+    /** Compares what a task row displays; equals() only compares ids. */
+    public boolean hasSameContentAs(TaskItem other) {
+        return other != null &&
+                isFinished == other.isFinished &&
+                creationTimestamp == other.creationTimestamp &&
+                java.util.Objects.equals(description, other.description);
+    }
+
     @Override
     public String toString() {
         return "TaskItem{" +
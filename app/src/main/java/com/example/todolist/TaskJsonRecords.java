@@ -0,0 +1,175 @@
+package com.example.todolist;
+
+import android.util.JsonReader;
+import android.util.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The readable export format, written and read as a stream so neither side ever holds more
+ * than one task:
+ *
+ * <pre>
+ * {"format": "todolist-tasks", "version": 1,
+ *  "tasks": [{"id": 1, "description": "...", "finished": false, "created": 0, "modified": 0}, ...],
+ *  "count": 1}
+ * </pre>
+ */
+public final class TaskJsonRecords {
+    public static final String FORMAT_NAME = "todolist-tasks";
+    public static final int FORMAT_VERSION = 1;
+
+    private TaskJsonRecords() {
+    }
+
+    public static final class Writer implements TaskRecordWriter {
+        private final JsonWriter jsonWriter;
+        private long recordCount;
+
+        public Writer(OutputStream output) throws IOException {
+            jsonWriter = new JsonWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            jsonWriter.beginObject();
+            jsonWriter.name("format").value(FORMAT_NAME);
+            jsonWriter.name("version").value(FORMAT_VERSION);
+            jsonWriter.name("tasks").beginArray();
+        }
+
+        @Override
+        public void writeTask(TaskItem taskItem) throws IOException {
+            jsonWriter.beginObject();
+            jsonWriter.name("id").value(taskItem.getId());
+            jsonWriter.name("description").value(taskItem.getDescription());
+            jsonWriter.name("finished").value(taskItem.isFinished());
+            jsonWriter.name("created").value(taskItem.getCreationTimestamp());
+            jsonWriter.name("modified").value(taskItem.getLastModifiedTimestamp());
+            jsonWriter.endObject();
+            recordCount++;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            jsonWriter.endArray();
+            jsonWriter.name("count").value(recordCount);
+            jsonWriter.endObject();
+            jsonWriter.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            jsonWriter.close();
+        }
+    }
+
+    public static final class Reader implements TaskRecordReader {
+        private final JsonReader jsonReader;
+        private long recordCount;
+        private boolean reachedEnd;
+
+        public Reader(InputStream input) throws IOException {
+            jsonReader = new JsonReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            try {
+                jsonReader.beginObject();
+                String format = null;
+                int version = -1;
+                while (jsonReader.hasNext()) {
+                    String name = jsonReader.nextName();
+                    if (name.equals("format")) {
+                        format = jsonReader.nextString();
+                    } else if (name.equals("version")) {
+                        version = jsonReader.nextInt();
+                    } else if (name.equals("tasks")) {
+                        break;
+                    } else {
+                        jsonReader.skipValue();
+                    }
+                }
+                if (!FORMAT_NAME.equals(format)) {
+                    throw new IOException("Not a JSON task export");
+                }
+                if (version != FORMAT_VERSION) {
+                    throw new IOException("Unsupported JSON task export version " + version);
+                }
+                jsonReader.beginArray();
+            } catch (IllegalStateException | NumberFormatException e) {
+                throw new IOException("Not a JSON task export: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public TaskItem readTask() throws IOException {
+            if (reachedEnd) {
+                return null;
+            }
+            
+            try {
+                if (jsonReader.hasNext()) {
+                    TaskItem taskItem = readTaskObject();
+                    recordCount++;
+                    return taskItem;
+                }
+                
+                jsonReader.endArray();
+                long expectedCount = -1;
+                while (jsonReader.hasNext()) {
+                    if (jsonReader.nextName().equals("count")) {
+                        expectedCount = jsonReader.nextLong();
+                    } else {
+                        jsonReader.skipValue();
+                    }
+                }
+                jsonReader.endObject();
+                if (expectedCount != recordCount) {
+                    throw new IOException("Export holds " + recordCount + " tasks but declares " + expectedCount);
+                }
+                reachedEnd = true;
+                return null;
+            } catch (IllegalStateException | NumberFormatException e) {
+                throw new IOException("Corrupt JSON task export after " + recordCount + " tasks: " + e.getMessage());
+            }
+        }
+
+        private TaskItem readTaskObject() throws IOException {
+            int taskId = 0;
+            String description = null;
+            boolean finished = false;
+            long creationTimestamp = 0;
+            long lastModifiedTimestamp = 0;
+            
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                String name = jsonReader.nextName();
+                if (name.equals("id")) {
+                    taskId = jsonReader.nextInt();
+                } else if (name.equals("description")) {
+                    description = jsonReader.nextString();
+                } else if (name.equals("finished")) {
+                    finished = jsonReader.nextBoolean();
+                } else if (name.equals("created")) {
+                    creationTimestamp = jsonReader.nextLong();
+                } else if (name.equals("modified")) {
+                    lastModifiedTimestamp = jsonReader.nextLong();
+                } else {
+                    jsonReader.skipValue();
+                }
+            }
+            jsonReader.endObject();
+            
+            if (taskId <= 0 || description == null) {
+                throw new IOException("Task record " + recordCount + " has no id or description");
+            }
+            TaskItem taskItem = new TaskItem(taskId, description, finished, creationTimestamp);
+            taskItem.setLastModifiedTimestamp(lastModifiedTimestamp);
+            return taskItem;
+        }
+
+        @Override
+        public void close() throws IOException {
+            jsonReader.close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.todolist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copy-then-edit list operations TaskRecyclerAdapter submits to its differ. Kept free of
+ * android.* so the benchmark module can measure them on the desktop JVM.
+ */
+public final class TaskListOperations {
+    private TaskListOperations() {
+    }
+
+    public static List<TaskItem> withTaskInserted(List<TaskItem> tasks, int position, TaskItem taskItem) {
+        List<TaskItem> newTaskList = new ArrayList<>(tasks.size() + 1);
+        newTaskList.addAll(tasks);
+        newTaskList.add(position, taskItem);
+        return newTaskList;
+    }
+
+    public static List<TaskItem> withTaskRemoved(List<TaskItem> tasks, int position) {
+        List<TaskItem> newTaskList = new ArrayList<>(tasks);
+        newTaskList.remove(position);
+        return newTaskList;
+    }
+
+    public static List<TaskItem> withTaskReplaced(List<TaskItem> tasks, int position, TaskItem taskItem) {
+        List<TaskItem> newTaskList = new ArrayList<>(tasks);
+        newTaskList.set(position, taskItem);
+        return newTaskList;
+    }
+}
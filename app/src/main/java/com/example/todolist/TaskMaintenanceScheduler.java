@@ -0,0 +1,270 @@
+package com.example.todolist;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the database file tidy in small slices while the app is idle, instead of one
+ * blocking VACUUM. A run is PRAGMA optimize, incremental_vacuum in bounded steps, then a
+ * passive WAL checkpoint. Slices start from a main-looper IdleHandler once no database
+ * call has been made for QUIET_PERIOD_MILLIS, and each works on the maintenance executor
+ * for at most SLICE_BUDGET_MILLIS before waiting for the next idle moment. A file made
+ * before incremental auto-vacuum is only optimized and checkpointed: switching it over is a
+ * full VACUUM, which no slice budget covers, so that is left to
+ * TaskRepository.convertToIncrementalAutoVacuum.
+ */
+public class TaskMaintenanceScheduler {
+    private static final String LOG_TAG = "TaskMaintenance";
+    private static final boolean DEBUG_LOGGING = Log.isLoggable(LOG_TAG, Log.DEBUG);
+    static final long QUIET_PERIOD_MILLIS = 5_000;
+    static final long SLICE_BUDGET_MILLIS = 40;
+    static final long RUN_INTERVAL_MILLIS = 60 * 60 * 1000;
+    static final int VACUUM_STEP_PAGES = 64;
+    private static final int REPORT_HISTORY_SIZE = 16;
+
+    /** How a finished run went. */
+    public static final class MaintenanceReport {
+        private final long startedAt;
+        private final long elapsedMillis;
+        private final long busyMillis;
+        private final int sliceCount;
+        private final long pagesReclaimed;
+        private final int walFramesCheckpointed;
+
+        MaintenanceReport(long startedAt, long elapsedMillis, long busyMillis, int sliceCount,
+                          long pagesReclaimed, int walFramesCheckpointed) {
+            this.startedAt = startedAt;
+            this.elapsedMillis = elapsedMillis;
+            this.busyMillis = busyMillis;
+            this.sliceCount = sliceCount;
+            this.pagesReclaimed = pagesReclaimed;
+            this.walFramesCheckpointed = walFramesCheckpointed;
+        }
+
+        /** Wall-clock start time. */
+        public long getStartedAt() {
+            return startedAt;
+        }
+
+        /** From the first slice to the end of the last, idle gaps included. */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /** Time spent working, summed over slices. */
+        public long getBusyMillis() {
+            return busyMillis;
+        }
+
+        public int getSliceCount() {
+            return sliceCount;
+        }
+
+        public long getPagesReclaimed() {
+            return pagesReclaimed;
+        }
+
+        public int getWalFramesCheckpointed() {
+            return walFramesCheckpointed;
+        }
+
+        @Override
+        public String toString() {
+            return "MaintenanceReport{elapsed=" + elapsedMillis + "ms, busy=" + busyMillis + "ms, slices=" +
+                sliceCount + ", pagesReclaimed=" + pagesReclaimed + ", walFrames=" + walFramesCheckpointed + "}";
+        }
+    }
+
+    private enum Stage {
+        OPTIMIZE,
+        VACUUM,
+        CHECKPOINT
+    }
+
+    private final TaskDatabaseManager databaseManager;
+    private final Executor maintenanceExecutor;
+    private final Handler mainThreadHandler;
+    private final MessageQueue.IdleHandler idleHandler = this::onMainThreadIdle;
+    // Posted to wake the main looper, whose next idle moment runs idleHandler again.
+    private final Runnable idleCheck = () -> { };
+    private final AtomicBoolean isSliceQueued = new AtomicBoolean();
+    private final Deque<MaintenanceReport> recentReports = new ArrayDeque<>();
+    private volatile boolean isStarted;
+    private volatile boolean isRunInProgress;
+    private volatile long lastDatabaseActivity;
+    private volatile long nextRunDue;
+
+    // Only touched on the maintenance executor.
+    private Stage stage;
+    private long runStartedAt;
+    private long runStartedUptime;
+    private long runBusyMillis;
+    private int runSliceCount;
+    private long runPagesReclaimed;
+    private int runWalFramesCheckpointed;
+
+    TaskMaintenanceScheduler(TaskDatabaseManager databaseManager, Executor maintenanceExecutor,
+                             Handler mainThreadHandler) {
+        this.databaseManager = databaseManager;
+        this.maintenanceExecutor = maintenanceExecutor;
+        this.mainThreadHandler = mainThreadHandler;
+    }
+
+    /** Starts watching for idle time; the quiet period starts over from now. */
+    public void start() {
+        if (isStarted) {
+            return;
+        }
+        isStarted = true;
+        noteDatabaseActivity();
+        Looper.getMainLooper().getQueue().addIdleHandler(idleHandler);
+        scheduleIdleCheck(QUIET_PERIOD_MILLIS);
+    }
+
+    /** Stops watching; a slice in progress ends after its current step. */
+    public void stop() {
+        isStarted = false;
+        Looper.getMainLooper().getQueue().removeIdleHandler(idleHandler);
+        mainThreadHandler.removeCallbacks(idleCheck);
+    }
+
+    public boolean isStarted() {
+        return isStarted;
+    }
+
+    /** Called for every database call, so maintenance keeps out of the way of real work. */
+    public void noteDatabaseActivity() {
+        lastDatabaseActivity = SystemClock.uptimeMillis();
+    }
+
+    /** The most recent finished runs, newest first. */
+    public List<MaintenanceReport> getRecentReports() {
+        synchronized (recentReports) {
+            return new ArrayList<>(recentReports);
+        }
+    }
+
+    private boolean onMainThreadIdle() {
+        long now = SystemClock.uptimeMillis();
+        if (!isRunInProgress && now < nextRunDue) {
+            return true;
+        }
+        long quietUntil = lastDatabaseActivity + QUIET_PERIOD_MILLIS;
+        if (now < quietUntil) {
+            scheduleIdleCheck(quietUntil - now);
+            return true;
+        }
+        
+        if (isSliceQueued.compareAndSet(false, true)) {
+            try {
+                maintenanceExecutor.execute(this::runSlice);
+            } catch (RejectedExecutionException e) {
+                Log.e(LOG_TAG, "Maintenance slice rejected: " + e.getMessage());
+                isSliceQueued.set(false);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void runSlice() {
+        try {
+            if (!isRunInProgress) {
+                beginRun();
+            }
+            
+            long sliceStart = SystemClock.uptimeMillis();
+            long sliceDeadline = sliceStart + SLICE_BUDGET_MILLIS;
+            while (stage != null && isStarted && isQuiet()) {
+                runStep();
+                if (SystemClock.uptimeMillis() >= sliceDeadline) {
+                    break;
+                }
+            }
+            runBusyMillis += SystemClock.uptimeMillis() - sliceStart;
+            runSliceCount++;
+            
+            if (stage == null) {
+                finishRun();
+            }
+        } catch (RuntimeException e) {
+            Log.e(LOG_TAG, "Error during maintenance, abandoning run: " + e.getMessage());
+            stage = null;
+            isRunInProgress = false;
+            nextRunDue = SystemClock.uptimeMillis() + RUN_INTERVAL_MILLIS;
+        } finally {
+            isSliceQueued.set(false);
+            if (isRunInProgress && isStarted) {
+                scheduleIdleCheck(0);
+            }
+        }
+    }
+
+    private void runStep() {
+        switch (stage) {
+            case OPTIMIZE:
+                databaseManager.optimizeDatabase();
+                stage = databaseManager.isIncrementalAutoVacuumEnabled() ? Stage.VACUUM : Stage.CHECKPOINT;
+                break;
+            case VACUUM:
+                int pagesFreed = databaseManager.vacuumIncrementally(VACUUM_STEP_PAGES);
+                runPagesReclaimed += pagesFreed;
+                if (pagesFreed < VACUUM_STEP_PAGES) {
+                    stage = Stage.CHECKPOINT;
+                }
+                break;
+            case CHECKPOINT:
+                runWalFramesCheckpointed = Math.max(databaseManager.checkpointWal(), 0);
+                stage = null;
+                break;
+        }
+    }
+
+    private void beginRun() {
+        stage = Stage.OPTIMIZE;
+        runStartedAt = System.currentTimeMillis();
+        runStartedUptime = SystemClock.uptimeMillis();
+        runBusyMillis = 0;
+        runSliceCount = 0;
+        runPagesReclaimed = 0;
+        runWalFramesCheckpointed = 0;
+        isRunInProgress = true;
+    }
+
+    private void finishRun() {
+        long now = SystemClock.uptimeMillis();
+        MaintenanceReport report = new MaintenanceReport(runStartedAt, now - runStartedUptime, runBusyMillis,
+            runSliceCount, runPagesReclaimed, runWalFramesCheckpointed);
+        synchronized (recentReports) {
+            recentReports.addFirst(report);
+            if (recentReports.size() > REPORT_HISTORY_SIZE) {
+                recentReports.removeLast();
+            }
+        }
+        isRunInProgress = false;
+        nextRunDue = now + RUN_INTERVAL_MILLIS;
+        if (DEBUG_LOGGING) {
+            Log.d(LOG_TAG, "Maintenance finished: " + report);
+        }
+    }
+
+    private boolean isQuiet() {
+        return SystemClock.uptimeMillis() - lastDatabaseActivity >= QUIET_PERIOD_MILLIS;
+    }
+
+    private void scheduleIdleCheck(long delayMillis) {
+        mainThreadHandler.removeCallbacks(idleCheck);
+        mainThreadHandler.postDelayed(idleCheck, delayMillis);
+    }
+}
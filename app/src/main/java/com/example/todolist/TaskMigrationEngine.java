@@ -0,0 +1,173 @@
+package com.example.todolist;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Applies TaskSchemaMigrations in order from inside SQLiteOpenHelper.onUpgrade.
+ *
+ * The helper wraps the whole upgrade in a single transaction. The engine commits
+ * that transaction and opens a new one after every step and after every copied
+ * chunk. That keeps write locks and WAL growth short, and the user_version written
+ * after each step lets an interrupted upgrade resume where it stopped.
+ */
+public class TaskMigrationEngine {
+    private static final String LOG_TAG = "TaskMigrationEngine";
+    private static final boolean DEBUG_LOGGING = Log.isLoggable(LOG_TAG, Log.DEBUG);
+    static final int DEFAULT_CHUNK_SIZE = 5000;
+
+    private final List<TaskSchemaMigration> migrations;
+    private final int chunkSize;
+
+    public TaskMigrationEngine(List<TaskSchemaMigration> migrations) {
+        this(migrations, DEFAULT_CHUNK_SIZE);
+    }
+
+    TaskMigrationEngine(List<TaskSchemaMigration> migrations, int chunkSize) {
+        List<TaskSchemaMigration> orderedMigrations = new ArrayList<>(migrations);
+        Collections.sort(orderedMigrations,
+            (first, second) -> Integer.compare(first.getTargetVersion(), second.getTargetVersion()));
+        this.migrations = Collections.unmodifiableList(orderedMigrations);
+        this.chunkSize = chunkSize;
+    }
+
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 1 : migrations.get(migrations.size() - 1).getTargetVersion();
+    }
+
+    public void migrate(SQLiteDatabase database, int oldVersion, int newVersion) {
+        int currentVersion = oldVersion;
+
+        for (TaskSchemaMigration migration : migrations) {
+            int targetVersion = migration.getTargetVersion();
+            if (targetVersion <= currentVersion || targetVersion > newVersion) {
+                continue;
+            }
+            if (targetVersion != currentVersion + 1) {
+                throw new IllegalStateException("Missing migration to version " + (currentVersion + 1));
+            }
+
+            long startTime = System.currentTimeMillis();
+            migration.apply(database, this);
+            database.setVersion(targetVersion);
+            commitProgress(database);
+            currentVersion = targetVersion;
+
+            if (DEBUG_LOGGING) {
+                Log.d(LOG_TAG, "Migrated to version " + targetVersion + " (" + migration.getDescription() +
+                    ") in " + (System.currentTimeMillis() - startTime) + " ms");
+            }
+        }
+
+        if (currentVersion != newVersion) {
+            throw new IllegalStateException("No migration path from " + oldVersion + " to " + newVersion);
+        }
+    }
+
+    /**
+     * Copies rows from sourceTable into targetTable ordered by an integer key, one
+     * chunk per transaction. Rows already present in the target are skipped, so an
+     * interrupted copy resumes after the largest key it already holds.
+     */
+    public int copyInChunks(SQLiteDatabase database, String sourceTable, String targetTable,
+                            String targetColumns, String sourceExpressions, String keyColumn) {
+        SQLiteStatement lastCopiedKeyQuery = database.compileStatement(
+            "SELECT IFNULL(MAX(" + keyColumn + "), -1) FROM " + targetTable);
+        SQLiteStatement copyChunkStatement = database.compileStatement(
+            "INSERT INTO " + targetTable + " (" + targetColumns + ") " +
+            "SELECT " + sourceExpressions + " FROM " + sourceTable +
+            " WHERE " + keyColumn + " > ? ORDER BY " + keyColumn + " LIMIT " + chunkSize);
+        int copiedRows = 0;
+
+        try {
+            int chunkRows;
+            do {
+                copyChunkStatement.bindLong(1, lastCopiedKeyQuery.simpleQueryForLong());
+                chunkRows = copyChunkStatement.executeUpdateDelete();
+                copiedRows += chunkRows;
+                commitProgress(database);
+            } while (chunkRows == chunkSize);
+        } finally {
+            copyChunkStatement.close();
+            lastCopiedKeyQuery.close();
+        }
+
+        if (DEBUG_LOGGING) {
+            Log.d(LOG_TAG, "Copied " + copiedRows + " rows from " + sourceTable + " to " + targetTable);
+        }
+        return copiedRows;
+    }
+
+    /**
+     * Fills targetColumn from sourceColumn through a Java function, for values SQL cannot
+     * compute, one chunk per transaction. Only rows where targetColumn is still NULL are
+     * touched, so an interrupted backfill picks up where it stopped.
+     */
+    public int backfillInChunks(SQLiteDatabase database, String table, String keyColumn,
+                                String sourceColumn, String targetColumn, UnaryOperator<String> computeValue) {
+        String selectChunkQuery = "SELECT " + keyColumn + ", " + sourceColumn + " FROM " + table +
+            " WHERE " + keyColumn + " > ? AND " + targetColumn + " IS NULL ORDER BY " + keyColumn +
+            " LIMIT " + chunkSize;
+        SQLiteStatement updateStatement = database.compileStatement(
+            "UPDATE " + table + " SET " + targetColumn + " = ? WHERE " + keyColumn + " = ?");
+        long lastKey = Long.MIN_VALUE;
+        int updatedRows = 0;
+
+        try {
+            int chunkRows;
+            do {
+                chunkRows = 0;
+                try (Cursor chunk = database.rawQuery(selectChunkQuery, new String[]{String.valueOf(lastKey)})) {
+                    while (chunk.moveToNext()) {
+                        lastKey = chunk.getLong(0);
+                        String value = computeValue.apply(chunk.getString(1));
+                        if (value != null) {
+                            updateStatement.bindString(1, value);
+                        } else {
+                            updateStatement.bindNull(1);
+                        }
+                        updateStatement.bindLong(2, lastKey);
+                        updateStatement.executeUpdateDelete();
+                        chunkRows++;
+                    }
+                }
+                updatedRows += chunkRows;
+                commitProgress(database);
+            } while (chunkRows == chunkSize);
+        } finally {
+            updateStatement.close();
+        }
+
+        if (DEBUG_LOGGING) {
+            Log.d(LOG_TAG, "Backfilled " + updatedRows + " rows of " + table + "." + targetColumn);
+        }
+        return updatedRows;
+    }
+
+    boolean hasColumn(SQLiteDatabase database, String table, String column) {
+        try (Cursor columns = database.rawQuery("PRAGMA table_info(" + table + ")", null)) {
+            int nameColumn = columns.getColumnIndexOrThrow("name");
+            while (columns.moveToNext()) {
+                if (column.equals(columns.getString(nameColumn))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    void commitProgress(SQLiteDatabase database) {
+        if (database.inTransaction()) {
+            database.setTransactionSuccessful();
+            database.endTransaction();
+            database.beginTransaction();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.todolist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Windowed view over task_items for large tables. Pages are fetched with keyset
+ * pagination on (creation_timestamp, task_id) and only the most recently used
+ * pages stay in memory; the boundary key of every page seen so far is kept so an
+ * evicted page can be fetched again by key. A page whose predecessor's key is not
+ * known yet, as after a jump deep into the list, is fetched by offset in one query,
+ * and its own end key lets the pages after it go back to keyset reads.
+ *
+ * All methods must be called on the main thread.
+ */
+public class TaskPagedList {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int DEFAULT_MAX_LOADED_PAGES = 6;
+
+    public interface PageLoadListener {
+        void onItemRangeLoaded(int startPosition, int itemCount);
+    }
+
+    private final TaskRepository taskRepository;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final Map<Integer, List<TaskItem>> loadedPages;
+    private final Map<Integer, Integer> pagesInFlight = new HashMap<>();
+    private long[] pageEndCreationTimes = new long[16];
+    private int[] pageEndTaskIds = new int[16];
+    private boolean[] isPageEndKnown = new boolean[16];
+    private int requestCounter;
+    private int totalCount;
+    private PageLoadListener pageLoadListener;
+
+    public TaskPagedList(TaskRepository taskRepository, int totalCount) {
+        this(taskRepository, totalCount, DEFAULT_PAGE_SIZE, DEFAULT_MAX_LOADED_PAGES);
+    }
+
+    public TaskPagedList(TaskRepository taskRepository, int totalCount, int pageSize, int maxLoadedPages) {
+        this.taskRepository = taskRepository;
+        this.totalCount = totalCount;
+        this.pageSize = pageSize;
+        this.prefetchDistance = pageSize / 2;
+        this.loadedPages = new LinkedHashMap<Integer, List<TaskItem>>(maxLoadedPages + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<TaskItem>> eldest) {
+                return size() > maxLoadedPages;
+            }
+        };
+    }
+
+    public void setPageLoadListener(PageLoadListener pageLoadListener) {
+        this.pageLoadListener = pageLoadListener;
+    }
+
+    public int size() {
+        return totalCount;
+    }
+
+    public TaskItem getItem(int position) {
+        if (position < 0 || position >= totalCount) {
+            return null;
+        }
+
+        int pageIndex = position / pageSize;
+        int pageOffset = position % pageSize;
+
+        if (pageOffset >= pageSize - prefetchDistance && (pageIndex + 1) * pageSize < totalCount) {
+            requestPage(pageIndex + 1);
+        }
+
+        List<TaskItem> page = loadedPages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            return null;
+        }
+        return pageOffset < page.size() ? page.get(pageOffset) : null;
+    }
+
+    /** The task at position if its page is loaded; requests nothing and leaves page recency alone. */
+    public TaskItem peekItem(int position) {
+        if (position < 0 || position >= totalCount) {
+            return null;
+        }
+        int pageIndex = position / pageSize;
+        int pageOffset = position % pageSize;
+        // get() would count as a use of the page; walking the few loaded pages does not.
+        for (Map.Entry<Integer, List<TaskItem>> loadedPage : loadedPages.entrySet()) {
+            if (loadedPage.getKey() == pageIndex) {
+                List<TaskItem> page = loadedPage.getValue();
+                return pageOffset < page.size() ? page.get(pageOffset) : null;
+            }
+        }
+        return null;
+    }
+
+    public List<TaskItem> getLoadedTasks() {
+        List<TaskItem> loadedTasks = new ArrayList<>(loadedPages.size() * pageSize);
+        for (List<TaskItem> page : loadedPages.values()) {
+            loadedTasks.addAll(page);
+        }
+        return loadedTasks;
+    }
+
+    public void reset(int newTotalCount) {
+        invalidateFrom(0, newTotalCount);
+    }
+
+    public void invalidateFrom(int position, int newTotalCount) {
+        int firstStalePage = Math.max(0, position / pageSize);
+
+        if (firstStalePage < isPageEndKnown.length) {
+            Arrays.fill(isPageEndKnown, firstStalePage, isPageEndKnown.length, false);
+        }
+        loadedPages.keySet().removeIf(pageIndex -> pageIndex >= firstStalePage);
+        pagesInFlight.keySet().removeIf(pageIndex -> pageIndex >= firstStalePage);
+        totalCount = newTotalCount;
+    }
+
+    private void requestPage(int pageIndex) {
+        if (loadedPages.containsKey(pageIndex) || pagesInFlight.containsKey(pageIndex)) {
+            return;
+        }
+
+        int requestId = ++requestCounter;
+        int requestedPageIndex = pageIndex;
+        pagesInFlight.put(pageIndex, requestId);
+
+        TaskRepository.ResultCallback<List<TaskItem>> callback =
+            pageItems -> onPageLoaded(requestedPageIndex, requestId, pageItems);
+
+        if (pageIndex == 0) {
+            taskRepository.loadFirstTaskPage(pageSize, callback);
+        } else if (isPageEndKnown(pageIndex - 1)) {
+            taskRepository.loadTaskPageAfter(
+                pageEndCreationTimes[pageIndex - 1], pageEndTaskIds[pageIndex - 1], pageSize, callback);
+        } else {
+            taskRepository.loadTaskPageAt(pageIndex * pageSize, pageSize, callback);
+        }
+    }
+
+    private void onPageLoaded(int pageIndex, int requestId, List<TaskItem> pageItems) {
+        Integer expectedRequestId = pagesInFlight.get(pageIndex);
+        if (expectedRequestId == null || expectedRequestId != requestId) {
+            return;
+        }
+        pagesInFlight.remove(pageIndex);
+        loadedPages.put(pageIndex, pageItems);
+
+        if (!pageItems.isEmpty()) {
+            recordPageEnd(pageIndex, pageItems.get(pageItems.size() - 1));
+        }
+
+        if (pageLoadListener != null && !pageItems.isEmpty()) {
+            int startPosition = pageIndex * pageSize;
+            pageLoadListener.onItemRangeLoaded(startPosition,
+                Math.min(pageItems.size(), totalCount - startPosition));
+        }
+    }
+
+    private boolean isPageEndKnown(int pageIndex) {
+        return pageIndex < isPageEndKnown.length && isPageEndKnown[pageIndex];
+    }
+
+    private void recordPageEnd(int pageIndex, TaskItem lastTaskOnPage) {
+        if (pageIndex >= pageEndTaskIds.length) {
+            int newCapacity = Math.max(pageEndTaskIds.length * 2, pageIndex + 1);
+            pageEndCreationTimes = Arrays.copyOf(pageEndCreationTimes, newCapacity);
+            pageEndTaskIds = Arrays.copyOf(pageEndTaskIds, newCapacity);
+            isPageEndKnown = Arrays.copyOf(isPageEndKnown, newCapacity);
+        }
+        pageEndCreationTimes[pageIndex] = lastTaskOnPage.getCreationTimestamp();
+        pageEndTaskIds[pageIndex] = lastTaskOnPage.getId();
+        isPageEndKnown[pageIndex] = true;
+    }
+}
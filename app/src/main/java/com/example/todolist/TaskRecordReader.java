@@ -0,0 +1,13 @@
+package com.example.todolist;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/** Reads back what a TaskRecordWriter of the same format wrote. */
+public interface TaskRecordReader extends Closeable {
+    /**
+     * The next task, or null once the end of the stream has been reached and its record
+     * count checked. Throws IOException for a truncated or corrupt stream.
+     */
+    TaskItem readTask() throws IOException;
+}
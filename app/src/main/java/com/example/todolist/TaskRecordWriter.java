@@ -0,0 +1,15 @@
+package com.example.todolist;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/** Streams tasks out one record at a time, for TaskDataTransfer exports. */
+public interface TaskRecordWriter extends Closeable {
+    void writeTask(TaskItem taskItem) throws IOException;
+
+    /**
+     * Ends the stream with the record count. A stream closed without finish() reads back
+     * as truncated, so a failed export can never pass for a complete one.
+     */
+    void finish() throws IOException;
+}
@@ -4,9 +4,12 @@ import android.graphics.Paint;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.accessibility.AccessibilityNodeInfo;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.button.MaterialButton;
@@ -14,22 +17,70 @@ import com.google.android.material.checkbox.MaterialCheckBox;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import android.widget.Toast;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class TaskRecyclerAdapter extends RecyclerView.Adapter<TaskRecyclerAdapter.TaskItemViewHolder> {
-    private final List<TaskItem> taskItemsList;
-    private final TaskDatabaseManager databaseManager;
+    private static final float COMPLETED_ROW_ALPHA = 0.7f;
+
+    /**
+     * Change payloads: each one updates just the view it names, where a payload-less change
+     * rebinds the whole row.
+     */
+    enum RowChange { COMPLETION, DESCRIPTION, TIMESTAMP }
+
+    static final DiffUtil.ItemCallback<TaskItem> TASK_DIFF_CALLBACK = new DiffUtil.ItemCallback<TaskItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull TaskItem oldTask, @NonNull TaskItem newTask) {
+            return oldTask.getId() == newTask.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull TaskItem oldTask, @NonNull TaskItem newTask) {
+            return oldTask.hasSameContentAs(newTask);
+        }
+
+        // Only a single changed part gets a payload; anything more rebinds the row.
+        @Override
+        public Object getChangePayload(@NonNull TaskItem oldTask, @NonNull TaskItem newTask) {
+            RowChange change = null;
+            int changedParts = 0;
+            if (oldTask.isFinished() != newTask.isFinished()) {
+                change = RowChange.COMPLETION;
+                changedParts++;
+            }
+            if (!java.util.Objects.equals(oldTask.getDescription(), newTask.getDescription())) {
+                change = RowChange.DESCRIPTION;
+                changedParts++;
+            }
+            if (oldTask.getCreationTimestamp() != newTask.getCreationTimestamp()) {
+                change = RowChange.TIMESTAMP;
+                changedParts++;
+            }
+            return changedParts == 1 ? change : null;
+        }
+    };
+
+    private final AsyncListDiffer<TaskItem> taskListDiffer;
+    private final TaskColumnStore taskColumnStore = new TaskColumnStore();
+    private final TaskRepository taskRepository;
     private final TaskActionHandler actionHandler;
+    private TaskPagedList pagedTaskList;
+    private TaskCursorList cursorTaskList;
+    private TaskTimestampTicker timestampTicker;
+    private TaskCompletionWriteQueue completionWriteQueue;
 
     public interface TaskActionHandler {
         void onTaskEdit(int position);
         void onTaskRemove(int position);
     }
 
-    public TaskRecyclerAdapter(List<TaskItem> taskItemsList, TaskDatabaseManager databaseManager, TaskActionHandler actionHandler) {
-        this.taskItemsList = taskItemsList;
-        this.databaseManager = databaseManager;
+    public TaskRecyclerAdapter(TaskRepository taskRepository, TaskActionHandler actionHandler) {
+        this.taskListDiffer = new AsyncListDiffer<>(this, TASK_DIFF_CALLBACK);
+        this.taskListDiffer.addListListener((previousTasks, currentTasks) -> taskColumnStore.replaceAll(currentTasks));
+        this.taskRepository = taskRepository;
         this.actionHandler = actionHandler;
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -41,129 +92,352 @@ public class TaskRecyclerAdapter extends RecyclerView.Adapter<TaskRecyclerAdapte
 
     @Override
     public void onBindViewHolder(@NonNull TaskItemViewHolder holder, int position) {
-        TaskItem currentTask = taskItemsList.get(position);
+        TaskItem currentTask = getTaskAt(position);
         
+        if (currentTask == null) {
+            holder.bindPlaceholder();
+            return;
+        }
         holder.bindTaskData(currentTask);
-        holder.setupClickListeners(position);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull TaskItemViewHolder holder, int position, @NonNull List<Object> payloads) {
+        TaskItem currentTask = getTaskAt(position);
+        if (payloads.isEmpty() || currentTask == null || !holder.isShowingTask(currentTask.getId())) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        for (int i = 0; i < payloads.size(); i++) {
+            if (!(payloads.get(i) instanceof RowChange)) {
+                onBindViewHolder(holder, position);
+                return;
+            }
+        }
+        holder.bindChanges(currentTask, payloads);
+    }
+
+    /**
+     * The task id; rows still loading get negative ids of their own, clear of NO_ID. Only
+     * peeks, so asking never loads pages or rows or reorders what is kept.
+     */
+    @Override
+    public long getItemId(int position) {
+        TaskItem task;
+        if (cursorTaskList != null) {
+            task = cursorTaskList.peekItem(position);
+        } else if (pagedTaskList != null) {
+            task = pagedTaskList.peekItem(position);
+        } else {
+            task = isValidPosition(position) ? taskListDiffer.getCurrentList().get(position) : null;
+        }
+        return task != null ? task.getId() : -2L - position;
     }
 
     @Override
     public int getItemCount() {
-        return taskItemsList != null ? taskItemsList.size() : 0;
+        if (cursorTaskList != null) {
+            return cursorTaskList.size();
+        }
+        if (pagedTaskList != null) {
+            return pagedTaskList.size();
+        }
+        return taskListDiffer.getCurrentList().size();
+    }
+
+    public void setPagedTaskList(TaskPagedList pagedTaskList) {
+        if (pagedTaskList != null && !isPagedMode() && !isCursorMode()) {
+            // Drop the list while its removals still describe what RecyclerView shows.
+            taskListDiffer.submitList(null);
+        }
+        if (pagedTaskList != null) {
+            releaseCursorTaskList();
+        }
+        this.pagedTaskList = pagedTaskList;
+        if (pagedTaskList != null) {
+            pagedTaskList.setPageLoadListener(this::notifyItemRangeChanged);
+        }
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Shows cursorTaskList, closing the one it replaces. The adapter owns the list from here
+     * on; pass null to leave cursor mode and close the current one.
+     */
+    public void setCursorTaskList(TaskCursorList cursorTaskList) {
+        if (cursorTaskList != null && !isPagedMode() && !isCursorMode()) {
+            taskListDiffer.submitList(null);
+        }
+        if (cursorTaskList != this.cursorTaskList) {
+            releaseCursorTaskList();
+        }
+        if (cursorTaskList != null) {
+            pagedTaskList = null;
+        }
+        this.cursorTaskList = cursorTaskList;
+        if (cursorTaskList != null) {
+            cursorTaskList.setRowLoadListener(this::notifyItemRangeChanged);
+        }
+        notifyDataSetChanged();
+    }
+
+    /** Told the next change of every label a bind shows, so it can refresh it on time. */
+    public void setTimestampTicker(TaskTimestampTicker timestampTicker) {
+        this.timestampTicker = timestampTicker;
+    }
+
+    /** Takes the checkbox toggles; without one each toggle is written on its own. */
+    public void setCompletionWriteQueue(TaskCompletionWriteQueue completionWriteQueue) {
+        this.completionWriteQueue = completionWriteQueue;
+    }
+
+    public boolean isPagedMode() {
+        return pagedTaskList != null;
+    }
+
+    public boolean isCursorMode() {
+        return cursorTaskList != null;
+    }
+
+    public TaskItem getTaskAt(int position) {
+        if (cursorTaskList != null) {
+            return withUnwrittenCompletion(cursorTaskList.getItem(position));
+        }
+        if (pagedTaskList != null) {
+            return withUnwrittenCompletion(pagedTaskList.getItem(position));
+        }
+        return isValidPosition(position) ? taskListDiffer.getCurrentList().get(position) : null;
+    }
+
+    /**
+     * Rows read from the database while a toggle waits to be written still show the toggle.
+     * The toggled state goes on a copy, so a row someone else holds is never changed.
+     */
+    private TaskItem withUnwrittenCompletion(TaskItem task) {
+        if (task == null || completionWriteQueue == null) {
+            return task;
+        }
+        Boolean finished = completionWriteQueue.getUnwrittenCompletion(task.getId());
+        if (finished == null || finished == task.isFinished()) {
+            return task;
+        }
+        TaskItem toggledTask = new TaskItem(task);
+        toggledTask.setFinished(finished);
+        return toggledTask;
+    }
+
+    private void releaseCursorTaskList() {
+        if (cursorTaskList != null) {
+            cursorTaskList.close();
+            cursorTaskList = null;
+        }
+    }
+
+    /** Unmodifiable; replace it through submitTaskList. */
+    public List<TaskItem> getCurrentTasks() {
+        return taskListDiffer.getCurrentList();
+    }
+
+    /**
+     * Diffs newTaskList against the current list on a background thread and rebinds only
+     * rows whose id or content changed. onCommitted runs once the list is visible.
+     */
+    public void submitTaskList(List<TaskItem> newTaskList, Runnable onCommitted) {
+        if (newTaskList == null) {
+            taskListDiffer.submitList(null, onCommitted);
+            return;
+        }
+        List<TaskItem> tasks = new ArrayList<>(newTaskList);
+        if (completionWriteQueue != null && completionWriteQueue.hasUnwrittenCompletions()) {
+            for (int i = 0; i < tasks.size(); i++) {
+                tasks.set(i, withUnwrittenCompletion(tasks.get(i)));
+            }
+        }
+        taskListDiffer.submitList(tasks, onCommitted);
     }
 
     public void updateTaskList(List<TaskItem> newTaskList) {
         if (newTaskList != null) {
-            this.taskItemsList.clear();
-            this.taskItemsList.addAll(newTaskList);
-            notifyDataSetChanged();
+            submitTaskList(newTaskList, null);
         }
     }
     
     public void addTaskItem(TaskItem taskItem) {
         if (taskItem != null) {
-            taskItemsList.add(0, taskItem);
-            notifyItemInserted(0);
+            taskListDiffer.submitList(TaskListOperations.withTaskInserted(getCurrentTasks(), 0, taskItem));
         }
     }
     
     public void removeTaskItem(int position) {
         if (isValidPosition(position)) {
-            taskItemsList.remove(position);
-            notifyItemRemoved(position);
-            notifyItemRangeChanged(position, getItemCount());
+            taskListDiffer.submitList(TaskListOperations.withTaskRemoved(getCurrentTasks(), position));
         }
     }
     
     public void updateTaskItem(int position, TaskItem updatedTask) {
         if (isValidPosition(position) && updatedTask != null) {
-            taskItemsList.set(position, updatedTask);
-            notifyItemChanged(position);
+            taskListDiffer.submitList(TaskListOperations.withTaskReplaced(getCurrentTasks(), position, updatedTask));
+        }
+    }
+    
+    /**
+     * Where taskId is shown now, or NO_POSITION. positionHint is tried first; the full list
+     * is searched only in list mode, as paged and cursor mode hold just part of it.
+     */
+    int findTaskPosition(int taskId, int positionHint) {
+        TaskItem hintedTask = getTaskAt(positionHint);
+        if (hintedTask != null && hintedTask.getId() == taskId) {
+            return positionHint;
+        }
+        if (isPagedMode() || isCursorMode()) {
+            return RecyclerView.NO_POSITION;
         }
+        int row = taskColumnStore.indexOfTask(taskId);
+        return row >= 0 ? row : RecyclerView.NO_POSITION;
     }
     
     private boolean isValidPosition(int position) {
-        return position >= 0 && position < taskItemsList.size();
+        return position >= 0 && position < getItemCount();
     }
     
-    public List<TaskItem> getCompletedTasks() {
-        return taskItemsList.stream()
-                .filter(TaskItem::isFinished)
-                .collect(java.util.stream.Collectors.toList());
+    /**
+     * The committed list in columns, row for row, refilled on every commit and kept in step
+     * with completion toggles. Empty in paged and cursor mode.
+     */
+    public TaskColumnStore getTaskColumnStore() {
+        return taskColumnStore;
+    }
+
+    public TaskColumnStore.FilteredView getCompletedTaskView() {
+        return taskColumnStore.getCompletedView();
     }
     
-    public List<TaskItem> getPendingTasks() {
-        return taskItemsList.stream()
-                .filter(task -> !task.isFinished())
-                .collect(java.util.stream.Collectors.toList());
+    public TaskColumnStore.FilteredView getPendingTaskView() {
+        return taskColumnStore.getPendingView();
     }
 
     class TaskItemViewHolder extends RecyclerView.ViewHolder {
         private final TextView taskDescriptionText;
+        private final TextView taskTimestampText;
         private final MaterialButton editTaskButton;
         private final MaterialButton removeTaskButton;
         private final MaterialCheckBox taskCompletionCheckbox;
+        private final int completedTextColor;
+        private final int pendingTextColor;
+        // What the row shows; the listeners below are installed once and find the row's
+        // position when clicked, since inserts and removals move rows without rebinding them.
+        private TaskItem boundTaskItem;
+        private String shownTimestampLabel;
 
         public TaskItemViewHolder(@NonNull View itemView) {
             super(itemView);
             taskDescriptionText = itemView.findViewById(R.id.task_name);
+            taskTimestampText = itemView.findViewById(R.id.task_timestamp);
             editTaskButton = itemView.findViewById(R.id.edit_btn);
             removeTaskButton = itemView.findViewById(R.id.delete_btn);
             taskCompletionCheckbox = itemView.findViewById(R.id.task_checkbox);
+            completedTextColor = itemView.getContext().getColor(android.R.color.darker_gray);
+            pendingTextColor = itemView.getContext().getColor(android.R.color.black);
+            
+            setupClickListeners();
+            itemView.setOnLongClickListener(view -> {
+                if (boundTaskItem == null) {
+                    return false;
+                }
+                showTaskDetailsDialog(boundTaskItem);
+                return true;
+            });
+            itemView.setAccessibilityDelegate(new TaskRowAccessibilityDelegate());
+        }
+
+        public void bindPlaceholder() {
+            boundTaskItem = null;
+            shownTimestampLabel = null;
+            taskDescriptionText.setText("Loading…");
+            taskCompletionCheckbox.setChecked(false);
+            
+            if (taskTimestampText != null) {
+                taskTimestampText.setText("");
+            }
+            
+            // Clear whatever a recycled completed row left behind.
+            itemView.animate().cancel();
+            itemView.setAlpha(1.0f);
+            updateTextAppearance(false);
+            updateButtonStates(false);
         }
 
         public void bindTaskData(TaskItem taskItem) {
             if (taskItem == null) return;
             
+            boundTaskItem = taskItem;
             taskDescriptionText.setText(taskItem.getDescription());
             taskCompletionCheckbox.setChecked(taskItem.isFinished());
             
-            // Update timestamp
-            TextView timestampView = itemView.findViewById(R.id.task_timestamp);
-            if (timestampView != null) {
-                timestampView.setText(getRelativeTimeString(taskItem.getCreationTimestamp()));
-            }
+            bindTimestamp();
             
-            updateTaskAppearanceBasedOnCompletion(taskItem.isFinished());
-            applyAccessibilityFeatures(taskItem);
-            setupLongClickListener(taskItem);
+            // A recycled row may still be fading from its last task; jump to the end state.
+            itemView.animate().cancel();
+            itemView.setAlpha(taskItem.isFinished() ? COMPLETED_ROW_ALPHA : 1.0f);
+            updateTextAppearance(taskItem.isFinished());
+            updateButtonStates(taskItem.isFinished());
         }
         
-        private String getRelativeTimeString(long timestamp) {
+        boolean isShowingTask(int taskId) {
+            return boundTaskItem != null && boundTaskItem.getId() == taskId;
+        }
+
+        void bindChanges(TaskItem taskItem, List<Object> payloads) {
+            boundTaskItem = taskItem;
+            for (int i = 0; i < payloads.size(); i++) {
+                switch ((RowChange) payloads.get(i)) {
+                    case COMPLETION:
+                        taskCompletionCheckbox.setChecked(taskItem.isFinished());
+                        updateTaskAppearanceBasedOnCompletion(taskItem.isFinished());
+                        break;
+                    case DESCRIPTION:
+                        taskDescriptionText.setText(taskItem.getDescription());
+                        break;
+                    case TIMESTAMP:
+                        bindTimestamp();
+                        break;
+                }
+            }
+        }
+
+        void bindTimestamp() {
+            if (taskTimestampText == null || boundTaskItem == null) {
+                return;
+            }
             long now = System.currentTimeMillis();
-            long diff = now - timestamp;
-            
-            if (diff < 60000) { // Less than 1 minute
-                return "Just now";
-            } else if (diff < 3600000) { // Less than 1 hour
-                int minutes = (int) (diff / 60000);
-                return minutes + "m ago";
-            } else if (diff < 86400000) { // Less than 1 day
-                int hours = (int) (diff / 3600000);
-                return hours + "h ago";
-            } else if (diff < 604800000) { // Less than 1 week
-                int days = (int) (diff / 86400000);
-                return days + "d ago";
-            } else {
-                return "Last week";
+            shownTimestampLabel = RelativeTimeLabels.labelFor(boundTaskItem.getCreationTimestamp(), now);
+            taskTimestampText.setText(shownTimestampLabel);
+            if (timestampTicker != null) {
+                timestampTicker.onTimestampShown(
+                    RelativeTimeLabels.nextChangeAt(boundTaskItem.getCreationTimestamp(), now));
             }
         }
+
+        boolean hasTimestamp() {
+            return shownTimestampLabel != null;
+        }
+
+        // Labels are shared instances, so a changed bucket shows up as a different reference.
+        boolean isTimestampStale(long now) {
+            return RelativeTimeLabels.labelFor(boundTaskItem.getCreationTimestamp(), now) != shownTimestampLabel;
+        }
+
+        long getTimestampNextChangeAt(long now) {
+            return RelativeTimeLabels.nextChangeAt(boundTaskItem.getCreationTimestamp(), now);
+        }
         
-        private void applyAccessibilityFeatures(TaskItem taskItem) {
-            String contentDescription = String.format(
+        private String buildContentDescription(TaskItem taskItem) {
+            return String.format(
                 "Task: %s. Status: %s. Created: %s",
                 taskItem.getDescription(),
                 taskItem.isFinished() ? "Completed" : "Pending",
                 taskItem.getFormattedCreationDate()
             );
-            itemView.setContentDescription(contentDescription);
-        }
-        
-        private void setupLongClickListener(TaskItem taskItem) {
-            itemView.setOnLongClickListener(view -> {
-                showTaskDetailsDialog(taskItem);
-                return true;
-            });
         }
         
         private void showTaskDetailsDialog(TaskItem taskItem) {
@@ -188,50 +462,60 @@ public class TaskRecyclerAdapter extends RecyclerView.Adapter<TaskRecyclerAdapte
                     .show();
         }
 
-        public void setupClickListeners(int position) {
-            setupCheckboxListener(position);
-            setupEditButtonListener(position);
-            setupDeleteButtonListener(position);
-        }
-        
-        private void setupCheckboxListener(int position) {
+        private void setupClickListeners() {
             taskCompletionCheckbox.setOnCheckedChangeListener((buttonView, isChecked) -> {
-                if (buttonView.isPressed()) {
+                if (!buttonView.isPressed()) {
+                    return;
+                }
+                int position = findBoundTaskPosition();
+                if (position != RecyclerView.NO_POSITION) {
                     handleTaskCompletionToggle(position, isChecked);
                     provideFeedbackForCompletion(isChecked);
                 }
             });
-        }
-        
-        private void setupEditButtonListener(int position) {
+            
             editTaskButton.setOnClickListener(view -> {
-                if (actionHandler != null && isValidPosition(position)) {
+                if (actionHandler != null && findBoundTaskPosition() != RecyclerView.NO_POSITION) {
+                    int taskId = boundTaskItem.getId();
                     view.animate().scaleX(0.9f).scaleY(0.9f).setDuration(100)
                         .withEndAction(() -> {
                             view.animate().scaleX(1f).scaleY(1f).setDuration(100);
-                            actionHandler.onTaskEdit(position);
+                            // The list may have moved during the animation.
+                            int position = findTaskPosition(taskId, getBindingAdapterPosition());
+                            if (position != RecyclerView.NO_POSITION) {
+                                actionHandler.onTaskEdit(position);
+                            }
                         });
                 }
             });
-        }
-        
-        private void setupDeleteButtonListener(int position) {
+            
             removeTaskButton.setOnClickListener(view -> {
-                if (actionHandler != null && isValidPosition(position)) {
-                    showDeleteConfirmationDialog(position);
+                int position = findBoundTaskPosition();
+                if (actionHandler != null && position != RecyclerView.NO_POSITION) {
+                    showDeleteConfirmationDialog(getTaskAt(position));
                 }
             });
         }
         
+        /** The row's current position, or NO_POSITION if it no longer shows the task it was bound to. */
+        private int findBoundTaskPosition() {
+            if (boundTaskItem == null) {
+                return RecyclerView.NO_POSITION;
+            }
+            int position = getBindingAdapterPosition();
+            TaskItem shownTask = getTaskAt(position);
+            return shownTask != null && shownTask.getId() == getItemId() ? position : RecyclerView.NO_POSITION;
+        }
+        
         private void provideFeedbackForCompletion(boolean isCompleted) {
             android.content.Context context = itemView.getContext();
             String message = isCompleted ? "Task completed! ✓" : "Task marked as pending";
             Toast.makeText(context, message, Toast.LENGTH_SHORT).show();
         }
         
-        private void showDeleteConfirmationDialog(int position) {
+        private void showDeleteConfirmationDialog(TaskItem taskToDelete) {
             android.content.Context context = itemView.getContext();
-            TaskItem taskToDelete = taskItemsList.get(position);
+            int taskId = taskToDelete.getId();
             
             String confirmMessage = String.format(
                 "Are you sure you want to delete this task?\n\n\"%s\"",
@@ -244,7 +528,9 @@ public class TaskRecyclerAdapter extends RecyclerView.Adapter<TaskRecyclerAdapte
                     .setTitle("Confirm Deletion")
                     .setMessage(confirmMessage)
                     .setPositiveButton("Delete", (dialog, which) -> {
-                        if (actionHandler != null) {
+                        // Resolved on confirm: rows may have moved, or this holder been reused, meanwhile.
+                        int position = findTaskPosition(taskId, getBindingAdapterPosition());
+                        if (actionHandler != null && position != RecyclerView.NO_POSITION) {
                             actionHandler.onTaskRemove(position);
                         }
                     })
@@ -254,12 +540,30 @@ public class TaskRecyclerAdapter extends RecyclerView.Adapter<TaskRecyclerAdapte
         }
 
         private void handleTaskCompletionToggle(int position, boolean isCompleted) {
-            if (position >= 0 && position < taskItemsList.size()) {
-                TaskItem taskToUpdate = taskItemsList.get(position);
-                taskToUpdate.setFinished(isCompleted);
-                databaseManager.modifyTask(taskToUpdate);
+            TaskItem currentTask = getTaskAt(position);
+            if (currentTask != null) {
+                boolean wasCompleted = currentTask.isFinished();
+                // The differ and the writer may both be reading currentTask; change a copy.
+                TaskItem updatedTask = new TaskItem(currentTask);
+                updatedTask.setFinished(isCompleted);
                 
-                updateTaskAppearanceBasedOnCompletion(isCompleted);
+                if (isPagedMode() || isCursorMode()) {
+                    // Those rows belong to the page or cursor window and are only touched here.
+                    currentTask.setFinished(isCompleted);
+                    updateTaskAppearanceBasedOnCompletion(isCompleted);
+                } else {
+                    if (position < taskColumnStore.size()) {
+                        taskColumnStore.setFinished(position, isCompleted);
+                    }
+                    // The diff rebinds this row with RowChange.COMPLETION, which animates it.
+                    updateTaskItem(position, updatedTask);
+                }
+                
+                if (completionWriteQueue != null) {
+                    completionWriteQueue.setFinished(updatedTask.getId(), isCompleted, wasCompleted);
+                } else {
+                    taskRepository.modifyTask(updatedTask, null);
+                }
             }
         }
 
@@ -271,7 +575,7 @@ public class TaskRecyclerAdapter extends RecyclerView.Adapter<TaskRecyclerAdapte
         
         private void animateTaskStateChange(boolean isCompleted) {
             itemView.animate()
-                .alpha(isCompleted ? 0.7f : 1.0f)
+                .alpha(isCompleted ? COMPLETED_ROW_ALPHA : 1.0f)
                 .setDuration(300)
                 .start();
         }
@@ -280,13 +584,11 @@ public class TaskRecyclerAdapter extends RecyclerView.Adapter<TaskRecyclerAdapte
             if (isCompleted) {
                 taskDescriptionText.setPaintFlags(
                     taskDescriptionText.getPaintFlags() | Paint.STRIKE_THRU_TEXT_FLAG);
-                taskDescriptionText.setTextColor(
-                    itemView.getContext().getColor(android.R.color.darker_gray));
+                taskDescriptionText.setTextColor(completedTextColor);
             } else {
                 taskDescriptionText.setPaintFlags(
                     taskDescriptionText.getPaintFlags() & (~Paint.STRIKE_THRU_TEXT_FLAG));
-                taskDescriptionText.setTextColor(
-                    itemView.getContext().getColor(android.R.color.black));
+                taskDescriptionText.setTextColor(pendingTextColor);
             }
         }
         
@@ -295,5 +597,19 @@ public class TaskRecyclerAdapter extends RecyclerView.Adapter<TaskRecyclerAdapte
             editTaskButton.setAlpha(buttonAlpha);
             editTaskButton.setEnabled(!isCompleted);
         }
+
+        /**
+         * Builds the row's spoken description when an accessibility service asks for it,
+         * instead of formatting one on every bind that nobody may read.
+         */
+        private class TaskRowAccessibilityDelegate extends View.AccessibilityDelegate {
+            @Override
+            public void onInitializeAccessibilityNodeInfo(View host, AccessibilityNodeInfo info) {
+                super.onInitializeAccessibilityNodeInfo(host, info);
+                if (boundTaskItem != null) {
+                    info.setContentDescription(buildContentDescription(boundTaskItem));
+                }
+            }
+        }
     }
 }
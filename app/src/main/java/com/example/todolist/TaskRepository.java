@@ -0,0 +1,526 @@
+package com.example.todolist;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Runs TaskDatabaseManager calls off the main thread. Writes are serialized on a
+ * single writer thread, reads go to a small reader pool, and results are delivered
+ * on the main looper until the repository is shut down. Successful writes are applied
+ * to the shared TaskCache, which then answers list and count reads from memory. The app
+ * uses one repository for the whole process, so writes from every activity instance
+ * land in the order they were made.
+ */
+public class TaskRepository {
+    private static final String LOG_TAG = "TaskRepository";
+    private static final int READER_THREAD_COUNT = 2;
+    private static final int WRITE_QUEUE_CAPACITY = 256;
+    private static final int READ_QUEUE_CAPACITY = 64;
+    private static final int MAINTENANCE_QUEUE_CAPACITY = 8;
+
+    // A full write queue holds the caller up until there is room; a user's change is never dropped.
+    private static final RejectedExecutionHandler WAIT_FOR_QUEUE_SPACE = (runnable, executor) -> {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Writer is shut down");
+        }
+        try {
+            executor.getQueue().put(runnable);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted waiting for the write queue", e);
+        }
+    };
+
+    public interface ResultCallback<T> {
+        void onResult(T result);
+
+        default void onError(Exception error) {
+            Log.e(LOG_TAG, "Database operation failed: " + error.getMessage());
+        }
+    }
+
+    private final TaskDatabaseManager databaseManager;
+    private final TaskCache taskCache;
+    private final ThreadPoolExecutor writeExecutor;
+    private final ThreadPoolExecutor readExecutor;
+    private final ThreadPoolExecutor maintenanceExecutor;
+    private final Handler mainThreadHandler;
+    private final TaskMaintenanceScheduler maintenanceScheduler;
+    // Reads and maintenance hold it shared; a restore holds it alone while it swaps the file.
+    private final ReentrantReadWriteLock databaseSwapLock = new ReentrantReadWriteLock(true);
+    // Bumped by every restore; cursor lists from an earlier one no longer have a connection.
+    private volatile int databaseGeneration;
+    private final Set<Future<?>> pendingReads = ConcurrentHashMap.newKeySet();
+    private volatile boolean isShutDown;
+
+    private static TaskRepository sharedInstance;
+
+    public static synchronized TaskRepository getInstance(Context context) {
+        if (sharedInstance == null) {
+            sharedInstance = new TaskRepository(TaskDatabaseManager.getInstance(context), TaskCache.getInstance());
+        }
+        return sharedInstance;
+    }
+
+    TaskRepository(TaskDatabaseManager databaseManager, TaskCache taskCache) {
+        this.databaseManager = databaseManager;
+        this.taskCache = taskCache;
+        this.writeExecutor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(WRITE_QUEUE_CAPACITY),
+            new NamedThreadFactory("task-db-writer"),
+            WAIT_FOR_QUEUE_SPACE);
+        this.readExecutor = new ThreadPoolExecutor(
+            READER_THREAD_COUNT, READER_THREAD_COUNT, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(READ_QUEUE_CAPACITY),
+            new NamedThreadFactory("task-db-reader"));
+        this.maintenanceExecutor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAINTENANCE_QUEUE_CAPACITY),
+            new NamedThreadFactory("task-db-maintenance"));
+        this.mainThreadHandler = new Handler(Looper.getMainLooper());
+        this.maintenanceScheduler = new TaskMaintenanceScheduler(databaseManager,
+            slice -> maintenanceExecutor.execute(() -> runWhileDatabaseOpen(slice)), mainThreadHandler);
+    }
+
+    public TaskDatabaseManager getDatabaseManager() {
+        return databaseManager;
+    }
+
+    public TaskCache getTaskCache() {
+        return taskCache;
+    }
+
+    /** Idle-time optimize, incremental vacuum and checkpoints; start and stop it with the UI. */
+    public TaskMaintenanceScheduler getMaintenanceScheduler() {
+        return maintenanceScheduler;
+    }
+
+    public Future<List<TaskItem>> loadAllTasks(ResultCallback<List<TaskItem>> callback) {
+        return submit(readExecutor, this::retrieveAllTasksThroughCache, callback);
+    }
+
+    /** Served from TaskDatabaseManager's in-memory copy of task_stats. */
+    public Future<Integer> getTaskCount(ResultCallback<Integer> callback) {
+        return submit(readExecutor, databaseManager::getTaskCount, callback);
+    }
+
+    public Future<int[]> loadTaskCounts(ResultCallback<int[]> callback) {
+        return submit(readExecutor, databaseManager::getTaskCounts, callback);
+    }
+
+    public Future<TaskStatistics> loadTaskStatistics(int maxDays, ResultCallback<TaskStatistics> callback) {
+        return submit(readExecutor, () -> databaseManager.loadTaskStatistics(maxDays), callback);
+    }
+
+    /** Answered from the cache's description index when loaded, else by an indexed query. */
+    public Future<Boolean> isDescriptionTaken(String description, ResultCallback<Boolean> callback) {
+        return submit(readExecutor, () -> {
+            Boolean cachedAnswer = taskCache.containsDescription(description);
+            return cachedAnswer != null ? cachedAnswer : databaseManager.hasTaskWithDescription(description);
+        }, callback);
+    }
+
+    public Future<List<TaskItem>> loadFirstTaskPage(int pageSize, ResultCallback<List<TaskItem>> callback) {
+        return submit(readExecutor, () -> databaseManager.retrieveFirstTaskPage(pageSize), callback);
+    }
+
+    public Future<List<TaskItem>> loadTaskPageAfter(long creationTimestamp, int taskId, int pageSize,
+                                                    ResultCallback<List<TaskItem>> callback) {
+        return submit(readExecutor,
+            () -> databaseManager.retrieveTaskPageAfter(creationTimestamp, taskId, pageSize),
+            callback);
+    }
+
+    /** Null in the callback when the database manager cannot keep a cursor open. */
+    public Future<List<TaskItem>> loadTaskPageAt(int offset, int pageSize, ResultCallback<List<TaskItem>> callback) {
+        return submit(readExecutor, () -> databaseManager.retrieveTaskPageAt(offset, pageSize), callback);
+    }
+
+    /** The list reads its rows through the reader pool, so binding never moves the cursor. */
+    public Future<TaskCursorList> openTaskCursorList(ResultCallback<TaskCursorList> callback) {
+        return submit(readExecutor, () -> {
+            TaskCursorList cursorList = databaseManager.openTaskCursorList();
+            if (cursorList != null) {
+                cursorList.setTaskRepository(this, databaseGeneration);
+            }
+            return cursorList;
+        }, callback);
+    }
+
+    Future<List<TaskItem>> readCursorRows(TaskCursorList cursorList, int startPosition, int count,
+                                          ResultCallback<List<TaskItem>> callback) {
+        return submit(readExecutor, () -> cursorList.getDatabaseGeneration() == databaseGeneration
+            ? cursorList.readRows(startPosition, count)
+            : Collections.<TaskItem>emptyList(), callback);
+    }
+
+    public Future<List<TaskItem>> searchTasks(String searchTerm, ResultCallback<List<TaskItem>> callback) {
+        return submit(readExecutor, () -> databaseManager.searchTasksByDescription(searchTerm), callback);
+    }
+
+    public Future<List<TaskSearchResult>> searchTasksRanked(String searchTerm, int maxResults,
+                                                            CancellationSignal cancellationSignal,
+                                                            ResultCallback<List<TaskSearchResult>> callback) {
+        return submit(readExecutor,
+            () -> databaseManager.searchTasksRanked(searchTerm, maxResults, cancellationSignal), callback);
+    }
+
+    public Future<Long> insertTask(TaskItem taskItem, ResultCallback<Long> callback) {
+        return submit(writeExecutor, () -> {
+            long insertedRowId = databaseManager.insertTask(taskItem);
+            if (insertedRowId != -1) {
+                taskCache.taskInserted(taskItem);
+            }
+            return insertedRowId;
+        }, callback);
+    }
+
+    public Future<Boolean> modifyTask(TaskItem taskItem, ResultCallback<Boolean> callback) {
+        return submit(writeExecutor, () -> {
+            boolean modified = databaseManager.modifyTask(taskItem);
+            if (modified) {
+                taskCache.taskModified(taskItem);
+            }
+            return modified;
+        }, callback);
+    }
+
+    public Future<Boolean> removeTask(int taskId, ResultCallback<Boolean> callback) {
+        return submit(writeExecutor, () -> {
+            boolean removed = databaseManager.removeTask(taskId);
+            if (removed) {
+                taskCache.taskRemoved(taskId);
+            }
+            return removed;
+        }, callback);
+    }
+
+    public Future<Integer> insertTasks(List<TaskItem> taskItems, ResultCallback<Integer> callback) {
+        return submit(writeExecutor, () -> {
+            int insertedCount = databaseManager.insertTasks(taskItems);
+            if (insertedCount > 0) {
+                taskCache.tasksInserted(taskItems);
+            }
+            return insertedCount;
+        }, callback);
+    }
+
+    public Future<Integer> modifyTasks(List<TaskItem> taskItems, ResultCallback<Integer> callback) {
+        return submit(writeExecutor, () -> {
+            int modifiedCount = databaseManager.modifyTasks(taskItems);
+            if (modifiedCount > 0) {
+                taskCache.tasksModified(taskItems);
+            }
+            return modifiedCount;
+        }, callback);
+    }
+
+    /** Skips tasks changed after their toggle; resolves to -1 if nothing was written. */
+    public Future<Integer> modifyTaskCompletions(int[] taskIds, boolean[] finished, long[] toggledAt,
+                                                 ResultCallback<Integer> callback) {
+        return submit(writeExecutor, () -> {
+            int modifiedCount = databaseManager.modifyTaskCompletions(taskIds, finished, toggledAt);
+            if (modifiedCount == taskIds.length) {
+                taskCache.taskCompletionsModified(taskIds, finished, toggledAt);
+            } else if (modifiedCount >= 0) {
+                // Some or all tasks were skipped or are gone; reload rather than guess which,
+                // so no row keeps showing a state the database never took.
+                taskCache.tasksReloaded();
+            }
+            return modifiedCount;
+        }, callback);
+    }
+
+    public Future<Integer> removeTasks(int[] taskIds, ResultCallback<Integer> callback) {
+        return submit(writeExecutor, () -> {
+            int removedCount = databaseManager.removeTasks(taskIds);
+            if (removedCount > 0) {
+                taskCache.tasksRemoved(taskIds);
+            }
+            return removedCount;
+        }, callback);
+    }
+
+    /**
+     * Runs on the reader pool, so writes carry on during a long export. Tasks are read in id
+     * order a chunk at a time; each is written once, as it was when its chunk was read.
+     */
+    public Future<Integer> exportTasks(File target, TaskDataTransfer.Format format, boolean compress,
+                                       ResultCallback<Integer> callback) {
+        return submit(readExecutor,
+            () -> new TaskDataTransfer(databaseManager).exportTasks(target, format, compress), callback);
+    }
+
+    public Future<Integer> importTasks(File source, ResultCallback<Integer> callback) {
+        return submit(writeExecutor, () -> {
+            try {
+                return new TaskDataTransfer(databaseManager).importTasks(source);
+            } finally {
+                // Even a failed import may have committed chunks.
+                taskCache.tasksReloaded();
+            }
+        }, callback);
+    }
+
+    /**
+     * Runs on its own thread and connection, so reads and writes carry on during the copy.
+     * Progress is delivered on the main looper. The result is the backup's size in bytes.
+     */
+    public Future<Long> backupDatabase(File target, CancellationSignal cancellationSignal,
+                                       TaskDatabaseBackup.ProgressListener progressListener,
+                                       ResultCallback<Long> callback) {
+        TaskDatabaseBackup.ProgressListener mainThreadProgress = progressListener == null ? null
+            : percent -> mainThreadHandler.post(() -> {
+                if (!isShutDown) {
+                    progressListener.onProgress(percent);
+                }
+            });
+        return submit(maintenanceExecutor,
+            () -> new TaskDatabaseBackup(databaseManager).backup(target, cancellationSignal, mainThreadProgress),
+            callback);
+    }
+
+    /**
+     * Switches a database file made before incremental auto-vacuum over to it, so idle
+     * maintenance can reclaim its free pages from then on. That is one full VACUUM, which
+     * holds up every write while it runs, so maintenance never starts it; only an explicit
+     * user action should. The result is the pages released.
+     */
+    public Future<Integer> convertToIncrementalAutoVacuum(ResultCallback<Integer> callback) {
+        return submit(writeExecutor, databaseManager::convertToIncrementalAutoVacuum, callback);
+    }
+
+    /**
+     * Runs on the writer thread so no write lands mid-swap, and first waits out the reads and
+     * maintenance slices still using the old connection; new ones wait for the swap to end.
+     * Open cursor lists stop reading, and the cache reload tells the screen to open new ones.
+     * The result is the restored task count.
+     */
+    public Future<Integer> restoreDatabase(File backup, CancellationSignal cancellationSignal,
+                                           ResultCallback<Integer> callback) {
+        return submit(writeExecutor, () -> {
+            boolean wasMaintenanceStarted = maintenanceScheduler.isStarted();
+            maintenanceScheduler.stop();
+            databaseSwapLock.writeLock().lock();
+            try {
+                new TaskDatabaseBackup(databaseManager).restore(backup, cancellationSignal);
+                return databaseManager.getTaskCount();
+            } finally {
+                databaseGeneration++;
+                databaseSwapLock.writeLock().unlock();
+                taskCache.tasksReloaded();
+                if (wasMaintenanceStarted) {
+                    maintenanceScheduler.start();
+                }
+            }
+        }, callback);
+    }
+
+    Executor getWriteExecutor() {
+        return writeExecutor;
+    }
+
+    Executor getReadExecutor() {
+        return readExecutor;
+    }
+
+    /** Drops the reads still waiting, so their results never reach a screen that is gone. */
+    public void cancelPendingReads() {
+        for (Future<?> pendingRead : pendingReads) {
+            pendingRead.cancel(false);
+        }
+        pendingReads.clear();
+    }
+
+    public void shutdown(boolean closeDatabase) {
+        isShutDown = true;
+        maintenanceScheduler.stop();
+
+        cancelPendingReads();
+        readExecutor.shutdownNow();
+        maintenanceExecutor.shutdownNow();
+
+        // Writes already handed to the writer keep running so no user change is lost;
+        // the connection is closed behind them on the same thread.
+        if (closeDatabase) {
+            try {
+                writeExecutor.execute(databaseManager::close);
+            } catch (RejectedExecutionException e) {
+                Log.e(LOG_TAG, "Could not schedule database close: " + e.getMessage());
+            }
+        }
+        writeExecutor.shutdown();
+    }
+
+    private List<TaskItem> retrieveAllTasksThroughCache() {
+        List<TaskItem> cachedTasks = taskCache.getAllTasks();
+        if (cachedTasks != null) {
+            return cachedTasks;
+        }
+
+        long modificationCount = taskCache.getModificationCount();
+        int expectedTaskCount = databaseManager.getTaskCount();
+        List<TaskItem> loadedTasks = databaseManager.retrieveAllTasks();
+
+        // A failed read comes back short; never install it as the whole table.
+        if (loadedTasks.size() == expectedTaskCount) {
+            taskCache.replaceAll(loadedTasks, modificationCount);
+        }
+        return loadedTasks;
+    }
+
+    private <T> Future<T> submit(Executor executor, Callable<T> operation, ResultCallback<T> callback) {
+        Callable<T> guardedOperation = executor == writeExecutor ? operation : () -> {
+            databaseSwapLock.readLock().lock();
+            try {
+                return operation.call();
+            } finally {
+                databaseSwapLock.readLock().unlock();
+            }
+        };
+        CallbackFutureTask<T> futureTask = new CallbackFutureTask<>(guardedOperation, callback);
+
+        if (isShutDown) {
+            futureTask.cancel(false);
+            return futureTask;
+        }
+
+        if (executor == readExecutor) {
+            pendingReads.add(futureTask);
+        }
+        if (executor != maintenanceExecutor) {
+            maintenanceScheduler.noteDatabaseActivity();
+        }
+        try {
+            executor.execute(futureTask);
+        } catch (RejectedExecutionException e) {
+            Log.e(LOG_TAG, "Database operation rejected: " + e.getMessage());
+            pendingReads.remove(futureTask);
+            futureTask.cancel(false);
+            deliverError(callback, e);
+        }
+        return futureTask;
+    }
+
+    private void runWhileDatabaseOpen(Runnable operation) {
+        databaseSwapLock.readLock().lock();
+        try {
+            operation.run();
+        } finally {
+            databaseSwapLock.readLock().unlock();
+        }
+    }
+
+    private <T> void deliverResult(ResultCallback<T> callback, T result) {
+        if (callback == null) {
+            closeUndelivered(result);
+            return;
+        }
+        mainThreadHandler.post(() -> {
+            if (!isShutDown) {
+                callback.onResult(result);
+            } else {
+                closeUndelivered(result);
+            }
+        });
+    }
+
+    /** Results that own a cursor are closed when nobody is left to receive them. */
+    private static void closeUndelivered(Object result) {
+        if (result instanceof Closeable) {
+            try {
+                ((Closeable) result).close();
+            } catch (IOException e) {
+                Log.e(LOG_TAG, "Error closing undelivered result: " + e.getMessage());
+            }
+        }
+    }
+
+    private <T> void deliverError(ResultCallback<T> callback, Exception error) {
+        if (callback == null) {
+            return;
+        }
+        mainThreadHandler.post(() -> {
+            if (!isShutDown) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    private class CallbackFutureTask<T> extends FutureTask<T> {
+        private final ResultCallback<T> callback;
+
+        CallbackFutureTask(Callable<T> operation, ResultCallback<T> callback) {
+            super(operation);
+            this.callback = callback;
+        }
+
+        /** A result that lands after cancel() is dropped by FutureTask, so close it here. */
+        @Override
+        protected void set(T result) {
+            super.set(result);
+            if (isCancelled()) {
+                closeUndelivered(result);
+            }
+        }
+
+        @Override
+        protected void done() {
+            pendingReads.remove(this);
+
+            if (isCancelled()) {
+                return;
+            }
+
+            try {
+                deliverResult(callback, get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                deliverError(callback, cause instanceof Exception ? (Exception) cause : e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String threadNamePrefix;
+        private final AtomicInteger threadCounter = new AtomicInteger();
+
+        NamedThreadFactory(String threadNamePrefix) {
+            this.threadNamePrefix = threadNamePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadCounter.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.todolist;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * One step of the task database schema history. Steps must be safe to re-run after
+ * a crash, because chunked copies commit their progress as they go.
+ */
+public abstract class TaskSchemaMigration {
+    private final int targetVersion;
+    private final String description;
+
+    protected TaskSchemaMigration(int targetVersion, String description) {
+        this.targetVersion = targetVersion;
+        this.description = description;
+    }
+
+    public int getTargetVersion() {
+        return targetVersion;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public abstract void apply(SQLiteDatabase database, TaskMigrationEngine engine);
+}
@@ -0,0 +1,173 @@
+package com.example.todolist;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Schema history of personal_task_manager.db. SQL here is frozen as of each version
+ * and must not follow later changes to TaskDatabaseManager's constants.
+ */
+final class TaskSchemaMigrations {
+
+    private TaskSchemaMigrations() {
+    }
+
+    static List<TaskSchemaMigration> all() {
+        return Arrays.asList(
+            new AddLastModifiedTimestamp(),
+            new AddTaskIndexes(),
+            new AddDescriptionSearchIndex(),
+            new AddNormalizedDescription(),
+            new AddTaskStatistics()
+        );
+    }
+
+    /** Version 1 stored tasks without last_modified_timestamp. */
+    static final class AddLastModifiedTimestamp extends TaskSchemaMigration {
+        AddLastModifiedTimestamp() {
+            super(2, "add last_modified_timestamp");
+        }
+
+        @Override
+        public void apply(SQLiteDatabase database, TaskMigrationEngine engine) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS task_items_v2 (" +
+                "task_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "description TEXT NOT NULL, " +
+                "is_finished INTEGER DEFAULT 0, " +
+                "creation_timestamp INTEGER NOT NULL, " +
+                "last_modified_timestamp INTEGER NOT NULL)");
+
+            engine.copyInChunks(database, "task_items", "task_items_v2",
+                "task_id, description, is_finished, creation_timestamp, last_modified_timestamp",
+                "task_id, IFNULL(description, ''), IFNULL(is_finished, 0), creation_timestamp, creation_timestamp",
+                "task_id");
+
+            database.execSQL("DROP TABLE task_items");
+            database.execSQL("ALTER TABLE task_items_v2 RENAME TO task_items");
+        }
+    }
+
+    static final class AddTaskIndexes extends TaskSchemaMigration {
+        AddTaskIndexes() {
+            super(3, "add ordering and is_finished indexes");
+        }
+
+        @Override
+        public void apply(SQLiteDatabase database, TaskMigrationEngine engine) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS idx_task_items_creation " +
+                "ON task_items (creation_timestamp, task_id)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS idx_task_items_finished_creation " +
+                "ON task_items (is_finished, creation_timestamp)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS idx_task_items_finished_modified " +
+                "ON task_items (is_finished, last_modified_timestamp)");
+        }
+    }
+
+    static final class AddDescriptionSearchIndex extends TaskSchemaMigration {
+        AddDescriptionSearchIndex() {
+            super(4, "add FTS4 index on description");
+        }
+
+        @Override
+        public void apply(SQLiteDatabase database, TaskMigrationEngine engine) {
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS task_items_fts USING fts4(" +
+                "content=\"task_items\", description, tokenize=unicode61)");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS task_items_fts_after_insert AFTER INSERT ON task_items " +
+                "BEGIN INSERT INTO task_items_fts (docid, description) VALUES (new.task_id, new.description); END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS task_items_fts_before_update " +
+                "BEFORE UPDATE OF description ON task_items WHEN old.description IS NOT new.description " +
+                "BEGIN DELETE FROM task_items_fts WHERE docid = old.task_id; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS task_items_fts_after_update " +
+                "AFTER UPDATE OF description ON task_items WHEN old.description IS NOT new.description " +
+                "BEGIN INSERT INTO task_items_fts (docid, description) VALUES (new.task_id, new.description); END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS task_items_fts_before_delete BEFORE DELETE ON task_items " +
+                "BEGIN DELETE FROM task_items_fts WHERE docid = old.task_id; END");
+
+            // An external-content index cannot report which rows it already holds, so it is
+            // rebuilt in one statement; re-running it after a crash is harmless.
+            database.execSQL("INSERT INTO task_items_fts (task_items_fts) VALUES ('rebuild')");
+        }
+    }
+
+    static final class AddNormalizedDescription extends TaskSchemaMigration {
+        AddNormalizedDescription() {
+            super(5, "add normalized_description for duplicate lookups");
+        }
+
+        @Override
+        public void apply(SQLiteDatabase database, TaskMigrationEngine engine) {
+            if (!engine.hasColumn(database, "task_items", "normalized_description")) {
+                database.execSQL("ALTER TABLE task_items ADD COLUMN normalized_description TEXT");
+            }
+
+            // The canonical form is defined in Java, so it cannot be frozen as SQL; a later
+            // change to it needs its own migration to recompute the column.
+            engine.backfillInChunks(database, "task_items", "task_id", "description",
+                "normalized_description", TaskValidationUtils::normalizeForDuplicateCheck);
+
+            database.execSQL("CREATE INDEX IF NOT EXISTS idx_task_items_normalized " +
+                "ON task_items (normalized_description)");
+        }
+    }
+
+    static final class AddTaskStatistics extends TaskSchemaMigration {
+        AddTaskStatistics() {
+            super(6, "add trigger-maintained task_stats and task_daily_stats");
+        }
+
+        @Override
+        public void apply(SQLiteDatabase database, TaskMigrationEngine engine) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS task_stats (" +
+                "stats_id INTEGER PRIMARY KEY CHECK (stats_id = 0), " +
+                "total_count INTEGER NOT NULL, " +
+                "completed_count INTEGER NOT NULL)");
+            database.execSQL("CREATE TABLE IF NOT EXISTS task_daily_stats (" +
+                "day INTEGER PRIMARY KEY, " +
+                "created_count INTEGER NOT NULL, " +
+                "completed_count INTEGER NOT NULL)");
+
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS task_stats_after_insert AFTER INSERT ON task_items BEGIN " +
+                "UPDATE task_stats SET total_count = total_count + 1, completed_count = completed_count + " +
+                "(CASE WHEN new.is_finished = 1 THEN 1 ELSE 0 END) WHERE stats_id = 0; " +
+                "INSERT OR IGNORE INTO task_daily_stats VALUES (new.creation_timestamp / 86400000, 0, 0); " +
+                "UPDATE task_daily_stats SET created_count = created_count + 1, completed_count = completed_count + " +
+                "(CASE WHEN new.is_finished = 1 THEN 1 ELSE 0 END) WHERE day = new.creation_timestamp / 86400000; " +
+                "DELETE FROM task_daily_stats WHERE day = new.creation_timestamp / 86400000 AND created_count = 0; " +
+                "END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS task_stats_after_delete AFTER DELETE ON task_items BEGIN " +
+                "UPDATE task_stats SET total_count = total_count + -1, completed_count = completed_count + " +
+                "-(CASE WHEN old.is_finished = 1 THEN 1 ELSE 0 END) WHERE stats_id = 0; " +
+                "INSERT OR IGNORE INTO task_daily_stats VALUES (old.creation_timestamp / 86400000, 0, 0); " +
+                "UPDATE task_daily_stats SET created_count = created_count + -1, completed_count = completed_count + " +
+                "-(CASE WHEN old.is_finished = 1 THEN 1 ELSE 0 END) WHERE day = old.creation_timestamp / 86400000; " +
+                "DELETE FROM task_daily_stats WHERE day = old.creation_timestamp / 86400000 AND created_count = 0; " +
+                "END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS task_stats_after_update " +
+                "AFTER UPDATE OF is_finished, creation_timestamp ON task_items " +
+                "WHEN old.is_finished IS NOT new.is_finished OR old.creation_timestamp IS NOT new.creation_timestamp BEGIN " +
+                "UPDATE task_stats SET total_count = total_count + 0, completed_count = completed_count + " +
+                "(CASE WHEN new.is_finished = 1 THEN 1 ELSE 0 END) - (CASE WHEN old.is_finished = 1 THEN 1 ELSE 0 END) " +
+                "WHERE stats_id = 0; " +
+                "INSERT OR IGNORE INTO task_daily_stats VALUES (old.creation_timestamp / 86400000, 0, 0); " +
+                "UPDATE task_daily_stats SET created_count = created_count + -1, completed_count = completed_count + " +
+                "-(CASE WHEN old.is_finished = 1 THEN 1 ELSE 0 END) WHERE day = old.creation_timestamp / 86400000; " +
+                "DELETE FROM task_daily_stats WHERE day = old.creation_timestamp / 86400000 AND created_count = 0; " +
+                "INSERT OR IGNORE INTO task_daily_stats VALUES (new.creation_timestamp / 86400000, 0, 0); " +
+                "UPDATE task_daily_stats SET created_count = created_count + 1, completed_count = completed_count + " +
+                "(CASE WHEN new.is_finished = 1 THEN 1 ELSE 0 END) WHERE day = new.creation_timestamp / 86400000; " +
+                "DELETE FROM task_daily_stats WHERE day = new.creation_timestamp / 86400000 AND created_count = 0; " +
+                "END");
+
+            // Recounted from scratch in the same step as the triggers, so a re-run after a
+            // crash starts again from the table itself.
+            database.execSQL("INSERT OR REPLACE INTO task_stats (stats_id, total_count, completed_count) " +
+                "SELECT 0, COUNT(*), IFNULL(SUM(CASE WHEN is_finished = 1 THEN 1 ELSE 0 END), 0) FROM task_items");
+            database.execSQL("DELETE FROM task_daily_stats");
+            database.execSQL("INSERT INTO task_daily_stats (day, created_count, completed_count) " +
+                "SELECT creation_timestamp / 86400000, COUNT(*), SUM(CASE WHEN is_finished = 1 THEN 1 ELSE 0 END) " +
+                "FROM task_items GROUP BY creation_timestamp / 86400000");
+        }
+    }
+}
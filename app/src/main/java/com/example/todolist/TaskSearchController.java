@@ -0,0 +1,198 @@
+package com.example.todolist;
+
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Drives as-you-type search from the main thread. Keystrokes are debounced, a newer
+ * query cancels the one in flight, and a query that only extends the previous one is
+ * answered by filtering the previous results instead of hitting the database.
+ */
+public class TaskSearchController {
+    private static final String LOG_TAG = "TaskSearchController";
+    private static final boolean DEBUG_LOGGING = Log.isLoggable(LOG_TAG, Log.DEBUG);
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 250;
+    public static final int MAX_SEARCH_RESULTS = 200;
+
+    public interface SearchResultListener {
+        void onSearchResults(String searchTerm, List<TaskSearchResult> results);
+        void onSearchCleared();
+    }
+
+    private final TaskRepository taskRepository;
+    private final SearchResultListener resultListener;
+    private final long debounceMillis;
+    private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
+    private final Runnable debouncedSearch = this::runPendingSearch;
+
+    private String pendingSearchTerm;
+    private long pendingKeystrokeTime;
+    private int searchGeneration;
+    private Future<List<TaskSearchResult>> inFlightSearch;
+    private CancellationSignal inFlightCancellation;
+
+    private String heldSearchTerm;
+    private List<TaskSearchResult> heldResults = Collections.emptyList();
+    private boolean heldResultsComplete;
+
+    private long lastKeystrokeToResultsMillis = -1;
+    private long maxKeystrokeToResultsMillis;
+    private long totalKeystrokeToResultsMillis;
+    private int measuredSearchCount;
+
+    public TaskSearchController(TaskRepository taskRepository, SearchResultListener resultListener) {
+        this(taskRepository, resultListener, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public TaskSearchController(TaskRepository taskRepository, SearchResultListener resultListener,
+                                long debounceMillis) {
+        this.taskRepository = taskRepository;
+        this.resultListener = resultListener;
+        this.debounceMillis = debounceMillis;
+    }
+
+    public void onSearchTermChanged(CharSequence searchText) {
+        String searchTerm = searchText != null ? searchText.toString() : "";
+        long keystrokeTime = SystemClock.uptimeMillis();
+
+        cancelPendingSearch();
+
+        if (TaskSearchQuery.toPrefixMatchQuery(searchTerm) == null) {
+            boolean wasActive = isSearchActive();
+            pendingSearchTerm = null;
+            invalidateResults();
+            if (wasActive) {
+                resultListener.onSearchCleared();
+            }
+            return;
+        }
+
+        pendingSearchTerm = searchTerm;
+        pendingKeystrokeTime = keystrokeTime;
+
+        if (heldResultsComplete && TaskSearchQuery.canNarrow(heldSearchTerm, searchTerm)) {
+            holdResults(searchTerm, TaskSearchQuery.narrowResults(heldResults, searchTerm), true);
+            deliverResults(searchTerm, heldResults, keystrokeTime);
+            return;
+        }
+
+        mainThreadHandler.postDelayed(debouncedSearch, debounceMillis);
+    }
+
+    /** Re-runs the current search against the database, e.g. after tasks changed. */
+    public void refresh() {
+        if (pendingSearchTerm == null) {
+            return;
+        }
+        cancelPendingSearch();
+        invalidateResults();
+        pendingKeystrokeTime = SystemClock.uptimeMillis();
+        runPendingSearch();
+    }
+
+    /** Forces the next keystroke to query the database instead of narrowing stale results. */
+    public void invalidateResults() {
+        heldSearchTerm = null;
+        heldResults = Collections.emptyList();
+        heldResultsComplete = false;
+    }
+
+    public boolean isSearchActive() {
+        return pendingSearchTerm != null;
+    }
+
+    public void release() {
+        cancelPendingSearch();
+        pendingSearchTerm = null;
+        invalidateResults();
+    }
+
+    public long getLastKeystrokeToResultsMillis() {
+        return lastKeystrokeToResultsMillis;
+    }
+
+    public long getMaxKeystrokeToResultsMillis() {
+        return maxKeystrokeToResultsMillis;
+    }
+
+    public double getAverageKeystrokeToResultsMillis() {
+        return measuredSearchCount > 0 ? (double) totalKeystrokeToResultsMillis / measuredSearchCount : 0;
+    }
+
+    public int getMeasuredSearchCount() {
+        return measuredSearchCount;
+    }
+
+    private void runPendingSearch() {
+        final String searchTerm = pendingSearchTerm;
+        final long keystrokeTime = pendingKeystrokeTime;
+        final int generation = ++searchGeneration;
+        final CancellationSignal cancellationSignal = new CancellationSignal();
+
+        inFlightCancellation = cancellationSignal;
+        inFlightSearch = taskRepository.searchTasksRanked(searchTerm, MAX_SEARCH_RESULTS, cancellationSignal,
+            new TaskRepository.ResultCallback<List<TaskSearchResult>>() {
+                @Override
+                public void onResult(List<TaskSearchResult> results) {
+                    if (generation != searchGeneration) {
+                        return;
+                    }
+                    inFlightSearch = null;
+                    inFlightCancellation = null;
+                    holdResults(searchTerm, results, results.size() < MAX_SEARCH_RESULTS);
+                    deliverResults(searchTerm, results, keystrokeTime);
+                }
+
+                @Override
+                public void onError(Exception error) {
+                    if (generation == searchGeneration) {
+                        inFlightSearch = null;
+                        inFlightCancellation = null;
+                        Log.e(LOG_TAG, "Error searching tasks: " + error.getMessage());
+                    }
+                }
+            });
+    }
+
+    private void cancelPendingSearch() {
+        mainThreadHandler.removeCallbacks(debouncedSearch);
+        searchGeneration++;
+
+        if (inFlightCancellation != null) {
+            inFlightCancellation.cancel();
+            inFlightCancellation = null;
+        }
+        if (inFlightSearch != null) {
+            inFlightSearch.cancel(false);
+            inFlightSearch = null;
+        }
+    }
+
+    private void holdResults(String searchTerm, List<TaskSearchResult> results, boolean complete) {
+        heldSearchTerm = searchTerm;
+        heldResults = results;
+        heldResultsComplete = complete;
+    }
+
+    private void deliverResults(String searchTerm, List<TaskSearchResult> results, long keystrokeTime) {
+        long latencyMillis = SystemClock.uptimeMillis() - keystrokeTime;
+
+        lastKeystrokeToResultsMillis = latencyMillis;
+        maxKeystrokeToResultsMillis = Math.max(maxKeystrokeToResultsMillis, latencyMillis);
+        totalKeystrokeToResultsMillis += latencyMillis;
+        measuredSearchCount++;
+
+        if (DEBUG_LOGGING) {
+            Log.d(LOG_TAG, "Search '" + searchTerm + "' returned " + results.size() +
+                " tasks " + latencyMillis + " ms after keystroke");
+        }
+        resultListener.onSearchResults(searchTerm, results);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.todolist;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Turns user input into an FTS4 prefix MATCH expression and scores rows from the
+ * matchinfo(..., 'pcnalx') blob with Okapi BM25, which FTS4 does not provide itself.
+ */
+public final class TaskSearchQuery {
+    public static final String MATCHINFO_FORMAT = "pcnalx";
+
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{Mn}+");
+
+    private TaskSearchQuery() {
+    }
+
+    /** Returns null when the input has no searchable token. */
+    public static String toPrefixMatchQuery(String searchTerm) {
+        if (searchTerm == null) {
+            return null;
+        }
+
+        StringBuilder matchQuery = new StringBuilder(searchTerm.length() + 8);
+        int tokenStart = -1;
+
+        for (int i = 0; i <= searchTerm.length(); i++) {
+            boolean isTokenChar = i < searchTerm.length() && Character.isLetterOrDigit(searchTerm.charAt(i));
+
+            if (isTokenChar && tokenStart < 0) {
+                tokenStart = i;
+            } else if (!isTokenChar && tokenStart >= 0) {
+                if (matchQuery.length() > 0) {
+                    matchQuery.append(' ');
+                }
+                matchQuery.append(searchTerm, tokenStart, i).append('*');
+                tokenStart = -1;
+            }
+        }
+
+        return matchQuery.length() > 0 ? matchQuery.toString() : null;
+    }
+
+    /**
+     * True when every row matching searchTerm also matches previousSearchTerm, i.e. the new
+     * term only lengthens the last word or adds words after it.
+     */
+    public static boolean canNarrow(String previousSearchTerm, String searchTerm) {
+        String previousMatchQuery = toPrefixMatchQuery(previousSearchTerm);
+        String matchQuery = toPrefixMatchQuery(searchTerm);
+
+        if (previousMatchQuery == null || matchQuery == null) {
+            return false;
+        }
+
+        String previousPrefix = previousMatchQuery.substring(0, previousMatchQuery.length() - 1);
+        return foldForMatching(matchQuery).startsWith(foldForMatching(previousPrefix));
+    }
+
+    /**
+     * Keeps the results whose description still has a word starting with each term word,
+     * approximating the unicode61 tokenizer's case and diacritic folding.
+     */
+    public static List<TaskSearchResult> narrowResults(List<TaskSearchResult> previousResults, String searchTerm) {
+        List<TaskSearchResult> narrowedResults = new ArrayList<>();
+        String matchQuery = toPrefixMatchQuery(searchTerm);
+
+        if (matchQuery == null) {
+            return narrowedResults;
+        }
+
+        String[] prefixes = foldForMatching(matchQuery.replace("*", "")).split(" ");
+        for (TaskSearchResult previousResult : previousResults) {
+            String descriptionWords = toPrefixMatchQuery(previousResult.getTaskItem().getDescription());
+            if (descriptionWords != null &&
+                    containsEveryPrefix(foldForMatching(descriptionWords.replace("*", "")), prefixes)) {
+                narrowedResults.add(previousResult);
+            }
+        }
+        return narrowedResults;
+    }
+
+    private static boolean containsEveryPrefix(String foldedWords, String[] prefixes) {
+        for (String prefix : prefixes) {
+            if (!foldedWords.startsWith(prefix) && !foldedWords.contains(" " + prefix)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String foldForMatching(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("");
+    }
+
+    public static double scoreMatchInfo(byte[] matchInfoBlob) {
+        if (matchInfoBlob == null || matchInfoBlob.length < 12) {
+            return 0;
+        }
+
+        IntBuffer matchInfo = ByteBuffer.wrap(matchInfoBlob).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phraseCount = matchInfo.get(0);
+        int columnCount = matchInfo.get(1);
+        int documentCount = matchInfo.get(2);
+        int averageLengthOffset = 3;
+        int rowLengthOffset = averageLengthOffset + columnCount;
+        int hitsOffset = rowLengthOffset + columnCount;
+        double score = 0;
+
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount; column++) {
+                int hitBase = hitsOffset + 3 * (phrase * columnCount + column);
+                int hitsInRow = matchInfo.get(hitBase);
+                int documentsWithHits = matchInfo.get(hitBase + 2);
+
+                if (hitsInRow == 0) {
+                    continue;
+                }
+
+                double averageLength = Math.max(1, matchInfo.get(averageLengthOffset + column));
+                double rowLength = matchInfo.get(rowLengthOffset + column);
+                double inverseDocumentFrequency = Math.log(
+                    1 + (documentCount - documentsWithHits + 0.5) / (documentsWithHits + 0.5));
+                double termSaturation = hitsInRow * (BM25_K1 + 1) /
+                    (hitsInRow + BM25_K1 * (1 - BM25_B + BM25_B * rowLength / averageLength));
+
+                score += inverseDocumentFrequency * termSaturation;
+            }
+        }
+
+        return score;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.todolist;
+
+public class TaskSearchResult {
+    public static final String SNIPPET_MATCH_START = "\u0002";
+    public static final String SNIPPET_MATCH_END = "\u0003";
+    public static final String SNIPPET_ELLIPSIS = "…";
+
+    private final TaskItem taskItem;
+    private final String snippet;
+    private final double relevance;
+
+    public TaskSearchResult(TaskItem taskItem, String snippet, double relevance) {
+        this.taskItem = taskItem;
+        this.snippet = snippet;
+        this.relevance = relevance;
+    }
+
+    public TaskItem getTaskItem() {
+        return taskItem;
+    }
+
+    /** Matched terms are wrapped in SNIPPET_MATCH_START / SNIPPET_MATCH_END. */
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public double getRelevance() {
+        return relevance;
+    }
+}
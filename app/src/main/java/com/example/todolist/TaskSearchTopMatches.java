@@ -0,0 +1,118 @@
+package com.example.todolist;
+
+import java.util.Arrays;
+
+/**
+ * The best maxMatches search matches seen so far, by relevance and then by newest
+ * creation time. Kept as a min-heap over parallel arrays, so scanning every match costs
+ * memory for the kept ones only.
+ */
+final class TaskSearchTopMatches {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int maxMatches;
+    private int[] taskIds;
+    private double[] relevances;
+    private long[] creationTimes;
+    private int size;
+    private boolean isSorted;
+
+    TaskSearchTopMatches(int maxMatches) {
+        this.maxMatches = maxMatches;
+        int initialCapacity = Math.max(Math.min(maxMatches, INITIAL_CAPACITY), 0);
+        this.taskIds = new int[initialCapacity];
+        this.relevances = new double[initialCapacity];
+        this.creationTimes = new long[initialCapacity];
+    }
+
+    void offer(int taskId, double relevance, long creationTime) {
+        if (size < maxMatches) {
+            if (size == taskIds.length) {
+                int newCapacity = (int) Math.min((long) size * 2, maxMatches);
+                taskIds = Arrays.copyOf(taskIds, newCapacity);
+                relevances = Arrays.copyOf(relevances, newCapacity);
+                creationTimes = Arrays.copyOf(creationTimes, newCapacity);
+            }
+            set(size, taskId, relevance, creationTime);
+            siftUp(size++);
+        } else if (size > 0 && isBetter(relevance, creationTime, 0)) {
+            // Replaces the weakest match kept so far, which sits at the root.
+            set(0, taskId, relevance, creationTime);
+            siftDown(0, size);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Orders the kept matches best first; offer nothing afterwards. */
+    void sortBestFirst() {
+        if (isSorted) {
+            return;
+        }
+        // Heapsort: moving the weakest match to the end each time leaves the array best first.
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        isSorted = true;
+    }
+
+    int getTaskId(int index) {
+        return taskIds[index];
+    }
+
+    double getRelevance(int index) {
+        return relevances[index];
+    }
+
+    private boolean isBetter(double relevance, long creationTime, int index) {
+        int byRelevance = Double.compare(relevance, relevances[index]);
+        return byRelevance != 0 ? byRelevance > 0 : creationTime > creationTimes[index];
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isBetter(relevances[parent], creationTimes[parent], index)) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int heapSize) {
+        while (true) {
+            int weakest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && isBetter(relevances[weakest], creationTimes[weakest], left)) {
+                weakest = left;
+            }
+            if (right < heapSize && isBetter(relevances[weakest], creationTimes[weakest], right)) {
+                weakest = right;
+            }
+            if (weakest == index) {
+                return;
+            }
+            swap(index, weakest);
+            index = weakest;
+        }
+    }
+
+    private void set(int index, int taskId, double relevance, long creationTime) {
+        taskIds[index] = taskId;
+        relevances[index] = relevance;
+        creationTimes[index] = creationTime;
+    }
+
+    private void swap(int first, int second) {
+        int taskId = taskIds[first];
+        double relevance = relevances[first];
+        long creationTime = creationTimes[first];
+        set(first, taskIds[second], relevances[second], creationTimes[second]);
+        set(second, taskId, relevance, creationTime);
+    }
+}
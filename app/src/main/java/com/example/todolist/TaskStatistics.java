@@ -0,0 +1,58 @@
+package com.example.todolist;
+
+import java.util.List;
+
+/**
+ * Snapshot of task_stats and the most recent rows of task_daily_stats. Days are UTC epoch
+ * days of task creation; a day's completed count is how many of that day's tasks are done.
+ */
+public class TaskStatistics {
+    private final int totalCount;
+    private final int completedCount;
+    private final long[] epochDays;
+    private final int[] createdPerDay;
+    private final int[] completedPerDay;
+
+    TaskStatistics(int totalCount, int completedCount, List<long[]> dailyRows) {
+        this.totalCount = totalCount;
+        this.completedCount = completedCount;
+        this.epochDays = new long[dailyRows.size()];
+        this.createdPerDay = new int[dailyRows.size()];
+        this.completedPerDay = new int[dailyRows.size()];
+        for (int i = 0; i < dailyRows.size(); i++) {
+            long[] dailyRow = dailyRows.get(i);
+            epochDays[i] = dailyRow[0];
+            createdPerDay[i] = (int) dailyRow[1];
+            completedPerDay[i] = (int) dailyRow[2];
+        }
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    public int getPendingCount() {
+        return totalCount - completedCount;
+    }
+
+    /** Days with at least one task, newest first. */
+    public int getDayCount() {
+        return epochDays.length;
+    }
+
+    public long getEpochDay(int index) {
+        return epochDays[index];
+    }
+
+    public int getCreatedOnDay(int index) {
+        return createdPerDay[index];
+    }
+
+    public int getCompletedOnDay(int index) {
+        return completedPerDay[index];
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.todolist;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Keeps the "5m ago" labels of on-screen task rows current. One timer serves the whole
+ * list: it is set for the earliest moment any visible label moves to its next minute, hour
+ * or day bucket, and when it fires only the rows whose label changed are rebound, with
+ * TaskRecyclerAdapter.RowChange.TIMESTAMP so nothing but the label is touched. Runs while
+ * the owner is started; a row bound meanwhile brings the timer forward if it needs to.
+ */
+public class TaskTimestampTicker implements DefaultLifecycleObserver {
+    private final RecyclerView recyclerView;
+    private final TaskRecyclerAdapter taskAdapter;
+    private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
+    private final Runnable refreshVisibleTimestamps = this::refreshVisibleTimestamps;
+    private boolean isStarted;
+    // Wall-clock time the pending refresh is for, or Long.MAX_VALUE when none is pending.
+    private long scheduledRefreshAt = Long.MAX_VALUE;
+
+    public TaskTimestampTicker(RecyclerView recyclerView, TaskRecyclerAdapter taskAdapter) {
+        this.recyclerView = recyclerView;
+        this.taskAdapter = taskAdapter;
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        isStarted = true;
+        // Labels went stale while the list was off screen; catch up at once.
+        scheduleRefresh(System.currentTimeMillis());
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        isStarted = false;
+        mainThreadHandler.removeCallbacks(refreshVisibleTimestamps);
+        scheduledRefreshAt = Long.MAX_VALUE;
+    }
+
+    /** Called when a row shows a label that next changes at nextChangeAt. */
+    void onTimestampShown(long nextChangeAt) {
+        if (isStarted && nextChangeAt < scheduledRefreshAt) {
+            scheduleRefresh(nextChangeAt);
+        }
+    }
+
+    private void scheduleRefresh(long refreshAt) {
+        mainThreadHandler.removeCallbacks(refreshVisibleTimestamps);
+        scheduledRefreshAt = refreshAt;
+        if (refreshAt != Long.MAX_VALUE) {
+            mainThreadHandler.postDelayed(refreshVisibleTimestamps,
+                Math.max(refreshAt - System.currentTimeMillis(), 0));
+        }
+    }
+
+    private void refreshVisibleTimestamps() {
+        scheduledRefreshAt = Long.MAX_VALUE;
+        long now = System.currentTimeMillis();
+        long nextChangeAt = Long.MAX_VALUE;
+        int staleRunStart = RecyclerView.NO_POSITION;
+        int staleRunEnd = RecyclerView.NO_POSITION;
+
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            RecyclerView.ViewHolder viewHolder = recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+            if (!(viewHolder instanceof TaskRecyclerAdapter.TaskItemViewHolder)) {
+                continue;
+            }
+            TaskRecyclerAdapter.TaskItemViewHolder holder = (TaskRecyclerAdapter.TaskItemViewHolder) viewHolder;
+            int position = holder.getBindingAdapterPosition();
+            if (position == RecyclerView.NO_POSITION || !holder.hasTimestamp()) {
+                continue;
+            }
+            if (!holder.isTimestampStale(now)) {
+                nextChangeAt = Math.min(nextChangeAt, holder.getTimestampNextChangeAt(now));
+                continue;
+            }
+
+            // Rows are laid out in position order, so stale rows next to each other form one range.
+            if (position == staleRunEnd + 1 && staleRunStart != RecyclerView.NO_POSITION) {
+                staleRunEnd = position;
+            } else {
+                notifyTimestampsChanged(staleRunStart, staleRunEnd);
+                staleRunStart = position;
+                staleRunEnd = position;
+            }
+        }
+        notifyTimestampsChanged(staleRunStart, staleRunEnd);
+
+        // Rebinding the stale rows reports their next change through onTimestampShown.
+        if (nextChangeAt < scheduledRefreshAt) {
+            scheduleRefresh(nextChangeAt);
+        }
+    }
+
+    private void notifyTimestampsChanged(int firstPosition, int lastPosition) {
+        if (firstPosition != RecyclerView.NO_POSITION) {
+            taskAdapter.notifyItemRangeChanged(firstPosition, lastPosition - firstPosition + 1,
+                TaskRecyclerAdapter.RowChange.TIMESTAMP);
+        }
+    }
+}
@@ -1,13 +1,9 @@
 package com.example.todolist;
 
-import java.util.regex.Pattern;
-
 public class TaskValidationUtils {
     private static final int MIN_TASK_LENGTH = 3;
     private static final int MAX_TASK_LENGTH = 200;
-    private static final Pattern SPECIAL_CHARS_ONLY = Pattern.compile("^[^a-zA-Z0-9\\s]+$");
-    private static final Pattern EXCESSIVE_WHITESPACE = Pattern.compile("\\s{3,}");
-    private static final Pattern PROFANITY_CHECK = Pattern.compile("(?i).*(spam|test123|dummy).*");
+    private static final int EXCESSIVE_WHITESPACE_RUN = 3;
 
     public static class ValidationResult {
         private final boolean isValid;
@@ -27,50 +23,105 @@ public class TaskValidationUtils {
         }
     }
 
+    private static final ValidationResult VALID = new ValidationResult(true, null);
+    private static final ValidationResult NULL_DESCRIPTION =
+        new ValidationResult(false, "Task description cannot be null");
+    private static final ValidationResult EMPTY_DESCRIPTION =
+        new ValidationResult(false, "Task description cannot be empty");
+    private static final ValidationResult TOO_SHORT = new ValidationResult(false,
+        String.format("Task must be at least %d characters long", MIN_TASK_LENGTH));
+    private static final ValidationResult TOO_LONG = new ValidationResult(false,
+        String.format("Task description too long (max %d characters)", MAX_TASK_LENGTH));
+    private static final ValidationResult NO_LETTERS_OR_DIGITS =
+        new ValidationResult(false, "Task must contain letters or numbers");
+    private static final ValidationResult EXCESSIVE_WHITESPACE =
+        new ValidationResult(false, "Task contains excessive whitespace");
+    private static final ValidationResult BLOCKED_WORD =
+        new ValidationResult(false, "Please use a more descriptive task name");
+
     public static ValidationResult validateTaskDescription(String description) {
+        return validateTaskDescription(description, BlockedWordMatcher.DEFAULT);
+    }
+
+    /** Single pass over the trimmed range; returns shared results and allocates nothing. */
+    public static ValidationResult validateTaskDescription(String description, BlockedWordMatcher blockedWords) {
         if (description == null) {
-            return new ValidationResult(false, "Task description cannot be null");
+            return NULL_DESCRIPTION;
         }
 
-        String trimmedDescription = description.trim();
+        int start = trimmedStart(description);
+        int end = trimmedEnd(description, start);
+        int trimmedLength = end - start;
 
-        if (trimmedDescription.isEmpty()) {
-            return new ValidationResult(false, "Task description cannot be empty");
+        if (trimmedLength == 0) {
+            return EMPTY_DESCRIPTION;
         }
-
-        if (trimmedDescription.length() < MIN_TASK_LENGTH) {
-            return new ValidationResult(false, 
-                String.format("Task must be at least %d characters long", MIN_TASK_LENGTH));
+        if (trimmedLength < MIN_TASK_LENGTH) {
+            return TOO_SHORT;
         }
-
-        if (trimmedDescription.length() > MAX_TASK_LENGTH) {
-            return new ValidationResult(false, 
-                String.format("Task description too long (max %d characters)", MAX_TASK_LENGTH));
+        if (trimmedLength > MAX_TASK_LENGTH) {
+            return TOO_LONG;
         }
 
-        if (SPECIAL_CHARS_ONLY.matcher(trimmedDescription).matches()) {
-            return new ValidationResult(false, "Task must contain letters or numbers");
-        }
+        boolean hasLetterDigitOrWhitespace = false;
+        boolean hasExcessiveWhitespace = false;
+        boolean hasLineTerminator = false;
+        boolean hasBlockedWord = false;
+        int whitespaceRun = 0;
+        int matcherState = BlockedWordMatcher.INITIAL_STATE;
 
-        if (EXCESSIVE_WHITESPACE.matcher(trimmedDescription).find()) {
-            return new ValidationResult(false, "Task contains excessive whitespace");
-        }
+        for (int i = start; i < end; i++) {
+            char character = description.charAt(i);
+
+            if (isPatternWhitespace(character)) {
+                hasLetterDigitOrWhitespace = true;
+                hasExcessiveWhitespace |= ++whitespaceRun >= EXCESSIVE_WHITESPACE_RUN;
+            } else {
+                hasLetterDigitOrWhitespace |= isAsciiLetterOrDigit(character);
+                whitespaceRun = 0;
+            }
+            hasLineTerminator |= isLineTerminator(character);
 
-        if (PROFANITY_CHECK.matcher(trimmedDescription).matches()) {
-            return new ValidationResult(false, "Please use a more descriptive task name");
+            if (!hasBlockedWord) {
+                matcherState = blockedWords.nextState(matcherState, character);
+                hasBlockedWord = blockedWords.isMatch(matcherState);
+            }
         }
 
-        return new ValidationResult(true, null);
+        if (!hasLetterDigitOrWhitespace) {
+            return NO_LETTERS_OR_DIGITS;
+        }
+        if (hasExcessiveWhitespace) {
+            return EXCESSIVE_WHITESPACE;
+        }
+        // The regex this replaced was ".*(word).*", and "." stops at line terminators,
+        // so a description spanning lines was never rejected for a blocked word.
+        if (hasBlockedWord && !hasLineTerminator) {
+            return BLOCKED_WORD;
+        }
+        return VALID;
     }
 
+    /**
+     * Trims, collapses each whitespace run to one space and drops control characters.
+     * Returns the argument itself when nothing changes.
+     */
     public static String sanitizeTaskDescription(String description) {
         if (description == null) {
             return "";
         }
+        return canonicalize(description, false);
+    }
 
-        return description.trim()
-                .replaceAll("\\s+", " ")
-                .replaceAll("[\\x00-\\x1F\\x7F]", "");
+    /**
+     * Canonical form stored in normalized_description and TaskDescriptionIndex: two
+     * descriptions are duplicates exactly when their sanitized forms are equalsIgnoreCase.
+     */
+    public static String normalizeForDuplicateCheck(String description) {
+        if (description == null) {
+            return "";
+        }
+        return canonicalize(description, true);
     }
 
     public static boolean isTaskDescriptionUnique(String description, java.util.List<TaskItem> existingTasks) {
@@ -78,12 +129,107 @@ public class TaskValidationUtils {
             return true;
         }
 
-        String sanitizedInput = sanitizeTaskDescription(description);
+        String normalizedInput = normalizeForDuplicateCheck(description);
         
-        return existingTasks.stream()
-                .noneMatch(task -> 
-                    sanitizeTaskDescription(task.getDescription())
-                        .equalsIgnoreCase(sanitizedInput));
+        for (TaskItem task : existingTasks) {
+            if (normalizeForDuplicateCheck(task.getDescription()).equals(normalizedInput)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String canonicalize(String description, boolean foldCase) {
+        int start = trimmedStart(description);
+        int end = trimmedEnd(description, start);
+
+        if (start == 0 && end == description.length() && isCanonical(description, foldCase)) {
+            return description;
+        }
+
+        StringBuilder canonical = new StringBuilder(end - start);
+        boolean inWhitespaceRun = false;
+
+        for (int i = start; i < end; i++) {
+            char character = description.charAt(i);
+
+            if (isPatternWhitespace(character)) {
+                if (!inWhitespaceRun) {
+                    canonical.append(' ');
+                    inWhitespaceRun = true;
+                }
+            } else {
+                inWhitespaceRun = false;
+                if (!isControlCharacter(character)) {
+                    canonical.append(foldCase ? foldCase(character) : character);
+                }
+            }
+        }
+        return canonical.toString();
+    }
+
+    private static boolean isCanonical(String description, boolean foldCase) {
+        boolean previousWasWhitespace = false;
+
+        for (int i = 0; i < description.length(); i++) {
+            char character = description.charAt(i);
+            boolean isWhitespace = isPatternWhitespace(character);
+
+            if (isWhitespace && (character != ' ' || previousWasWhitespace)) {
+                return false;
+            }
+            if (!isWhitespace && isControlCharacter(character)) {
+                return false;
+            }
+            if (foldCase && foldCase(character) != character) {
+                return false;
+            }
+            previousWasWhitespace = isWhitespace;
+        }
+        return true;
+    }
+
+    // String.trim() semantics: everything up to and including U+0020 is trimmed.
+    private static int trimmedStart(String text) {
+        int start = 0;
+        while (start < text.length() && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimmedEnd(String text, int start) {
+        int end = text.length();
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    // Regex \s without UNICODE_CHARACTER_CLASS.
+    private static boolean isPatternWhitespace(char character) {
+        return character == ' ' || (character >= '\t' && character <= '\r');
+    }
+
+    private static boolean isControlCharacter(char character) {
+        return character <= '\u001F' || character == '\u007F';
+    }
+
+    private static boolean isAsciiLetterOrDigit(char character) {
+        return (character >= 'a' && character <= 'z') ||
+            (character >= 'A' && character <= 'Z') ||
+            (character >= '0' && character <= '9');
+    }
+
+    // What "." refuses to match without DOTALL.
+    private static boolean isLineTerminator(char character) {
+        return character == '\n' || character == '\r' ||
+            character == '\u0085' || character == '\u2028' || character == '\u2029';
+    }
+
+    // Same per-char folding String.equalsIgnoreCase applies.
+    private static char foldCase(char character) {
+        return Character.toLowerCase(Character.toUpperCase(character));
     }
 
     public static String generateValidationSummary(String description) {
@@ -0,0 +1,78 @@
+package com.example.todolist;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RelativeTimeLabelsTest {
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    public void labelFor_matchesFormattedLabelsAcrossEveryBucket() {
+        Random random = new Random(11L);
+
+        for (int i = 0; i < 100_000; i++) {
+            long age = random.nextInt(10) == 0
+                ? -random.nextInt(60_000) : (long) (random.nextDouble() * 2 * RelativeTimeLabels.WEEK_MILLIS);
+            assertEquals("age " + age, formattedLabel(NOW - age, NOW), RelativeTimeLabels.labelFor(NOW - age, NOW));
+        }
+    }
+
+    @Test
+    public void labelFor_switchesExactlyOnBucketBoundaries() {
+        assertEquals("Just now", RelativeTimeLabels.labelFor(NOW - 59_999, NOW));
+        assertEquals("1m ago", RelativeTimeLabels.labelFor(NOW - 60_000, NOW));
+        assertEquals("59m ago", RelativeTimeLabels.labelFor(NOW - RelativeTimeLabels.HOUR_MILLIS + 1, NOW));
+        assertEquals("1h ago", RelativeTimeLabels.labelFor(NOW - RelativeTimeLabels.HOUR_MILLIS, NOW));
+        assertEquals("23h ago", RelativeTimeLabels.labelFor(NOW - RelativeTimeLabels.DAY_MILLIS + 1, NOW));
+        assertEquals("6d ago", RelativeTimeLabels.labelFor(NOW - RelativeTimeLabels.WEEK_MILLIS + 1, NOW));
+        assertEquals("Last week", RelativeTimeLabels.labelFor(NOW - RelativeTimeLabels.WEEK_MILLIS, NOW));
+    }
+
+    @Test
+    public void labelFor_returnsTheSameInstanceForABucket() {
+        assertSame(RelativeTimeLabels.labelFor(NOW - 5 * 60_000, NOW),
+            RelativeTimeLabels.labelFor(NOW - 5 * 60_000 - 30_000, NOW));
+    }
+
+    @Test
+    public void nextChangeAt_isTheFirstInstantTheLabelDiffers() {
+        Random random = new Random(12L);
+
+        for (int i = 0; i < 100_000; i++) {
+            long timestamp = NOW - (long) (random.nextDouble() * 2 * RelativeTimeLabels.WEEK_MILLIS) + 30_000;
+            long nextChange = RelativeTimeLabels.nextChangeAt(timestamp, NOW);
+            String label = RelativeTimeLabels.labelFor(timestamp, NOW);
+
+            if (nextChange == Long.MAX_VALUE) {
+                assertEquals("Last week", label);
+                continue;
+            }
+            assertTrue(nextChange > NOW);
+            assertSame(label, RelativeTimeLabels.labelFor(timestamp, nextChange - 1));
+            assertNotSame(label, RelativeTimeLabels.labelFor(timestamp, nextChange));
+        }
+    }
+
+    /** TaskItemViewHolder.getRelativeTimeString as it was before the labels were cached. */
+    private static String formattedLabel(long timestamp, long now) {
+        long diff = now - timestamp;
+
+        if (diff < 60000) {
+            return "Just now";
+        } else if (diff < 3600000) {
+            int minutes = (int) (diff / 60000);
+            return minutes + "m ago";
+        } else if (diff < 86400000) {
+            int hours = (int) (diff / 3600000);
+            return hours + "h ago";
+        } else if (diff < 604800000) {
+            int days = (int) (diff / 86400000);
+            return days + "d ago";
+        } else {
+            return "Last week";
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.todolist;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskBinaryRecordsTest {
+
+    @Test
+    public void roundTrip_keepsEveryField() throws IOException {
+        List<TaskItem> tasks = Arrays.asList(
+            task(1, "Water plants", false, 100, 100),
+            task(7, "Réserver le vol ✈ 日本", true, 200, 900),
+            task(Integer.MAX_VALUE, "  padded\tdescription ", false, Long.MAX_VALUE, 0),
+            task(12, "x".repeat(5_000), true, 0, 1));
+
+        List<TaskItem> readTasks = readAll(write(tasks));
+
+        assertEquals(tasks.size(), readTasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertSameTask(tasks.get(i), readTasks.get(i));
+        }
+    }
+
+    @Test
+    public void emptyExport_readsAsNoTasks() throws IOException {
+        assertTrue(readAll(write(new ArrayList<>())).isEmpty());
+    }
+
+    @Test
+    public void truncatedExport_isRejected() throws IOException {
+        byte[] export = write(Arrays.asList(task(1, "Water plants", false, 100, 100),
+            task(2, "Feed the cat", false, 200, 200)));
+
+        for (int length : new int[]{export.length - 1, export.length - 12, export.length / 2}) {
+            try {
+                readAll(Arrays.copyOf(export, length));
+                fail("Read a truncated export of " + length + " bytes");
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void unfinishedExport_isRejected() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TaskBinaryRecords.Writer recordWriter = new TaskBinaryRecords.Writer(output);
+        recordWriter.writeTask(task(1, "Water plants", false, 100, 100));
+        recordWriter.close();
+
+        try {
+            readAll(output.toByteArray());
+            fail("Read an export that was never finished");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void otherData_isRejected() {
+        try {
+            readAll("{\"format\": \"todolist-tasks\"}".getBytes());
+            fail("Read a JSON export as binary");
+        } catch (IOException expected) {
+        }
+    }
+
+    private static byte[] write(List<TaskItem> tasks) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (TaskBinaryRecords.Writer recordWriter = new TaskBinaryRecords.Writer(output)) {
+            for (TaskItem task : tasks) {
+                recordWriter.writeTask(task);
+            }
+            recordWriter.finish();
+        }
+        return output.toByteArray();
+    }
+
+    private static List<TaskItem> readAll(byte[] export) throws IOException {
+        List<TaskItem> tasks = new ArrayList<>();
+        try (TaskBinaryRecords.Reader recordReader = new TaskBinaryRecords.Reader(new ByteArrayInputStream(export))) {
+            TaskItem task;
+            while ((task = recordReader.readTask()) != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    private static void assertSameTask(TaskItem expected, TaskItem actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.isFinished(), actual.isFinished());
+        assertEquals(expected.getCreationTimestamp(), actual.getCreationTimestamp());
+        assertEquals(expected.getLastModifiedTimestamp(), actual.getLastModifiedTimestamp());
+    }
+
+    private static TaskItem task(int taskId, String description, boolean finished, long createdAt, long modifiedAt) {
+        TaskItem taskItem = new TaskItem(taskId, description, finished, createdAt);
+        taskItem.setLastModifiedTimestamp(modifiedAt);
+        return taskItem;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.todolist;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskCacheTest {
+    private TaskCache taskCache;
+    private List<String> publishedChanges;
+
+    @Before
+    public void setUp() {
+        taskCache = new TaskCache(Runnable::run);
+        publishedChanges = new ArrayList<>();
+        taskCache.addChangeListener((changeType, taskIds) ->
+            publishedChanges.add(changeType + Arrays.toString(taskIds)));
+    }
+
+    @Test
+    public void unloadedCache_answersNothingButStillPublishes() {
+        taskCache.taskInserted(task(1, "Water plants", false, 100));
+
+        assertFalse(taskCache.isLoaded());
+        assertNull(taskCache.getAllTasks());
+        assertNull(taskCache.getTaskCounts());
+        assertEquals(Arrays.asList("INSERTED[1]"), publishedChanges);
+    }
+
+    @Test
+    public void writes_keepOrderedViewsInStep() {
+        taskCache.replaceAll(Arrays.asList(
+            task(1, "Oldest", false, 100),
+            task(2, "Middle", true, 200),
+            task(3, "Newest", false, 300)), taskCache.getModificationCount());
+
+        taskCache.taskInserted(task(4, "Inserted", false, 400));
+        taskCache.taskModified(task(1, "Oldest, now done", true, 100));
+        taskCache.taskRemoved(3);
+
+        assertEquals(Arrays.asList(4, 2, 1), idsOf(taskCache.getAllTasks()));
+        assertEquals(Arrays.asList(4), idsOf(taskCache.getPendingTasks()));
+        assertEquals(Arrays.asList(1, 2), idsOf(taskCache.getCompletedTasks()));
+        assertArrayEquals(new int[]{3, 2}, taskCache.getTaskCounts());
+        assertEquals("Oldest, now done", taskCache.getCompletedTasks().get(0).getDescription());
+        assertEquals(Arrays.asList("INSERTED[4]", "UPDATED[1]", "REMOVED[3]"), publishedChanges);
+    }
+
+    @Test
+    public void completionBatch_movesTasksBetweenViewsAndKeepsDescriptions() {
+        taskCache.replaceAll(Arrays.asList(
+            task(1, "Oldest", false, 100),
+            task(2, "Middle", true, 200),
+            task(3, "Newest", false, 300)), taskCache.getModificationCount());
+
+        taskCache.taskCompletionsModified(new int[]{1, 2, 9}, new boolean[]{true, false, true},
+            new long[]{1_000, 2_000, 9_000});
+
+        assertEquals(Arrays.asList(3, 2), idsOf(taskCache.getPendingTasks()));
+        assertEquals(Arrays.asList(1), idsOf(taskCache.getCompletedTasks()));
+        assertEquals("Oldest", taskCache.getCompletedTasks().get(0).getDescription());
+        // Stamped as the database stored it, not with the time the cache was told.
+        assertEquals(1_000, taskCache.getCompletedTasks().get(0).getLastModifiedTimestamp());
+        assertEquals(Arrays.asList("UPDATED[1, 2, 9]"), publishedChanges);
+    }
+
+    @Test
+    public void descriptionIndex_followsInsertsEditsAndRemovals() {
+        assertNull(taskCache.containsDescription("Water plants"));
+        taskCache.replaceAll(Arrays.asList(task(1, "Water  plants", false, 100)), taskCache.getModificationCount());
+
+        assertTrue(taskCache.containsDescription(" WATER plants "));
+        taskCache.taskInserted(task(2, "water Plants", false, 200));
+        taskCache.taskModified(task(1, "Feed the cat", false, 100));
+        assertTrue(taskCache.containsDescription("Water plants"));
+        assertTrue(taskCache.containsDescription("feed the cat"));
+
+        taskCache.taskRemoved(2);
+        assertFalse(taskCache.containsDescription("Water plants"));
+    }
+
+    @Test
+    public void replaceAll_dropsReadThatRacedAWrite() {
+        long modificationCount = taskCache.getModificationCount();
+        taskCache.taskRemoved(7);
+
+        assertFalse(taskCache.replaceAll(Arrays.asList(task(7, "Stale", false, 100)), modificationCount));
+        assertFalse(taskCache.isLoaded());
+    }
+
+    @Test
+    public void tasksReloaded_unloadsAndDropsInFlightRead() {
+        taskCache.replaceAll(Arrays.asList(task(1, "Water plants", false, 100)), taskCache.getModificationCount());
+        long modificationCount = taskCache.getModificationCount();
+
+        taskCache.tasksReloaded();
+
+        assertFalse(taskCache.isLoaded());
+        assertNull(taskCache.containsDescription("Water plants"));
+        assertFalse(taskCache.replaceAll(Arrays.asList(task(1, "Stale", false, 100)), modificationCount));
+        assertEquals(Arrays.asList("RELOADED[]"), publishedChanges);
+    }
+
+    @Test
+    public void returnedTasks_areCopies() {
+        taskCache.replaceAll(Arrays.asList(task(1, "Original", false, 100)), taskCache.getModificationCount());
+
+        taskCache.getAllTasks().get(0).setFinished(true);
+
+        assertEquals(Arrays.asList(1), idsOf(taskCache.getPendingTasks()));
+        assertTrue(taskCache.getCompletedTasks().isEmpty());
+    }
+
+    private static TaskItem task(int taskId, String description, boolean finished, long createdAt) {
+        TaskItem taskItem = new TaskItem(taskId, description, finished, createdAt);
+        taskItem.setLastModifiedTimestamp(createdAt);
+        return taskItem;
+    }
+
+    private static List<Integer> idsOf(List<TaskItem> tasks) {
+        List<Integer> taskIds = new ArrayList<>();
+        for (TaskItem task : tasks) {
+            taskIds.add(task.getId());
+        }
+        return taskIds;
+    }
+}
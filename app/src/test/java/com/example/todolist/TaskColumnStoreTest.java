@@ -0,0 +1,137 @@
+package com.example.todolist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskColumnStoreTest {
+
+    @Test
+    public void fromTasks_keepsEveryColumnAndCounts() {
+        TaskColumnStore columnStore = TaskColumnStore.fromTasks(Arrays.asList(
+            task(3, "Newest", false, 300),
+            task(2, "Middle", true, 200),
+            task(1, "Oldest", true, 100)));
+
+        assertEquals(3, columnStore.size());
+        assertEquals(2, columnStore.getCompletedCount());
+        assertEquals(1, columnStore.getPendingCount());
+        assertEquals(2, columnStore.getTaskId(1));
+        assertEquals("Middle", columnStore.getDescription(1));
+        assertEquals("Middle", new String(columnStore.getDescriptionArena(),
+            columnStore.getDescriptionOffset(1), columnStore.getDescriptionLength(1)));
+        assertTrue(columnStore.toTaskItem(2).hasSameContentAs(task(1, "Oldest", true, 100)));
+        assertEquals(1, columnStore.indexOfTask(2));
+        assertEquals(-1, columnStore.indexOfTask(9));
+    }
+
+    @Test
+    public void filteredViews_followToggleAndRemoval() {
+        TaskColumnStore columnStore = TaskColumnStore.fromTasks(Arrays.asList(
+            task(5, "a1", false, 500),
+            task(4, "b2", true, 400),
+            task(3, "c3", false, 300),
+            task(2, "d4", true, 200),
+            task(1, "e5", false, 100)));
+
+        assertEquals(Arrays.asList(4, 2), idsOf(columnStore, columnStore.getCompletedView()));
+        assertEquals(Arrays.asList(5, 3, 1), idsOf(columnStore, columnStore.getPendingView()));
+
+        columnStore.setFinished(2, true);
+        columnStore.removeRow(1);
+
+        assertEquals(2, columnStore.getCompletedCount());
+        assertEquals(Arrays.asList(3, 2), idsOf(columnStore, columnStore.getCompletedView()));
+        assertEquals(Arrays.asList(5, 1), idsOf(columnStore, columnStore.getPendingView()));
+        assertEquals(3, columnStore.getTaskId(columnStore.getCompletedView().rowAt(0)));
+        assertEquals(2, columnStore.getTaskId(columnStore.getCompletedView().rowAt(1)));
+        assertEquals(3, columnStore.getTaskId(columnStore.getCompletedView().rowAt(0)));
+    }
+
+    @Test
+    public void editsAndRemovals_compactTheArenaWithoutLosingText() {
+        List<TaskItem> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(task(i + 1, "Task number " + i, i % 2 == 0, i));
+        }
+        TaskColumnStore columnStore = TaskColumnStore.fromTasks(tasks);
+
+        for (int round = 0; round < 50; round++) {
+            for (int row = 0; row < columnStore.size(); row++) {
+                columnStore.setDescription(row, "Edited " + round + " of " + columnStore.getTaskId(row));
+            }
+        }
+        columnStore.removeRow(0);
+        columnStore.removeRow(columnStore.size() - 1);
+
+        assertEquals(98, columnStore.size());
+        assertEquals(49, columnStore.getCompletedCount());
+        for (int row = 0; row < columnStore.size(); row++) {
+            assertEquals("Edited 49 of " + columnStore.getTaskId(row), columnStore.getDescription(row));
+        }
+        assertTrue(columnStore.getDescriptionArena().length < 98 * 20 * 4);
+    }
+
+    @Test
+    public void shorterDescription_replacingALongOneCompactsWithoutOverflow() {
+        TaskColumnStore columnStore = new TaskColumnStore();
+        columnStore.append(task(1, "x".repeat(400), false, 1));
+        columnStore.append(task(2, "Second", true, 2));
+
+        columnStore.setDescription(0, "y".repeat(150));
+        columnStore.setDescription(1, "z".repeat(300));
+
+        assertEquals("y".repeat(150), columnStore.getDescription(0));
+        assertEquals("z".repeat(300), columnStore.getDescription(1));
+    }
+
+    @Test
+    public void replaceAll_growShrinkAndRegrowWithLongDescriptions() {
+        TaskColumnStore columnStore = new TaskColumnStore();
+        int[][] fills = {{255}, {36, 457}, {282, 316, 120}};
+        for (int[] descriptionLengths : fills) {
+            List<TaskItem> tasks = new ArrayList<>();
+            for (int i = 0; i < descriptionLengths.length; i++) {
+                tasks.add(task(i + 1, String.valueOf((char) ('a' + i)).repeat(descriptionLengths[i]), false, i));
+            }
+
+            columnStore.replaceAll(tasks);
+
+            assertEquals(tasks.size(), columnStore.size());
+            for (int row = 0; row < tasks.size(); row++) {
+                assertEquals(tasks.get(row).getDescription(), columnStore.getDescription(row));
+            }
+        }
+    }
+
+    @Test
+    public void replaceAll_reusesArraysOnceGrown() {
+        List<TaskItem> tasks = Arrays.asList(task(1, "One", false, 1), task(2, "Two", true, 2));
+        TaskColumnStore columnStore = TaskColumnStore.fromTasks(tasks);
+        char[] arena = columnStore.getDescriptionArena();
+
+        columnStore.replaceAll(tasks);
+
+        assertSame(arena, columnStore.getDescriptionArena());
+        assertEquals(1, columnStore.getCompletedCount());
+    }
+
+    private static List<Integer> idsOf(TaskColumnStore columnStore, TaskColumnStore.FilteredView view) {
+        List<Integer> taskIds = new ArrayList<>();
+        for (int row = view.nextRow(-1); row >= 0; row = view.nextRow(row)) {
+            taskIds.add(columnStore.getTaskId(row));
+        }
+        assertEquals(view.size(), taskIds.size());
+        return taskIds;
+    }
+
+    private static TaskItem task(int taskId, String description, boolean finished, long createdAt) {
+        TaskItem taskItem = new TaskItem(taskId, description, finished, createdAt);
+        taskItem.setLastModifiedTimestamp(createdAt);
+        return taskItem;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.todolist;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TaskDatabaseMetricsTest {
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    public void bucketUpperBound_staysWithinAnEighthOfTheValue() {
+        Random random = new Random(42L);
+
+        for (int i = 0; i < 100_000; i++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            long upperBound = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+
+            assertTrue(value + " <= " + upperBound, value <= upperBound);
+            assertTrue(value + " ~ " + upperBound, upperBound - value <= value / 8);
+        }
+        assertEquals(Long.MAX_VALUE,
+            LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void snapshot_reportsPercentilesAndRowCounts() {
+        TaskDatabaseMetrics metrics = new TaskDatabaseMetrics();
+        for (int i = 1; i <= 100; i++) {
+            metrics.record(TaskDatabaseMetrics.Operation.RETRIEVE_ALL, i * MILLIS / 10, 3);
+        }
+
+        TaskDatabaseMetrics.OperationSnapshot snapshot = metrics.snapshot(TaskDatabaseMetrics.Operation.RETRIEVE_ALL);
+
+        assertEquals(100, snapshot.getCallCount());
+        assertEquals(300, snapshot.getRowCount());
+        assertEquals(10 * MILLIS, snapshot.getMaxNanos());
+        assertWithinAnEighth(5 * MILLIS, snapshot.getP50Nanos());
+        assertWithinAnEighth(9 * MILLIS, snapshot.getP90Nanos());
+        assertWithinAnEighth(99 * MILLIS / 10, snapshot.getP99Nanos());
+        assertEquals(Collections.singletonList(TaskDatabaseMetrics.Operation.RETRIEVE_ALL),
+            operationsOf(metrics.snapshotAll()));
+    }
+
+    @Test
+    public void record_flagsCallsOverTheThreshold() {
+        TaskDatabaseMetrics metrics = new TaskDatabaseMetrics();
+        metrics.setSlowQueryThresholdMillis(20);
+
+        assertFalse(metrics.record(TaskDatabaseMetrics.Operation.SEARCH, 19 * MILLIS, 1));
+        assertTrue(metrics.record(TaskDatabaseMetrics.Operation.SEARCH, 20 * MILLIS, 1));
+        assertEquals(20, metrics.getSlowQueryThresholdMillis());
+    }
+
+    @Test
+    public void slowQueryLog_keepsTheNewestEntries() {
+        TaskDatabaseMetrics metrics = new TaskDatabaseMetrics();
+        for (int i = 0; i < 40; i++) {
+            metrics.logSlowQuery(TaskDatabaseMetrics.Operation.SEARCH, "SELECT " + i, 80 * MILLIS, i,
+                Arrays.asList("SCAN task_items"));
+        }
+
+        List<TaskDatabaseMetrics.SlowQuery> slowQueries = metrics.getSlowQueries();
+
+        assertEquals(32, slowQueries.size());
+        assertEquals("SELECT 39", slowQueries.get(0).getSql());
+        assertEquals("SELECT 8", slowQueries.get(31).getSql());
+        assertTrue(metrics.formatReport().contains("plan: SCAN task_items"));
+    }
+
+    @Test
+    public void reset_clearsHistogramsAndSlowQueries() {
+        TaskDatabaseMetrics metrics = new TaskDatabaseMetrics();
+        metrics.record(TaskDatabaseMetrics.Operation.INSERT, 2 * MILLIS, 1);
+        metrics.logSlowQuery(TaskDatabaseMetrics.Operation.INSERT, "INSERT", 2 * MILLIS, 1,
+            Collections.<String>emptyList());
+
+        metrics.reset();
+
+        assertTrue(metrics.snapshotAll().isEmpty());
+        assertTrue(metrics.getSlowQueries().isEmpty());
+        assertEquals(0, metrics.snapshot(TaskDatabaseMetrics.Operation.INSERT).getP99Nanos());
+    }
+
+    private static void assertWithinAnEighth(long expected, long actual) {
+        assertTrue(expected + " ~ " + actual, actual >= expected && actual - expected <= expected / 8);
+    }
+
+    private static List<TaskDatabaseMetrics.Operation> operationsOf(List<TaskDatabaseMetrics.OperationSnapshot> snapshots) {
+        TaskDatabaseMetrics.Operation[] operations = new TaskDatabaseMetrics.Operation[snapshots.size()];
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = snapshots.get(i).getOperation();
+        }
+        return Arrays.asList(operations);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.todolist;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskSearchQueryTest {
+    @Test
+    public void prefixQuery_turnsEveryWordIntoAPrefixTerm() {
+        assertEquals("buy* milk*", TaskSearchQuery.toPrefixMatchQuery("  buy milk "));
+    }
+
+    @Test
+    public void prefixQuery_dropsFullTextOperators() {
+        assertEquals("call* mom* NEAR*", TaskSearchQuery.toPrefixMatchQuery("\"call\" -mom* NEAR"));
+        assertEquals("café* 2024*", TaskSearchQuery.toPrefixMatchQuery("café:2024"));
+    }
+
+    @Test
+    public void prefixQuery_returnsNullWithoutSearchableText() {
+        assertNull(TaskSearchQuery.toPrefixMatchQuery(null));
+        assertNull(TaskSearchQuery.toPrefixMatchQuery("   "));
+        assertNull(TaskSearchQuery.toPrefixMatchQuery("*-\"()"));
+    }
+
+    @Test
+    public void canNarrow_onlyWhenTheNewTermExtendsThePreviousOne() {
+        assertTrue(TaskSearchQuery.canNarrow("buy m", "buy milk"));
+        assertTrue(TaskSearchQuery.canNarrow("Buy", "buy milk"));
+        assertTrue(TaskSearchQuery.canNarrow("buy", "buy "));
+
+        assertFalse(TaskSearchQuery.canNarrow("buy milk", "buy m"));
+        assertFalse(TaskSearchQuery.canNarrow("buy milk", "buy bread"));
+        assertFalse(TaskSearchQuery.canNarrow(null, "buy"));
+        assertFalse(TaskSearchQuery.canNarrow("buy", ""));
+    }
+
+    @Test
+    public void narrowResults_keepsRowsWithAWordStartingWithEveryTerm() {
+        TaskSearchResult milk = result(1, "Buy milk");
+        TaskSearchResult mints = result(2, "buy mints and gum");
+        TaskSearchResult cafe = result(3, "Café meeting, buy muffins");
+        List<TaskSearchResult> previousResults = Arrays.asList(milk, mints, cafe);
+
+        assertEquals(Arrays.asList(milk, mints), TaskSearchQuery.narrowResults(previousResults, "buy mi"));
+        assertEquals(Arrays.asList(cafe), TaskSearchQuery.narrowResults(previousResults, "buy m cafe"));
+        assertTrue(TaskSearchQuery.narrowResults(previousResults, "uy").isEmpty());
+    }
+
+    @Test
+    public void matchInfoScore_prefersShorterRowsWithMoreHits() {
+        // One phrase, one column, 100 documents averaging 8 tokens, 10 containing the term.
+        double shortRowScore = TaskSearchQuery.scoreMatchInfo(matchInfo(100, 8, 4, 2, 10));
+        double longRowScore = TaskSearchQuery.scoreMatchInfo(matchInfo(100, 8, 20, 1, 10));
+
+        assertTrue(shortRowScore > longRowScore);
+        assertEquals(0, TaskSearchQuery.scoreMatchInfo(matchInfo(100, 8, 4, 0, 10)), 0.0);
+    }
+
+    private static TaskSearchResult result(int taskId, String description) {
+        return new TaskSearchResult(new TaskItem(taskId, description, false, taskId), description, 1);
+    }
+
+    private static byte[] matchInfo(int documents, int averageLength, int rowLength,
+                                    int hitsInRow, int documentsWithHits) {
+        ByteBuffer blob = ByteBuffer.allocate(8 * 4).order(ByteOrder.nativeOrder());
+        blob.putInt(1).putInt(1).putInt(documents).putInt(averageLength).putInt(rowLength)
+            .putInt(hitsInRow).putInt(hitsInRow * 3).putInt(documentsWithHits);
+        return blob.array();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.todolist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TaskSearchTopMatchesTest {
+
+    @Test
+    public void keepsTheBestMatchesBestFirst() {
+        Random random = new Random(7L);
+
+        for (int round = 0; round < 200; round++) {
+            int maxMatches = 1 + random.nextInt(40);
+            TaskSearchTopMatches topMatches = new TaskSearchTopMatches(maxMatches);
+            List<double[]> allMatches = new ArrayList<>();
+            int matchCount = random.nextInt(300);
+            for (int taskId = 1; taskId <= matchCount; taskId++) {
+                // Few distinct scores, so ties fall through to the creation time.
+                double relevance = random.nextInt(5);
+                long creationTime = random.nextInt(1_000_000);
+                topMatches.offer(taskId, relevance, creationTime);
+                allMatches.add(new double[]{relevance, creationTime, taskId});
+            }
+            allMatches.sort((first, second) -> first[0] != second[0]
+                ? Double.compare(second[0], first[0]) : Double.compare(second[1], first[1]));
+
+            topMatches.sortBestFirst();
+            assertEquals(Math.min(maxMatches, matchCount), topMatches.size());
+            for (int i = 0; i < topMatches.size(); i++) {
+                assertEquals(allMatches.get(i)[0], topMatches.getRelevance(i), 0.0);
+                double[] kept = findMatch(allMatches, topMatches.getTaskId(i));
+                assertEquals(allMatches.get(i)[1], kept[1], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void unboundedLimit_growsWithTheMatches() {
+        TaskSearchTopMatches topMatches = new TaskSearchTopMatches(Integer.MAX_VALUE);
+        for (int taskId = 1; taskId <= 100; taskId++) {
+            topMatches.offer(taskId, taskId % 10, taskId);
+        }
+
+        topMatches.sortBestFirst();
+        assertEquals(100, topMatches.size());
+        assertEquals(99, topMatches.getTaskId(0));
+        assertEquals(10, topMatches.getTaskId(99));
+    }
+
+    private static double[] findMatch(List<double[]> matches, int taskId) {
+        for (double[] match : matches) {
+            if (match[2] == taskId) {
+                return match;
+            }
+        }
+        fail("No match with task id " + taskId);
+        return null;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.todolist;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * Differential test of the char-scanning validator against the regex implementation it
+ * replaced, kept below as RegexTaskValidation.
+ */
+public class TaskValidationUtilsTest {
+    private static final int RANDOM_CASES = 200_000;
+    private static final String[] FRAGMENTS = {
+        "a", "Z", "7", " ", "  ", "\t", "\n", "\r", "\u000B", "\f", "\u0001", "\u007F", "\u0085",
+        " ", "!", "?", "-", "é", "İ", "ſ", "K", "spam", "SPAM", "sPaM", "test123", "TEST123",
+        "dummy", "DuMmY", "dum", "my", "tes", "t123", "Buy milk", " "
+    };
+
+    @Test
+    public void validate_matchesRegexImplementationOnEdgeCases() {
+        List<String> edgeCases = Arrays.asList(
+            null, "", "   ", "ab", " ab ", "abc", "!!!", "!! ??", "a   b", "a\t\n b", "spam",
+            "my Spam folder", "buy spam\nnow", "buy spam now", "test12", "x".repeat(200),
+            " " + "x".repeat(200) + " ", "x".repeat(201), "\u0001\u0001abc", "éèê", "ſpam",
+            "dummydummy", " abc");
+
+        for (String description : edgeCases) {
+            assertSameValidation(description);
+            assertSameSanitizing(description);
+        }
+    }
+
+    @Test
+    public void validateAndSanitize_matchRegexImplementationOnRandomInput() {
+        Random random = new Random(20240611L);
+
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            String description = randomDescription(random);
+            assertSameValidation(description);
+            assertSameSanitizing(description);
+        }
+    }
+
+    @Test
+    public void duplicateNormalization_agreesWithSanitizedEqualsIgnoreCase() {
+        Random random = new Random(7L);
+
+        for (int i = 0; i < RANDOM_CASES / 4; i++) {
+            String first = randomDescription(random);
+            String second = random.nextBoolean() ? first.toUpperCase() : randomDescription(random);
+
+            boolean regexDuplicate = RegexTaskValidation.sanitizeTaskDescription(first)
+                .equalsIgnoreCase(RegexTaskValidation.sanitizeTaskDescription(second));
+            boolean normalizedDuplicate = TaskValidationUtils.normalizeForDuplicateCheck(first)
+                .equals(TaskValidationUtils.normalizeForDuplicateCheck(second));
+
+            assertEquals(first + " / " + second, regexDuplicate, normalizedDuplicate);
+        }
+    }
+
+    @Test
+    public void validPath_returnsSharedResultAndCleanInputIsNotCopied() {
+        String description = "Renew passport";
+
+        assertSame(TaskValidationUtils.validateTaskDescription(description),
+            TaskValidationUtils.validateTaskDescription("Water plants"));
+        assertSame(description, TaskValidationUtils.sanitizeTaskDescription(description));
+    }
+
+    @Test
+    public void blockedWordMatcher_usesConfiguredWords() {
+        BlockedWordMatcher blockedWords = new BlockedWordMatcher(Arrays.asList("he", "she", "his", "hers"));
+
+        assertTrue(blockedWords.containsBlockedWord("uSHErs"));
+        assertTrue(blockedWords.containsBlockedWord("ahishers"));
+        assertFalse(blockedWords.containsBlockedWord("hxs ehs"));
+        assertFalse(TaskValidationUtils.validateTaskDescription("Call Shelly", blockedWords).isValid());
+        assertTrue(TaskValidationUtils.validateTaskDescription("Check spam folder",
+            new BlockedWordMatcher(Arrays.asList("junk"))).isValid());
+    }
+
+    private static void assertSameValidation(String description) {
+        TaskValidationUtils.ValidationResult expected = RegexTaskValidation.validateTaskDescription(description);
+        TaskValidationUtils.ValidationResult actual = TaskValidationUtils.validateTaskDescription(description);
+
+        assertEquals(describe(description), expected.isValid(), actual.isValid());
+        assertEquals(describe(description), expected.getErrorMessage(), actual.getErrorMessage());
+    }
+
+    private static void assertSameSanitizing(String description) {
+        assertEquals(describe(description), RegexTaskValidation.sanitizeTaskDescription(description),
+            TaskValidationUtils.sanitizeTaskDescription(description));
+    }
+
+    private static String randomDescription(Random random) {
+        StringBuilder description = new StringBuilder();
+        int fragmentCount = random.nextInt(random.nextInt(10) == 0 ? 80 : 12);
+        for (int i = 0; i < fragmentCount; i++) {
+            description.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return description.toString();
+    }
+
+    private static String describe(String description) {
+        if (description == null) {
+            return "null";
+        }
+        StringBuilder escaped = new StringBuilder("\"");
+        for (char character : description.toCharArray()) {
+            escaped.append(character < 0x20 || character > 0x7E
+                ? String.format("\\u%04X", (int) character) : String.valueOf(character));
+        }
+        return escaped.append('"').toString();
+    }
+
+    /** TaskValidationUtils as it was before the single-pass rewrite. */
+    private static final class RegexTaskValidation {
+        private static final Pattern SPECIAL_CHARS_ONLY = Pattern.compile("^[^a-zA-Z0-9\\s]+$");
+        private static final Pattern EXCESSIVE_WHITESPACE = Pattern.compile("\\s{3,}");
+        private static final Pattern PROFANITY_CHECK = Pattern.compile("(?i).*(spam|test123|dummy).*");
+
+        static TaskValidationUtils.ValidationResult validateTaskDescription(String description) {
+            if (description == null) {
+                return new TaskValidationUtils.ValidationResult(false, "Task description cannot be null");
+            }
+
+            String trimmedDescription = description.trim();
+
+            if (trimmedDescription.isEmpty()) {
+                return new TaskValidationUtils.ValidationResult(false, "Task description cannot be empty");
+            }
+            if (trimmedDescription.length() < 3) {
+                return new TaskValidationUtils.ValidationResult(false, "Task must be at least 3 characters long");
+            }
+            if (trimmedDescription.length() > 200) {
+                return new TaskValidationUtils.ValidationResult(false, "Task description too long (max 200 characters)");
+            }
+            if (SPECIAL_CHARS_ONLY.matcher(trimmedDescription).matches()) {
+                return new TaskValidationUtils.ValidationResult(false, "Task must contain letters or numbers");
+            }
+            if (EXCESSIVE_WHITESPACE.matcher(trimmedDescription).find()) {
+                return new TaskValidationUtils.ValidationResult(false, "Task contains excessive whitespace");
+            }
+            if (PROFANITY_CHECK.matcher(trimmedDescription).matches()) {
+                return new TaskValidationUtils.ValidationResult(false, "Please use a more descriptive task name");
+            }
+            return new TaskValidationUtils.ValidationResult(true, null);
+        }
+
+        static String sanitizeTaskDescription(String description) {
+            if (description == null) {
+                return "";
+            }
+            return description.trim()
+                    .replaceAll("\\s+", " ")
+                    .replaceAll("[\\x00-\\x1F\\x7F]", "");
+        }
+    }
+}
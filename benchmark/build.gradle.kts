@@ -0,0 +1,43 @@
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// Plain-Java classes from :app, compiled here so JMH can run them on the desktop JVM
+// without the Android toolchain. Only add files that do not touch android.*.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "com/example/todolist/TaskItem.java",
+                "com/example/todolist/TaskValidationUtils.java",
+                "com/example/todolist/BlockedWordMatcher.java",
+                "com/example/todolist/TaskDescriptionIndex.java",
+                "com/example/todolist/TaskListOperations.java",
+                "com/example/todolist/TaskColumnStore.java"
+            )
+        }
+    }
+}
+
+// The app sources are UTF-8 (task text such as "✓"); do not depend on the platform default.
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    // Adds gc.alloc.rate.norm (bytes allocated per operation) next to each score.
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
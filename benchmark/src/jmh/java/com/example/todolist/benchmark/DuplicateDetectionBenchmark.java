@@ -0,0 +1,64 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.TaskDescriptionIndex;
+import com.example.todolist.TaskItem;
+import com.example.todolist.TaskValidationUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking a new description for duplicates: the old scan over every task
+ * against one lookup in TaskDescriptionIndex. The new description is never a
+ * duplicate, which is the common case and the scan's worst case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DuplicateDetectionBenchmark {
+    private static final String NEW_DESCRIPTION = "  Renew   passport before the summer trip ";
+
+    @Param({"1000", "10000", "100000"})
+    public int taskCount;
+
+    private List<TaskItem> existingTasks;
+    private TaskDescriptionIndex descriptionIndex;
+
+    @Setup
+    public void createTasks() {
+        existingTasks = new ArrayList<>(taskCount);
+        descriptionIndex = new TaskDescriptionIndex();
+        for (int i = 0; i < taskCount; i++) {
+            TaskItem taskItem = new TaskItem(i + 1, "Task number " + i + "  with some detail", i % 3 == 0, i);
+            existingTasks.add(taskItem);
+            descriptionIndex.add(taskItem.getDescription());
+        }
+    }
+
+    @Benchmark
+    public boolean scanEveryTask() {
+        return TaskValidationUtils.isTaskDescriptionUnique(NEW_DESCRIPTION, existingTasks);
+    }
+
+    @Benchmark
+    public boolean lookUpDescriptionIndex() {
+        return !descriptionIndex.contains(NEW_DESCRIPTION);
+    }
+
+    @Benchmark
+    public int addThenRemoveFromIndex() {
+        descriptionIndex.add(NEW_DESCRIPTION);
+        descriptionIndex.remove(NEW_DESCRIPTION);
+        return descriptionIndex.size();
+    }
+}
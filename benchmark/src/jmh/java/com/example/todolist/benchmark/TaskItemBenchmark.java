@@ -0,0 +1,79 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.TaskItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskItem construction, copying and the two comparisons the app relies on: id equality
+ * (hash lookups, selection) and hasSameContentAs (the adapter's diff).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskItemBenchmark {
+    private static final int TASK_SET_SIZE = 10_000;
+
+    private TaskItem originalTask;
+    private TaskItem sameContentTask;
+    private TaskItem toggledTask;
+    private Set<TaskItem> taskSet;
+
+    @Setup
+    public void createTasks() {
+        originalTask = new TaskItem(42, "Renew passport before the summer trip", false, 1_700_000_000_000L);
+        sameContentTask = new TaskItem(originalTask);
+        toggledTask = new TaskItem(originalTask);
+        toggledTask.setFinished(true);
+
+        taskSet = new HashSet<>();
+        for (int i = 0; i < TASK_SET_SIZE; i++) {
+            taskSet.add(new TaskItem(i + 1, "Task " + i, false, i));
+        }
+    }
+
+    @Benchmark
+    public TaskItem constructFromDatabaseRow() {
+        return new TaskItem(42, "Renew passport before the summer trip", false, 1_700_000_000_000L);
+    }
+
+    @Benchmark
+    public TaskItem constructNewTask() {
+        return new TaskItem("Renew passport before the summer trip");
+    }
+
+    @Benchmark
+    public TaskItem copyTask() {
+        return new TaskItem(originalTask);
+    }
+
+    @Benchmark
+    public boolean equalsById() {
+        return originalTask.equals(sameContentTask);
+    }
+
+    @Benchmark
+    public boolean containedInHashSet() {
+        return taskSet.contains(originalTask);
+    }
+
+    @Benchmark
+    public boolean sameContentWhenUnchanged() {
+        return originalTask.hasSameContentAs(sameContentTask);
+    }
+
+    @Benchmark
+    public boolean sameContentWhenToggled() {
+        return originalTask.hasSameContentAs(toggledTask);
+    }
+}
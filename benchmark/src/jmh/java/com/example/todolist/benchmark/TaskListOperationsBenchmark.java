@@ -0,0 +1,115 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.TaskColumnStore;
+import com.example.todolist.TaskItem;
+import com.example.todolist.TaskListOperations;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The list work TaskRecyclerAdapter does on the main thread for each add, remove and edit,
+ * the content comparison its differ runs per row in the background, and filtering and
+ * counting completed tasks from a list against TaskColumnStore.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskListOperationsBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int taskCount;
+
+    private List<TaskItem> currentTasks;
+    private List<TaskItem> refreshedTasks;
+    private TaskItem newTask;
+    private TaskColumnStore columnStore;
+
+    @Setup
+    public void createTasks() {
+        currentTasks = new ArrayList<>(taskCount);
+        refreshedTasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            TaskItem taskItem = new TaskItem(taskCount - i, "Task number " + i, i % 3 == 0, 1_700_000_000_000L - i);
+            currentTasks.add(taskItem);
+            refreshedTasks.add(new TaskItem(taskItem));
+        }
+        refreshedTasks.get(taskCount / 2).setFinished(!refreshedTasks.get(taskCount / 2).isFinished());
+        newTask = new TaskItem(taskCount + 1, "Renew passport", false, 1_700_000_000_001L);
+        columnStore = TaskColumnStore.fromTasks(currentTasks);
+    }
+
+    @Benchmark
+    public List<TaskItem> insertAtTop() {
+        return TaskListOperations.withTaskInserted(currentTasks, 0, newTask);
+    }
+
+    @Benchmark
+    public List<TaskItem> removeFromMiddle() {
+        return TaskListOperations.withTaskRemoved(currentTasks, taskCount / 2);
+    }
+
+    @Benchmark
+    public List<TaskItem> replaceInMiddle() {
+        return TaskListOperations.withTaskReplaced(currentTasks, taskCount / 2, newTask);
+    }
+
+    @Benchmark
+    public List<TaskItem> filterCompletedIntoList() {
+        List<TaskItem> completedTasks = new ArrayList<>();
+        for (TaskItem task : currentTasks) {
+            if (task.isFinished()) {
+                completedTasks.add(task);
+            }
+        }
+        return completedTasks;
+    }
+
+    @Benchmark
+    public long walkCompletedColumnView() {
+        TaskColumnStore.FilteredView completedView = columnStore.getCompletedView();
+        long newestCreation = 0;
+        for (int row = completedView.nextRow(-1); row >= 0; row = completedView.nextRow(row)) {
+            newestCreation = Math.max(newestCreation, columnStore.getCreationTimestamp(row));
+        }
+        return newestCreation;
+    }
+
+    @Benchmark
+    public long countCompletedWithStream() {
+        return currentTasks.stream().filter(TaskItem::isFinished).count();
+    }
+
+    @Benchmark
+    public int countCompletedFromColumnStore() {
+        return columnStore.getCompletedCount();
+    }
+
+    @Benchmark
+    public TaskColumnStore refillColumnStore() {
+        columnStore.replaceAll(currentTasks);
+        return columnStore;
+    }
+
+    @Benchmark
+    public int compareContentRowByRow() {
+        int changedRows = 0;
+        for (int i = 0; i < taskCount; i++) {
+            TaskItem oldTask = currentTasks.get(i);
+            TaskItem newTask = refreshedTasks.get(i);
+            if (oldTask.getId() != newTask.getId() || !oldTask.hasSameContentAs(newTask)) {
+                changedRows++;
+            }
+        }
+        return changedRows;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.TaskValidationUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * TaskValidationUtils against the regex pipeline it replaced. Run with the gc profiler
+ * (the default for this module) to compare bytes allocated per call as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+    private static final Pattern SPECIAL_CHARS_ONLY = Pattern.compile("^[^a-zA-Z0-9\\s]+$");
+    private static final Pattern EXCESSIVE_WHITESPACE = Pattern.compile("\\s{3,}");
+    private static final Pattern PROFANITY_CHECK = Pattern.compile("(?i).*(spam|test123|dummy).*");
+
+    @Param({"Renew passport before the summer trip", "  Call the   dentist  ", "Empty the spam folder"})
+    public String description;
+
+    @Benchmark
+    public boolean validateWithRegex() {
+        String trimmedDescription = description.trim();
+        return !trimmedDescription.isEmpty()
+            && trimmedDescription.length() >= 3
+            && trimmedDescription.length() <= 200
+            && !SPECIAL_CHARS_ONLY.matcher(trimmedDescription).matches()
+            && !EXCESSIVE_WHITESPACE.matcher(trimmedDescription).find()
+            && !PROFANITY_CHECK.matcher(trimmedDescription).matches();
+    }
+
+    @Benchmark
+    public boolean validateInOnePass() {
+        return TaskValidationUtils.validateTaskDescription(description).isValid();
+    }
+
+    @Benchmark
+    public String sanitizeWithRegex() {
+        return description.trim()
+                .replaceAll("\\s+", " ")
+                .replaceAll("[\\x00-\\x1F\\x7F]", "");
+    }
+
+    @Benchmark
+    public String sanitizeInOnePass() {
+        return TaskValidationUtils.sanitizeTaskDescription(description);
+    }
+}